@@ -0,0 +1,151 @@
+package com.example.coursework1.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Caps how many requests can be outstanding against each ILP resource and records their latency. A caller
+// that can't get a slot within the acquire timeout fails fast with a ResourceAccessException, which the
+// repositories already treat like any other fetch failure.
+public class IlpClientInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IlpClientInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrentRequests;
+    private final Duration acquireTimeout;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public IlpClientInterceptor(MeterRegistry meterRegistry, int maxConcurrentRequests, Duration acquireTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String resource = IlpRequestFactory.resourceOf(request.getURI());
+        Semaphore semaphore = permits.computeIfAbsent(resource, this::newSemaphore);
+
+        try {
+            if (!semaphore.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                Counter.builder("ilp.client.rejected")
+                        .description("ILP requests refused because the resource's concurrency limit was reached")
+                        .tag("resource", resource)
+                        .register(meterRegistry)
+                        .increment();
+                logger.warn("ILP resource {} has {} requests outstanding, rejecting {}",
+                        resource, maxConcurrentRequests, request.getURI());
+                throw new ResourceAccessException("Too many concurrent requests to ILP resource " + resource);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted waiting for ILP resource " + resource);
+        }
+
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            finish(semaphore, resource, "IO_ERROR", start);
+            throw e;
+        }
+        // The body is still streaming at this point, so the slot and the timer stay open until the caller
+        // has read it and closed the response.
+        return new TrackedResponse(response, semaphore, resource, start);
+    }
+
+    private void finish(Semaphore semaphore, String resource, String status, long start) {
+        semaphore.release();
+        Timer.builder("ilp.client.requests")
+                .description("Latency of requests to the ILP service")
+                .tag("resource", resource)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Semaphore newSemaphore(String resource) {
+        Semaphore semaphore = new Semaphore(maxConcurrentRequests, true);
+        Gauge.builder("ilp.client.in-flight", semaphore, s -> maxConcurrentRequests - s.availablePermits())
+                .description("Requests currently outstanding against an ILP resource")
+                .tag("resource", resource)
+                .register(meterRegistry);
+        return semaphore;
+    }
+
+    private final class TrackedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Semaphore semaphore;
+        private final String resource;
+        private final long start;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private TrackedResponse(ClientHttpResponse delegate, Semaphore semaphore, String resource, long start) {
+            this.delegate = delegate;
+            this.semaphore = semaphore;
+            this.resource = resource;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            String status = "IO_ERROR";
+            try {
+                status = String.valueOf(delegate.getStatusCode().value());
+            } catch (IOException ignored) {
+                // Recorded as an IO error.
+            } finally {
+                try {
+                    delegate.close();
+                } finally {
+                    finish(semaphore, resource, status, start);
+                }
+            }
+        }
+    }
+}
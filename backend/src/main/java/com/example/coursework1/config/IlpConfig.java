@@ -1,7 +1,14 @@
 package com.example.coursework1.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.function.Function;
 
 @Configuration
 public class IlpConfig {
@@ -12,4 +19,30 @@ public class IlpConfig {
                 "https://ilp-rest-2025-bvh6e9hschfagrgy.ukwest-01.azurewebsites.net/"
         );
     }
-}
\ No newline at end of file
+
+    // Read timeouts can be set per resource, e.g. ilp.client.read-timeout-ms.restricted-areas=10000.
+    @Bean
+    public RestTemplate restTemplate(MeterRegistry meterRegistry, Environment environment) {
+        long defaultReadTimeout = environment.getProperty("ilp.client.read-timeout-ms", Long.class, 5000L);
+        return ilpRestTemplate(meterRegistry,
+                Duration.ofMillis(environment.getProperty("ilp.client.connect-timeout-ms", Long.class, 2000L)),
+                resource -> Duration.ofMillis(environment.getProperty(
+                        "ilp.client.read-timeout-ms." + resource, Long.class, defaultReadTimeout)),
+                environment.getProperty("ilp.client.max-concurrent-requests", Integer.class, 8),
+                Duration.ofMillis(environment.getProperty("ilp.client.acquire-timeout-ms", Long.class, 2000L)));
+    }
+
+    static RestTemplate ilpRestTemplate(MeterRegistry meterRegistry, Duration connectTimeout,
+                                        Function<String, Duration> readTimeouts, int maxConcurrentRequests,
+                                        Duration acquireTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+
+        RestTemplate restTemplate = new RestTemplate(new IlpRequestFactory(httpClient, readTimeouts));
+        restTemplate.getInterceptors().add(
+                new IlpClientInterceptor(meterRegistry, maxConcurrentRequests, acquireTimeout));
+        return restTemplate;
+    }
+}
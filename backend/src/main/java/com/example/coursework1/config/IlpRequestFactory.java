@@ -0,0 +1,45 @@
+package com.example.coursework1.config;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Sends every ILP request through one shared JDK HttpClient, which keeps connections alive and reuses them,
+// while giving each resource its own read timeout.
+public class IlpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+    private final Function<String, Duration> readTimeouts;
+    private final Map<String, JdkClientHttpRequestFactory> factories = new ConcurrentHashMap<>();
+
+    public IlpRequestFactory(HttpClient httpClient, Function<String, Duration> readTimeouts) {
+        this.httpClient = httpClient;
+        this.readTimeouts = readTimeouts;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return factories.computeIfAbsent(resourceOf(uri), resource -> {
+            JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+            factory.setReadTimeout(readTimeouts.apply(resource));
+            return factory;
+        }).createRequest(uri, httpMethod);
+    }
+
+    // The last path segment, e.g. "drones" or "restricted-areas"; used to key timeouts, limits and metrics.
+    static String resourceOf(URI uri) {
+        String path = uri.getPath();
+        if (path == null || path.isEmpty() || path.equals("/")) return "root";
+        if (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
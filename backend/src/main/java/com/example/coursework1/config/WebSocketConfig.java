@@ -8,9 +8,12 @@ import org.springframework.web.socket.config.annotation.*;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Fleet frames are deltas against earlier frames, so a session must receive them in the order they were
+    // published even though clientOutboundChannel hands messages to a thread pool.
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue");
+        config.setPreservePublishOrder(true);
         config.setApplicationDestinationPrefixes("/app");
     }
 
@@ -23,4 +26,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setHttpMessageCacheSize(1000)
                 .setSessionCookieNeeded(false);
     }
+
+    // A client that stops reading gets disconnected instead of buffering frames on the server indefinitely;
+    // fleet frames are additionally flow-controlled per session by TelemetryFanoutService.
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(10_000)
+                .setSendBufferSizeLimit(512 * 1024);
+    }
 }
\ No newline at end of file
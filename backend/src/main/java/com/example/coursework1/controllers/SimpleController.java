@@ -33,6 +33,18 @@ public class SimpleController {
     @Autowired
     private DroneDispatchService droneDispatchService;
 
+    @Autowired
+    private RestrictedAreaService restrictedAreaService;
+
+    @Autowired
+    private MissionExecutor missionExecutor;
+
+    @Autowired
+    private TelemetryFanoutService telemetryFanoutService;
+
+    @Autowired
+    private FleetStatusService fleetStatusService;
+
     public SimpleController(DistanceService distanceService,
                             NavigationService navigationService,
                             RegionService regionService,
@@ -119,17 +131,19 @@ public class SimpleController {
 
     @PostMapping("/calcDeliveryPath")
     public ResponseEntity<CalcDeliveryResult> calcDeliveryPath(
-            @RequestBody List<MedDispatchRec> recs) {
+            @RequestBody List<MedDispatchRec> recs,
+            @RequestParam(required = false) String engine) {
 
-        CalcDeliveryResult result = deliveryPlannerService.calcDeliveryPath(recs);
+        CalcDeliveryResult result = deliveryPlannerService.calcDeliveryPath(recs, engine);
         return ResponseEntity.ok(result);
     }
 
     @PostMapping("/calcDeliveryPathAsGeoJson")
     public ResponseEntity<?> calcDeliveryPathAsGeoJson(
-            @RequestBody List<MedDispatchRec> recs) {
+            @RequestBody List<MedDispatchRec> recs,
+            @RequestParam(required = false) String engine) {
 
-        Object geoJson = geoJsonService.calcDeliveryPathAsGeoJson(recs);
+        Object geoJson = geoJsonService.calcDeliveryPathAsGeoJson(recs, engine);
         return ResponseEntity.ok(geoJson);
     }
 
@@ -146,11 +160,19 @@ public class SimpleController {
         return ResponseEntity.ok(result);
     }
 
+    // Drops the cached drone catalog so the next request fetches it from the ILP service again.
+    @PostMapping("/invalidateDroneCatalog")
+    public ResponseEntity<Map<String, Object>> invalidateDroneCatalog() {
+        droneService.invalidateCatalog();
+        return ResponseEntity.ok(Map.of("invalidated", true));
+    }
+
     @GetMapping("/systemStatus")
     public ResponseEntity<Map<String, Object>> getSystemStatus() {
         Map<String, Object> status = Map.of(
-                "activeDrones", droneDispatchService.getActiveDrones().size(),
-                "totalDrones", droneService.fetchAllDrones().size(),
+                "activeDrones", fleetStatusService.getActiveDrones(),
+                "availableDrones", fleetStatusService.getAvailableDrones(),
+                "totalDrones", fleetStatusService.getTotalDrones(),
                 "activeMissions", droneDispatchService.getActiveDrones().values().stream()
                         .map(state -> Map.of(
                                 "droneId", state.getDroneId(),
@@ -158,7 +180,10 @@ public class SimpleController {
                                 "status", state.getStatus(),
                                 "progress", (double) state.getStepIndex() / state.getFlightPath().size()
                         ))
-                        .toList()
+                        .toList(),
+                "segmentChecks", restrictedAreaService.getSegmentCheckCounts(),
+                "missions", missionExecutor.getStats(),
+                "telemetrySubscribers", telemetryFanoutService.getSubscriberStats()
         );
 
         return ResponseEntity.ok(status);
@@ -166,11 +191,7 @@ public class SimpleController {
 
     @GetMapping("/availableDrones")
     public ResponseEntity<List<Map<String, Object>>> getAvailableDrones() {
-        List<Drone> allDrones = droneService.fetchAllDrones();
-        Map<String, ?> activeDroneIds = droneDispatchService.getActiveDrones();
-
-        List<Map<String, Object>> available = allDrones.stream()
-                .filter(d -> !activeDroneIds.containsKey(d.getId()))
+        List<Map<String, Object>> available = fleetStatusService.getAvailableDroneList().stream()
                 .map(d -> Map.of(
                         "id", (Object) d.getId(),
                         "name", d.getName() != null ? d.getName() : "Unnamed",
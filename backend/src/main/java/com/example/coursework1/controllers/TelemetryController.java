@@ -0,0 +1,51 @@
+package com.example.coursework1.controllers;
+
+import com.example.coursework1.dto.Viewport;
+import com.example.coursework1.service.FleetTelemetryService;
+import com.example.coursework1.service.FleetTelemetryService.KeyframeSnapshot;
+import com.example.coursework1.service.TelemetryFanoutService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+@Controller
+public class TelemetryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryController.class);
+    private final FleetTelemetryService fleetTelemetryService;
+    private final TelemetryFanoutService telemetryFanoutService;
+
+    public TelemetryController(FleetTelemetryService fleetTelemetryService,
+                               TelemetryFanoutService telemetryFanoutService) {
+        this.fleetTelemetryService = fleetTelemetryService;
+        this.telemetryFanoutService = telemetryFanoutService;
+    }
+
+    // Subscribing to /app/fleet-keyframes replies once with the keyframes of every drone in the air;
+    // clients do this on (re)connect and then follow /user/queue/fleet-frames.
+    @SubscribeMapping("/fleet-keyframes")
+    public KeyframeSnapshot fleetKeyframes() {
+        KeyframeSnapshot snapshot = fleetTelemetryService.snapshot();
+        logger.debug("Sending {} keyframes at frame {}", snapshot.getKeyframes().size(), snapshot.getSeq());
+        return snapshot;
+    }
+
+    // Clients send their map bounds here whenever they pan or zoom; their fleet frames are then limited
+    // to drones inside it.
+    @MessageMapping("/fleet-viewport")
+    public void updateViewport(Viewport viewport, SimpMessageHeaderAccessor headers) {
+        if (viewport == null || !viewport.isValid()) {
+            logger.warn("Invalid viewport from session {}", headers.getSessionId());
+            return;
+        }
+        telemetryFanoutService.setViewport(headers.getSessionId(), viewport);
+    }
+
+    @MessageMapping("/fleet-viewport/clear")
+    public void clearViewport(SimpMessageHeaderAccessor headers) {
+        telemetryFanoutService.setViewport(headers.getSessionId(), null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.coursework1.dto;
+
+public class Viewport {
+    private double minLng;
+    private double minLat;
+    private double maxLng;
+    private double maxLat;
+
+    public Viewport() {}
+
+    public Viewport(double minLng, double minLat, double maxLng, double maxLat) {
+        this.minLng = minLng;
+        this.minLat = minLat;
+        this.maxLng = maxLng;
+        this.maxLat = maxLat;
+    }
+
+    public boolean isValid() {
+        return Double.isFinite(minLng) && Double.isFinite(minLat) && Double.isFinite(maxLng) && Double.isFinite(maxLat)
+                && minLng <= maxLng && minLat <= maxLat;
+    }
+
+    public boolean contains(double lng, double lat) {
+        return lng >= minLng && lng <= maxLng && lat >= minLat && lat <= maxLat;
+    }
+
+    public double getMinLng() { return minLng; }
+    public double getMinLat() { return minLat; }
+    public double getMaxLng() { return maxLng; }
+    public double getMaxLat() { return maxLat; }
+
+    public void setMinLng(double minLng) { this.minLng = minLng; }
+    public void setMinLat(double minLat) { this.minLat = minLat; }
+    public void setMaxLng(double maxLng) { this.maxLng = maxLng; }
+    public void setMaxLat(double maxLat) { this.maxLat = maxLat; }
+}
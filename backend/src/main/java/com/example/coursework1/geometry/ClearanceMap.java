@@ -0,0 +1,92 @@
+package com.example.coursework1.geometry;
+
+// Coarse grid of conservative distances to the nearest restricted geometry. Each cell stores the
+// centre's exact clearance minus the half-diagonal, so the value holds for every point in the cell.
+// Outside the grid the distance to the airspace's overall bounds is used instead.
+public final class ClearanceMap {
+
+    private static final double CELL_SIZE = 0.0003;
+    private static final int MARGIN_CELLS = 4;
+    private static final int MAX_CELLS = 250_000;
+    private static final double SAFETY_MARGIN = 1e-9;
+
+    private final RestrictedAirspace airspace;
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final float[] clearance;
+
+    private ClearanceMap(RestrictedAirspace airspace, double originX, double originY, double cellSize,
+                         int columns, int rows, float[] clearance) {
+        this.airspace = airspace;
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.clearance = clearance;
+    }
+
+    static ClearanceMap build(RestrictedAirspace airspace) {
+        if (airspace.getAreaCount() == 0) {
+            return new ClearanceMap(airspace, 0, 0, 1, 0, 0, new float[0]);
+        }
+
+        double width = airspace.getMaxX() - airspace.getMinX();
+        double height = airspace.getMaxY() - airspace.getMinY();
+
+        double cellSize = CELL_SIZE;
+        double cells = (width / cellSize + 2 * MARGIN_CELLS) * (height / cellSize + 2 * MARGIN_CELLS);
+        if (cells > MAX_CELLS) {
+            cellSize *= Math.sqrt(cells / MAX_CELLS);
+        }
+
+        double originX = airspace.getMinX() - MARGIN_CELLS * cellSize;
+        double originY = airspace.getMinY() - MARGIN_CELLS * cellSize;
+        int columns = (int) Math.ceil(width / cellSize) + 2 * MARGIN_CELLS;
+        int rows = (int) Math.ceil(height / cellSize) + 2 * MARGIN_CELLS;
+        double halfDiagonal = cellSize * Math.sqrt(2) / 2;
+
+        float[] clearance = new float[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            double cy = originY + (row + 0.5) * cellSize;
+            for (int col = 0; col < columns; col++) {
+                double cx = originX + (col + 0.5) * cellSize;
+
+                double value = 0;
+                if (airspace.findContainingArea(cx, cy) < 0) {
+                    value = Math.max(0, airspace.distanceToNearestEdge(cx, cy) - halfDiagonal - SAFETY_MARGIN);
+                }
+                clearance[row * columns + col] = roundDown(value);
+            }
+        }
+
+        return new ClearanceMap(airspace, originX, originY, cellSize, columns, rows, clearance);
+    }
+
+    private static float roundDown(double value) {
+        float f = (float) value;
+        return f > value ? Math.nextDown(f) : f;
+    }
+
+    public int getCellCount() { return columns * rows; }
+    public double getCellSize() { return cellSize; }
+
+    public double clearanceAt(double x, double y) {
+        if (clearance.length == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double fx = (x - originX) / cellSize;
+        double fy = (y - originY) / cellSize;
+        if (fx >= 0 && fy >= 0 && fx < columns && fy < rows) {
+            return clearance[(int) fy * columns + (int) fx];
+        }
+
+        // Every edge lies inside the airspace bounds, so the distance to that box is a valid lower bound.
+        return Math.max(0, RestrictedAirspace.boxDistance(airspace.getMinX(), airspace.getMinY(),
+                airspace.getMaxX(), airspace.getMaxY(), x, y) - SAFETY_MARGIN);
+    }
+}
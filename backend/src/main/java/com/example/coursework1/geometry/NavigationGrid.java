@@ -0,0 +1,128 @@
+package com.example.coursework1.geometry;
+
+// Packed bitset of moves that may be blocked, one bit per (cell, direction) over a uniform grid.
+// Drone positions are not snapped to the grid, so each bit covers every STEP-long move in that
+// direction starting anywhere inside the cell: a clear bit proves the move is free, a set bit only
+// says the exact check is needed.
+public final class NavigationGrid {
+
+    public static final int DIRECTIONS = 16;
+    public static final double ANGLE_INCREMENT = 360.0 / DIRECTIONS;
+
+    private static final int MAX_CELLS = 1_000_000;
+    private static final double ROUNDING_PADDING = 1e-9;
+
+    private final RestrictedAirspace airspace;
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final long[] blockedBits;
+    private final int blockedMoveCount;
+
+    private NavigationGrid(RestrictedAirspace airspace, double originX, double originY, double cellSize,
+                           int columns, int rows, long[] blockedBits, int blockedMoveCount) {
+        this.airspace = airspace;
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.blockedBits = blockedBits;
+        this.blockedMoveCount = blockedMoveCount;
+    }
+
+    public static NavigationGrid empty(RestrictedAirspace airspace) {
+        return new NavigationGrid(airspace, 0, 0, 1, 0, 0, new long[0], 0);
+    }
+
+    public static NavigationGrid build(RestrictedAirspace airspace, double minX, double minY,
+                                       double maxX, double maxY, double step) {
+        if (!(maxX > minX) || !(maxY > minY)) {
+            return empty(airspace);
+        }
+
+        double cellSize = step;
+        double cells = Math.ceil((maxX - minX) / cellSize) * Math.ceil((maxY - minY) / cellSize);
+        if (cells > MAX_CELLS) {
+            cellSize *= Math.sqrt(cells / MAX_CELLS);
+        }
+
+        int columns = (int) Math.ceil((maxX - minX) / cellSize);
+        int rows = (int) Math.ceil((maxY - minY) / cellSize);
+        long[] bits = new long[(columns * rows * DIRECTIONS + 63) / 64];
+
+        double[] dx = new double[DIRECTIONS], dy = new double[DIRECTIONS];
+        for (int d = 0; d < DIRECTIONS; d++) {
+            double angle = Math.toRadians(d * ANGLE_INCREMENT);
+            dx[d] = step * Math.cos(angle);
+            dy[d] = step * Math.sin(angle);
+        }
+
+        double reach = step + ROUNDING_PADDING;
+        int blocked = 0;
+
+        for (int row = 0; row < rows; row++) {
+            double y0 = minY + row * cellSize, y1 = y0 + cellSize;
+            for (int col = 0; col < columns; col++) {
+                double x0 = minX + col * cellSize, x1 = x0 + cellSize;
+
+                // Most cells are nowhere near a polygon; one query then clears all 16 directions.
+                if (!airspace.rectangleMayIntersect(x0 - reach, y0 - reach, x1 + reach, y1 + reach)) {
+                    continue;
+                }
+
+                int base = (row * columns + col) * DIRECTIONS;
+                for (int d = 0; d < DIRECTIONS; d++) {
+                    boolean mayBlock = airspace.rectangleMayIntersect(
+                            x0 + Math.min(0, dx[d]) - ROUNDING_PADDING,
+                            y0 + Math.min(0, dy[d]) - ROUNDING_PADDING,
+                            x1 + Math.max(0, dx[d]) + ROUNDING_PADDING,
+                            y1 + Math.max(0, dy[d]) + ROUNDING_PADDING);
+                    if (mayBlock) {
+                        int bit = base + d;
+                        bits[bit >>> 6] |= 1L << bit;
+                        blocked++;
+                    }
+                }
+            }
+        }
+
+        return new NavigationGrid(airspace, minX, minY, cellSize, columns, rows, bits, blocked);
+    }
+
+    public static int directionIndex(double angleDegrees) {
+        int d = (int) Math.round(angleDegrees / ANGLE_INCREMENT) % DIRECTIONS;
+        return d < 0 ? d + DIRECTIONS : d;
+    }
+
+    public RestrictedAirspace getAirspace() { return airspace; }
+    public double getCellSize() { return cellSize; }
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public int getCellCount() { return columns * rows; }
+    public int getBlockedMoveCount() { return blockedMoveCount; }
+
+    public boolean covers(double x, double y) {
+        return cellIndex(x, y) >= 0;
+    }
+
+    public boolean isMoveKnownClear(double x, double y, int direction) {
+        int cell = cellIndex(x, y);
+        if (cell < 0) {
+            return false;
+        }
+        int bit = cell * DIRECTIONS + direction;
+        return (blockedBits[bit >>> 6] & (1L << bit)) == 0;
+    }
+
+    private int cellIndex(double x, double y) {
+        double fx = (x - originX) / cellSize;
+        double fy = (y - originY) / cellSize;
+        if (!(fx >= 0 && fy >= 0 && fx < columns && fy < rows)) {
+            return -1;
+        }
+        return (int) fy * columns + (int) fx;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.coursework1.geometry;
+
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+
+import java.util.List;
+
+// Tolerances match RegionService, so containment and boundary contact agree with /isInRegion.
+public final class PreparedRestrictedArea {
+
+    private static final double REGION_TOLERANCE = 1e-12;
+    private static final double BOUNDS_PADDING = 1e-6;
+
+    private final String name;
+    private final double[] xs;
+    private final double[] ys;
+    private final boolean closed;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    private PreparedRestrictedArea(String name, double[] xs, double[] ys, boolean closed) {
+        this.name = name;
+        this.xs = xs;
+        this.ys = ys;
+        this.closed = closed;
+
+        double loX = Double.POSITIVE_INFINITY, loY = Double.POSITIVE_INFINITY;
+        double hiX = Double.NEGATIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            loX = Math.min(loX, xs[i]);
+            loY = Math.min(loY, ys[i]);
+            hiX = Math.max(hiX, xs[i]);
+            hiY = Math.max(hiY, ys[i]);
+        }
+        this.minX = loX - BOUNDS_PADDING;
+        this.minY = loY - BOUNDS_PADDING;
+        this.maxX = hiX + BOUNDS_PADDING;
+        this.maxY = hiY + BOUNDS_PADDING;
+    }
+
+    // Areas that RegionService would reject (open or < 4 vertices) keep their edges but never contain a point.
+    public static PreparedRestrictedArea compile(RestrictedArea area) {
+        if (area == null || area.getVertices() == null) {
+            return null;
+        }
+
+        List<Position> vertices = area.getVertices();
+        if (vertices.size() < 2) {
+            return null;
+        }
+
+        double[] xs = new double[vertices.size()];
+        double[] ys = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            Position v = vertices.get(i);
+            if (v == null || v.getLng() == null || v.getLat() == null) {
+                return null;
+            }
+            xs[i] = v.getLng();
+            ys[i] = v.getLat();
+        }
+
+        int last = xs.length - 1;
+        boolean closed = xs.length >= 4
+                && Math.abs(xs[0] - xs[last]) <= REGION_TOLERANCE
+                && Math.abs(ys[0] - ys[last]) <= REGION_TOLERANCE;
+
+        return new PreparedRestrictedArea(area.getName(), xs, ys, closed);
+    }
+
+    public String getName() { return name; }
+    public boolean isClosed() { return closed; }
+    public int getVertexCount() { return xs.length; }
+    public int getEdgeCount() { return xs.length - 1; }
+    public double getMinX() { return minX; }
+    public double getMinY() { return minY; }
+    public double getMaxX() { return maxX; }
+    public double getMaxY() { return maxY; }
+
+    public double getVertexX(int i) { return xs[i]; }
+    public double getVertexY(int i) { return ys[i]; }
+
+    public boolean boundsContain(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    public boolean boundsOverlap(double x1, double y1, double x2, double y2) {
+        return Math.max(x1, x2) >= minX && Math.min(x1, x2) <= maxX
+                && Math.max(y1, y2) >= minY && Math.min(y1, y2) <= maxY;
+    }
+
+    public boolean contains(double px, double py) {
+        if (!closed || !boundsContain(px, py)) {
+            return false;
+        }
+
+        if (isOnBoundary(px, py)) {
+            return true;
+        }
+
+        boolean inside = false;
+        int n = xs.length;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double xi = xs[i], yi = ys[i];
+            double xj = xs[j], yj = ys[j];
+
+            if (Math.abs(yj - yi) < REGION_TOLERANCE) continue;
+
+            boolean intersect = ((yi > py) != (yj > py)) &&
+                    (px < (xj - xi) * (py - yi) / (yj - yi) + xi);
+
+            if (intersect)
+                inside = !inside;
+        }
+
+        return inside;
+    }
+
+    private boolean isOnBoundary(double px, double py) {
+        for (int i = 0; i < xs.length - 1; i++) {
+            double x1 = xs[i], y1 = ys[i];
+            double x2 = xs[i + 1], y2 = ys[i + 1];
+
+            double cross = (px - x1) * (y2 - y1) - (py - y1) * (x2 - x1);
+            if (Math.abs(cross) > REGION_TOLERANCE) continue;
+
+            double dot = (px - x1) * (px - x2) + (py - y1) * (py - y2);
+            if (dot <= REGION_TOLERANCE)
+                return true;
+        }
+
+        return false;
+    }
+
+    // Exact test against the closed region: the segment is blocked when an endpoint lies inside or on
+    // the polygon, or when it crosses or touches any edge. Touching uses the same cross/dot tolerance
+    // as RegionService's boundary check, so collinear overlaps and grazed vertices count as blocked.
+    public boolean intersectsSegment(double x1, double y1, double x2, double y2) {
+        if (!boundsOverlap(x1, y1, x2, y2)) {
+            return false;
+        }
+
+        if (contains(x1, y1) || contains(x2, y2)) {
+            return true;
+        }
+
+        for (int i = 0; i < xs.length - 1; i++) {
+            if (segmentTouchesEdge(i, x1, y1, x2, y2)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean segmentTouchesEdge(int edge, double x1, double y1, double x2, double y2) {
+        double x3 = xs[edge], y3 = ys[edge];
+        double x4 = xs[edge + 1], y4 = ys[edge + 1];
+
+        int o1 = orientation(x1, y1, x2, y2, x3, y3);
+        int o2 = orientation(x1, y1, x2, y2, x4, y4);
+        int o3 = orientation(x3, y3, x4, y4, x1, y1);
+        int o4 = orientation(x3, y3, x4, y4, x2, y2);
+
+        if (o1 * o2 < 0 && o3 * o4 < 0) {
+            return true;
+        }
+
+        return (o1 == 0 && withinSegment(x3, y3, x1, y1, x2, y2))
+                || (o2 == 0 && withinSegment(x4, y4, x1, y1, x2, y2))
+                || (o3 == 0 && withinSegment(x1, y1, x3, y3, x4, y4))
+                || (o4 == 0 && withinSegment(x2, y2, x3, y3, x4, y4));
+    }
+
+    public double distanceToEdge(int edge, double px, double py) {
+        double x1 = xs[edge], y1 = ys[edge];
+        double dx = xs[edge + 1] - x1, dy = ys[edge + 1] - y1;
+        double lengthSquared = dx * dx + dy * dy;
+
+        double t = lengthSquared == 0 ? 0 : ((px - x1) * dx + (py - y1) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+
+        double ex = x1 + t * dx - px, ey = y1 + t * dy - py;
+        return Math.sqrt(ex * ex + ey * ey);
+    }
+
+    private static int orientation(double ax, double ay, double bx, double by, double px, double py) {
+        double cross = (px - ax) * (by - ay) - (py - ay) * (bx - ax);
+        if (cross > REGION_TOLERANCE) return 1;
+        if (cross < -REGION_TOLERANCE) return -1;
+        return 0;
+    }
+
+    private static boolean withinSegment(double px, double py, double ax, double ay, double bx, double by) {
+        return (px - ax) * (px - bx) + (py - ay) * (py - by) <= REGION_TOLERANCE;
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.coursework1.geometry;
+
+import java.util.List;
+
+// Immutable snapshot of the prepared restricted areas with STR-packed R-trees over every polygon
+// edge and every area's bounding box, so queries only touch geometry near the query segment.
+public final class RestrictedAirspace {
+
+    private static final double EDGE_PADDING = 1e-6;
+
+    private static final RestrictedAirspace EMPTY = new RestrictedAirspace(List.of());
+
+    private final List<PreparedRestrictedArea> areas;
+    private final PreparedRestrictedArea[] areaArray;
+    private final int[] edgeArea;
+    private final int[] edgeIndex;
+    private final StrTree edgeTree;
+    private final StrTree areaTree;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    private volatile ClearanceMap clearanceMap;
+
+    private RestrictedAirspace(List<PreparedRestrictedArea> areas) {
+        this.areas = List.copyOf(areas);
+        this.areaArray = this.areas.toArray(new PreparedRestrictedArea[0]);
+
+        int edgeTotal = 0;
+        for (PreparedRestrictedArea area : areaArray) {
+            edgeTotal += area.getEdgeCount();
+        }
+
+        this.edgeArea = new int[edgeTotal];
+        this.edgeIndex = new int[edgeTotal];
+        double[] minX = new double[edgeTotal], minY = new double[edgeTotal];
+        double[] maxX = new double[edgeTotal], maxY = new double[edgeTotal];
+
+        int e = 0;
+        for (int a = 0; a < areaArray.length; a++) {
+            PreparedRestrictedArea area = areaArray[a];
+            for (int i = 0; i < area.getEdgeCount(); i++, e++) {
+                double x1 = area.getVertexX(i), y1 = area.getVertexY(i);
+                double x2 = area.getVertexX(i + 1), y2 = area.getVertexY(i + 1);
+                edgeArea[e] = a;
+                edgeIndex[e] = i;
+                minX[e] = Math.min(x1, x2) - EDGE_PADDING;
+                minY[e] = Math.min(y1, y2) - EDGE_PADDING;
+                maxX[e] = Math.max(x1, x2) + EDGE_PADDING;
+                maxY[e] = Math.max(y1, y2) + EDGE_PADDING;
+            }
+        }
+        this.edgeTree = StrTree.build(minX, minY, maxX, maxY);
+
+        double[] aMinX = new double[areaArray.length], aMinY = new double[areaArray.length];
+        double[] aMaxX = new double[areaArray.length], aMaxY = new double[areaArray.length];
+        for (int a = 0; a < areaArray.length; a++) {
+            aMinX[a] = areaArray[a].getMinX();
+            aMinY[a] = areaArray[a].getMinY();
+            aMaxX[a] = areaArray[a].getMaxX();
+            aMaxY[a] = areaArray[a].getMaxY();
+        }
+        this.areaTree = StrTree.build(aMinX, aMinY, aMaxX, aMaxY);
+
+        double loX = Double.POSITIVE_INFINITY, loY = Double.POSITIVE_INFINITY;
+        double hiX = Double.NEGATIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
+        for (int a = 0; a < areaArray.length; a++) {
+            loX = Math.min(loX, aMinX[a]);
+            loY = Math.min(loY, aMinY[a]);
+            hiX = Math.max(hiX, aMaxX[a]);
+            hiY = Math.max(hiY, aMaxY[a]);
+        }
+        this.minX = loX;
+        this.minY = loY;
+        this.maxX = hiX;
+        this.maxY = hiY;
+    }
+
+    public static RestrictedAirspace of(List<PreparedRestrictedArea> areas) {
+        return areas.isEmpty() ? EMPTY : new RestrictedAirspace(areas);
+    }
+
+    public static RestrictedAirspace empty() {
+        return EMPTY;
+    }
+
+    public List<PreparedRestrictedArea> getAreas() { return areas; }
+    public int getAreaCount() { return areaArray.length; }
+    public int getEdgeCount() { return edgeArea.length; }
+    public double getMinX() { return minX; }
+    public double getMinY() { return minY; }
+    public double getMaxX() { return maxX; }
+    public double getMaxY() { return maxY; }
+
+    // Built on first use so snapshots that never serve path planning don't pay for it.
+    public ClearanceMap getClearanceMap() {
+        ClearanceMap map = clearanceMap;
+        if (map == null) {
+            synchronized (this) {
+                map = clearanceMap;
+                if (map == null) {
+                    map = ClearanceMap.build(this);
+                    clearanceMap = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    // Lower bound on the distance from (x, y) to any restricted area: zero inside an area, otherwise
+    // no segment shorter than this value starting at (x, y) can touch restricted airspace.
+    public double clearanceAt(double x, double y) {
+        return getClearanceMap().clearanceAt(x, y);
+    }
+
+    public PreparedRestrictedArea getArea(int index) {
+        return areaArray[index];
+    }
+
+    public int findContainingArea(double x, double y) {
+        if (areaTree.isEmpty()) return -1;
+        return findContainingArea(areaTree.root, x, y);
+    }
+
+    private int findContainingArea(int node, double x, double y) {
+        if (!areaTree.nodeOverlaps(node, x, y, x, y)) return -1;
+
+        int start = areaTree.nodeStart[node];
+        int end = start + areaTree.nodeCount[node];
+
+        if (areaTree.nodeLeaf[node]) {
+            for (int e = start; e < end; e++) {
+                int a = areaTree.entryIds[e];
+                if (areaTree.entryOverlaps(e, x, y, x, y) && areaArray[a].contains(x, y)) {
+                    return a;
+                }
+            }
+            return -1;
+        }
+
+        for (int child = start; child < end; child++) {
+            int found = findContainingArea(child, x, y);
+            if (found >= 0) return found;
+        }
+        return -1;
+    }
+
+    public boolean segmentIntersectsAnyArea(double x1, double y1, double x2, double y2) {
+        return findContainingArea(x1, y1) >= 0
+                || findContainingArea(x2, y2) >= 0
+                || segmentTouchesAnyEdge(x1, y1, x2, y2);
+    }
+
+    public boolean segmentTouchesAnyEdge(double x1, double y1, double x2, double y2) {
+        if (edgeTree.isEmpty()) return false;
+        return segmentTouchesAnyEdge(edgeTree.root, x1, y1, x2, y2,
+                Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    }
+
+    private boolean segmentTouchesAnyEdge(int node, double x1, double y1, double x2, double y2,
+                                          double minX, double minY, double maxX, double maxY) {
+        if (!edgeTree.nodeOverlaps(node, minX, minY, maxX, maxY)) return false;
+
+        int start = edgeTree.nodeStart[node];
+        int end = start + edgeTree.nodeCount[node];
+
+        if (edgeTree.nodeLeaf[node]) {
+            for (int e = start; e < end; e++) {
+                if (!edgeTree.entryOverlaps(e, minX, minY, maxX, maxY)) continue;
+                int edge = edgeTree.entryIds[e];
+                if (areaArray[edgeArea[edge]].segmentTouchesEdge(edgeIndex[edge], x1, y1, x2, y2)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (int child = start; child < end; child++) {
+            if (segmentTouchesAnyEdge(child, x1, y1, x2, y2, minX, minY, maxX, maxY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public double distanceToNearestEdge(double x, double y) {
+        if (edgeTree.isEmpty()) return Double.POSITIVE_INFINITY;
+        return distanceToNearestEdge(edgeTree.root, x, y, Double.POSITIVE_INFINITY);
+    }
+
+    private double distanceToNearestEdge(int node, double x, double y, double best) {
+        if (boxDistance(edgeTree.nodeMinX[node], edgeTree.nodeMinY[node],
+                edgeTree.nodeMaxX[node], edgeTree.nodeMaxY[node], x, y) >= best) {
+            return best;
+        }
+
+        int start = edgeTree.nodeStart[node];
+        int end = start + edgeTree.nodeCount[node];
+
+        if (edgeTree.nodeLeaf[node]) {
+            for (int e = start; e < end; e++) {
+                if (boxDistance(edgeTree.entryMinX[e], edgeTree.entryMinY[e],
+                        edgeTree.entryMaxX[e], edgeTree.entryMaxY[e], x, y) >= best) {
+                    continue;
+                }
+                int edge = edgeTree.entryIds[e];
+                best = Math.min(best, areaArray[edgeArea[edge]].distanceToEdge(edgeIndex[edge], x, y));
+            }
+            return best;
+        }
+
+        for (int child = start; child < end; child++) {
+            best = distanceToNearestEdge(child, x, y, best);
+        }
+        return best;
+    }
+
+    static double boxDistance(double minX, double minY, double maxX, double maxY, double x, double y) {
+        double dx = Math.max(0, Math.max(minX - x, x - maxX));
+        double dy = Math.max(0, Math.max(minY - y, y - maxY));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Conservative: true when the rectangle overlaps any edge's padded box or lies inside an area. A false
+    // result proves that no segment within the rectangle can touch restricted airspace.
+    public boolean rectangleMayIntersect(double minX, double minY, double maxX, double maxY) {
+        if (!edgeTree.isEmpty() && anyEdgeOverlaps(edgeTree.root, minX, minY, maxX, maxY)) {
+            return true;
+        }
+        return findContainingArea(minX, minY) >= 0;
+    }
+
+    private boolean anyEdgeOverlaps(int node, double minX, double minY, double maxX, double maxY) {
+        if (!edgeTree.nodeOverlaps(node, minX, minY, maxX, maxY)) return false;
+
+        int start = edgeTree.nodeStart[node];
+        int end = start + edgeTree.nodeCount[node];
+
+        if (edgeTree.nodeLeaf[node]) {
+            for (int e = start; e < end; e++) {
+                if (edgeTree.entryOverlaps(e, minX, minY, maxX, maxY)) return true;
+            }
+            return false;
+        }
+
+        for (int child = start; child < end; child++) {
+            if (anyEdgeOverlaps(child, minX, minY, maxX, maxY)) return true;
+        }
+        return false;
+    }
+
+    // Number of edges whose bounding boxes overlap the segment's box, i.e. the edges a crossing
+    // query has to test exactly. Used to show that query cost tracks local density only.
+    public int countCandidateEdges(double x1, double y1, double x2, double y2) {
+        if (edgeTree.isEmpty()) return 0;
+        return countCandidateEdges(edgeTree.root,
+                Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    }
+
+    private int countCandidateEdges(int node, double minX, double minY, double maxX, double maxY) {
+        if (!edgeTree.nodeOverlaps(node, minX, minY, maxX, maxY)) return 0;
+
+        int start = edgeTree.nodeStart[node];
+        int end = start + edgeTree.nodeCount[node];
+        int count = 0;
+
+        if (edgeTree.nodeLeaf[node]) {
+            for (int e = start; e < end; e++) {
+                if (edgeTree.entryOverlaps(e, minX, minY, maxX, maxY)) count++;
+            }
+            return count;
+        }
+
+        for (int child = start; child < end; child++) {
+            count += countCandidateEdges(child, minX, minY, maxX, maxY);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.coursework1.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Static R-tree bulk-loaded with Sort-Tile-Recursive packing. Entries and nodes are stored in flat
+// primitive arrays; traversal is left to the owner so queries can run without callbacks.
+final class StrTree {
+
+    static final int NODE_CAPACITY = 8;
+
+    final int[] entryIds;
+    final double[] entryMinX;
+    final double[] entryMinY;
+    final double[] entryMaxX;
+    final double[] entryMaxY;
+
+    final double[] nodeMinX;
+    final double[] nodeMinY;
+    final double[] nodeMaxX;
+    final double[] nodeMaxY;
+    final int[] nodeStart;
+    final int[] nodeCount;
+    final boolean[] nodeLeaf;
+    final int root;
+
+    private StrTree(int[] entryIds, double[] entryMinX, double[] entryMinY,
+                    double[] entryMaxX, double[] entryMaxY, List<Node> nodes, int root) {
+        this.entryIds = entryIds;
+        this.entryMinX = entryMinX;
+        this.entryMinY = entryMinY;
+        this.entryMaxX = entryMaxX;
+        this.entryMaxY = entryMaxY;
+        this.root = root;
+
+        int n = nodes.size();
+        this.nodeMinX = new double[n];
+        this.nodeMinY = new double[n];
+        this.nodeMaxX = new double[n];
+        this.nodeMaxY = new double[n];
+        this.nodeStart = new int[n];
+        this.nodeCount = new int[n];
+        this.nodeLeaf = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Node node = nodes.get(i);
+            nodeMinX[i] = node.minX;
+            nodeMinY[i] = node.minY;
+            nodeMaxX[i] = node.maxX;
+            nodeMaxY[i] = node.maxY;
+            nodeStart[i] = node.start;
+            nodeCount[i] = node.count;
+            nodeLeaf[i] = node.leaf;
+        }
+    }
+
+    static StrTree build(double[] minX, double[] minY, double[] maxX, double[] maxY) {
+        int n = minX.length;
+
+        List<Node> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Node entry = new Node(true, i, 0);
+            entry.minX = minX[i];
+            entry.minY = minY[i];
+            entry.maxX = maxX[i];
+            entry.maxY = maxY[i];
+            entries.add(entry);
+        }
+        entries = tile(entries);
+
+        int[] ids = new int[n];
+        double[] eMinX = new double[n], eMinY = new double[n], eMaxX = new double[n], eMaxY = new double[n];
+        for (int i = 0; i < n; i++) {
+            Node entry = entries.get(i);
+            ids[i] = entry.start;
+            eMinX[i] = entry.minX;
+            eMinY[i] = entry.minY;
+            eMaxX[i] = entry.maxX;
+            eMaxY[i] = entry.maxY;
+        }
+
+        List<Node> all = new ArrayList<>();
+        if (n == 0) {
+            return new StrTree(ids, eMinX, eMinY, eMaxX, eMaxY, all, -1);
+        }
+
+        List<Node> level = new ArrayList<>();
+        for (int i = 0; i < n; i += NODE_CAPACITY) {
+            Node leaf = new Node(true, i, Math.min(NODE_CAPACITY, n - i));
+            for (int e = leaf.start; e < leaf.start + leaf.count; e++) {
+                leaf.include(eMinX[e], eMinY[e], eMaxX[e], eMaxY[e]);
+            }
+            level.add(leaf);
+        }
+
+        while (level.size() > 1) {
+            level = tile(level);
+            int base = all.size();
+            all.addAll(level);
+
+            List<Node> parents = new ArrayList<>();
+            for (int i = 0; i < level.size(); i += NODE_CAPACITY) {
+                Node parent = new Node(false, base + i, Math.min(NODE_CAPACITY, level.size() - i));
+                for (int c = i; c < i + parent.count; c++) {
+                    Node child = level.get(c);
+                    parent.include(child.minX, child.minY, child.maxX, child.maxY);
+                }
+                parents.add(parent);
+            }
+            level = parents;
+        }
+
+        all.add(level.get(0));
+        return new StrTree(ids, eMinX, eMinY, eMaxX, eMaxY, all, all.size() - 1);
+    }
+
+    private static List<Node> tile(List<Node> items) {
+        Node[] sorted = items.toArray(new Node[0]);
+        Arrays.sort(sorted, Comparator.comparingDouble(Node::centerX));
+
+        int leafCount = (int) Math.ceil((double) sorted.length / NODE_CAPACITY);
+        int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+
+        for (int from = 0; from < sorted.length; from += sliceSize) {
+            Arrays.sort(sorted, from, Math.min(from + sliceSize, sorted.length),
+                    Comparator.comparingDouble(Node::centerY));
+        }
+
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    boolean isEmpty() {
+        return root < 0;
+    }
+
+    int size() {
+        return entryIds.length;
+    }
+
+    boolean nodeOverlaps(int node, double minX, double minY, double maxX, double maxY) {
+        return nodeMaxX[node] >= minX && nodeMinX[node] <= maxX
+                && nodeMaxY[node] >= minY && nodeMinY[node] <= maxY;
+    }
+
+    boolean entryOverlaps(int entry, double minX, double minY, double maxX, double maxY) {
+        return entryMaxX[entry] >= minX && entryMinX[entry] <= maxX
+                && entryMaxY[entry] >= minY && entryMinY[entry] <= maxY;
+    }
+
+    private static final class Node {
+        final boolean leaf;
+        final int start;
+        final int count;
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        Node(boolean leaf, int start, int count) {
+            this.leaf = leaf;
+            this.start = start;
+            this.count = count;
+        }
+
+        void include(double x1, double y1, double x2, double y2) {
+            minX = Math.min(minX, x1);
+            minY = Math.min(minY, y1);
+            maxX = Math.max(maxX, x2);
+            maxY = Math.max(maxY, y2);
+        }
+
+        double centerX() { return (minX + maxX) / 2; }
+        double centerY() { return (minY + maxY) / 2; }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.model.Position;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AStarPathEngine implements PathEngine {
+
+    public static final String NAME = "astar";
+
+    private static final double STEP = 0.00015;
+    private static final double CLOSE_THRESHOLD = 0.00015;
+
+    private final MoveValidator moveValidator;
+    private final LatticeAStar search = new LatticeAStar(STEP, CLOSE_THRESHOLD);
+
+    public AStarPathEngine(MoveValidator moveValidator) {
+        this.moveValidator = moveValidator;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public PathSearchResult findPath(Position from, Position to, int budget) {
+        return findPath(from, to, budget, moveValidator);
+    }
+
+    @Override
+    public PathSearchResult findPath(Position from, Position to, int budget, MoveValidator validator) {
+        long start = System.nanoTime();
+        LatticeAStar.Result result = search.search(
+                from.getLng(), from.getLat(), to.getLng(), to.getLat(), budget, validator);
+
+        return new PathSearchResult(NAME, result.getPath(), result.getExpansions(),
+                result.getCollisionChecks(), result.getSkippedChecks(), System.nanoTime() - start);
+    }
+}
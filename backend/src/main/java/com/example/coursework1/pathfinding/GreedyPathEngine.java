@@ -0,0 +1,396 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.model.Position;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The original "head for the target, deflect when blocked" walker, plus its relaxed variant that
+// tolerates larger detours when the strict walk gets stuck.
+@Component
+public class GreedyPathEngine implements PathEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(GreedyPathEngine.class);
+
+    public static final String NAME = "greedy";
+
+    private static final double STEP = 0.00015;
+    private static final double ANGLE_INCREMENT = 22.5;
+    private static final double CLOSE_THRESHOLD = 0.00015;
+    private static final double EPS = 1e-12;
+
+    private final MoveValidator moveValidator;
+
+    public GreedyPathEngine(MoveValidator moveValidator) {
+        this.moveValidator = moveValidator;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public PathSearchResult findPath(Position from, Position to, int budget) {
+        return findPath(from, to, budget, moveValidator);
+    }
+
+    @Override
+    public PathSearchResult findPath(Position from, Position to, int budget, MoveValidator validator) {
+        long start = System.nanoTime();
+        WalkStats stats = new WalkStats(validator);
+        List<LngLat> path = buildGreedyPath(from, to, budget, stats);
+        return stats.toResult(NAME, path, System.nanoTime() - start);
+    }
+
+    public PathSearchResult findRelaxedPath(Position from, Position to, int budget) {
+        return findRelaxedPath(from, to, budget, moveValidator);
+    }
+
+    public PathSearchResult findRelaxedPath(Position from, Position to, int budget, MoveValidator validator) {
+        long start = System.nanoTime();
+        WalkStats stats = new WalkStats(validator);
+        List<LngLat> path = buildPathWithRelaxedConstraints(from, to, budget, stats);
+        return stats.toResult(NAME + "-relaxed", path, System.nanoTime() - start);
+    }
+
+    private List<LngLat> buildGreedyPath(Position from, Position to, int budget, WalkStats stats) {
+        double totalDistance = dist(from, to);
+        logger.debug("Building path from {} to {}, distance={}", from, to, totalDistance);
+
+        List<LngLat> path = new ArrayList<>();
+        path.add(new LngLat(from.getLng(), from.getLat()));
+
+        Position current = new Position(from.getLng(), from.getLat());
+        int iterations = 0;
+        int consecutiveBlocked = 0;
+        double freeTravel = 0;
+
+        while (!isCloseEnough(current, to) && iterations < budget) {
+            iterations++;
+            stats.iterations++;
+
+            double targetAngle = calculateAngle(current, to);
+            Position nextDirect = moveInDirection(current, targetAngle);
+
+            double distanceToTarget = dist(current, to);
+            if (distanceToTarget < STEP * 5 && iterations % 50 == 0) {
+                logger.debug("Getting close to target: distance={}, iteration={}",
+                        distanceToTarget, iterations);
+            }
+
+            if (freeTravel <= STEP) {
+                freeTravel = stats.validator.clearance(current.getLng(), current.getLat());
+            }
+
+            boolean directClear;
+            if (freeTravel > STEP) {
+                freeTravel -= STEP;
+                stats.skippedChecks++;
+                directClear = true;
+            } else {
+                freeTravel = 0;
+                directClear = !isMoveBlocked(current, targetAngle, nextDirect, stats);
+            }
+
+            if (directClear) {
+                current = nextDirect;
+                path.add(new LngLat(current.getLng(), current.getLat()));
+                consecutiveBlocked = 0;
+            } else {
+                logger.trace("Direct path blocked at iteration {}, trying alternatives", iterations);
+
+                Position nextPos = findAlternativeMove(current, to, targetAngle, stats);
+
+                if (nextPos == null) {
+                    logger.warn("No alternative move found at iteration {} (distance to target: {})",
+                            iterations, distanceToTarget);
+
+                    if (distanceToTarget < CLOSE_THRESHOLD * 1.5) {
+                        logger.debug("Close enough to target, accepting current position");
+                        break;
+                    }
+
+                    return null;
+                }
+
+                current = nextPos;
+                path.add(new LngLat(current.getLng(), current.getLat()));
+                consecutiveBlocked++;
+
+                if (consecutiveBlocked > 30) {
+                    logger.warn("Blocked {} consecutive times, may be stuck", consecutiveBlocked);
+                }
+            }
+
+            if (iterations % 2000 == 0) {
+                logger.debug("Pathfinding iteration {}, distance remaining: {}, consecutive blocked: {}",
+                        iterations, dist(current, to), consecutiveBlocked);
+            }
+        }
+
+        if (iterations >= budget) {
+            logger.warn("Exceeded max iterations building path from {} to {}", from, to);
+            return null;
+        }
+
+        double finalDistance = dist(current, to);
+        logger.debug("Path built with {} steps ({} unchecked in open airspace), final position {}, distance to target: {}",
+                path.size(), stats.skippedChecks, current, finalDistance);
+
+        return path;
+    }
+
+    private List<LngLat> buildPathWithRelaxedConstraints(Position from, Position to, int budget, WalkStats stats) {
+        logger.info("Trying RELAXED pathfinding from {} to {} (distance={})",
+                from, to, dist(from, to));
+
+        List<LngLat> path = new ArrayList<>();
+        path.add(new LngLat(from.getLng(), from.getLat()));
+
+        Position current = new Position(from.getLng(), from.getLat());
+        int iterations = 0;
+        int stuckCounter = 0;
+        double lastDistance = dist(current, to);
+        double bestDistance = lastDistance;
+        double freeTravel = 0;
+
+        while (!isCloseEnough(current, to) && iterations < budget) {
+            iterations++;
+            stats.iterations++;
+
+            double targetAngle = calculateAngle(current, to);
+            Position nextDirect = moveInDirection(current, targetAngle);
+
+            if (freeTravel <= STEP) {
+                freeTravel = stats.validator.clearance(current.getLng(), current.getLat());
+            }
+
+            boolean directClear;
+            if (freeTravel > STEP) {
+                freeTravel -= STEP;
+                stats.skippedChecks++;
+                directClear = true;
+            } else {
+                freeTravel = 0;
+                directClear = !isMoveBlocked(current, targetAngle, nextDirect, stats);
+            }
+
+            if (directClear) {
+                current = nextDirect;
+                path.add(new LngLat(current.getLng(), current.getLat()));
+                stuckCounter = 0;
+                lastDistance = dist(current, to);
+
+                if (lastDistance < bestDistance) {
+                    bestDistance = lastDistance;
+                }
+            } else {
+                Position nextPos = findAlternativeMoveRelaxed(current, to, targetAngle, stuckCounter, stats);
+
+                if (nextPos == null) {
+                    logger.warn("No alternative move in relaxed mode at iteration {} (stuck={}, dist={})",
+                            iterations, stuckCounter, dist(current, to));
+
+                    if (dist(current, to) < CLOSE_THRESHOLD * 2) {
+                        logger.info("Relaxed: Close enough to target, accepting position");
+                        break;
+                    }
+
+                    return null;
+                }
+
+                current = nextPos;
+                path.add(new LngLat(current.getLng(), current.getLat()));
+
+                double currentDistance = dist(current, to);
+                if (currentDistance >= lastDistance - EPS) {
+                    stuckCounter++;
+                } else {
+                    stuckCounter = Math.max(0, stuckCounter - 1);
+                    if (currentDistance < bestDistance) {
+                        bestDistance = currentDistance;
+                    }
+                }
+                lastDistance = currentDistance;
+
+                if (stuckCounter > 100) {
+                    logger.warn("Stuck for {} iterations (dist={}, best={}), abandoning",
+                            stuckCounter, currentDistance, bestDistance);
+                    return null;
+                }
+            }
+
+            if (iterations % 1000 == 0) {
+                logger.debug("Relaxed iteration {}, distance: {}, best: {}, stuck: {}",
+                        iterations, dist(current, to), bestDistance, stuckCounter);
+            }
+        }
+
+        if (iterations >= budget) {
+            logger.warn("Relaxed pathfinding exceeded max iterations");
+            return null;
+        }
+
+        logger.info("Relaxed pathfinding SUCCEEDED with {} steps, final distance: {}",
+                path.size(), dist(current, to));
+
+        return path;
+    }
+
+    private Position findAlternativeMove(Position current, Position target, double targetAngle, WalkStats stats) {
+        double[] offsets = {
+                -ANGLE_INCREMENT, ANGLE_INCREMENT,
+                -2*ANGLE_INCREMENT, 2*ANGLE_INCREMENT,
+                -3*ANGLE_INCREMENT, 3*ANGLE_INCREMENT,
+                -4*ANGLE_INCREMENT, 4*ANGLE_INCREMENT,
+                -5*ANGLE_INCREMENT, 5*ANGLE_INCREMENT
+        };
+
+        for (double offset : offsets) {
+            double testAngle = normalizeAngle(targetAngle + offset);
+            Position testPos = moveInDirection(current, testAngle);
+
+            if (!isMoveBlocked(current, testAngle, testPos, stats)) {
+                double distBefore = dist(current, target);
+                double distAfter = dist(testPos, target);
+
+                if (distAfter <= distBefore * 1.8) {
+                    return testPos;
+                }
+            }
+        }
+
+        Position bestPos = null;
+        double bestDist = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < 16; i++) {
+            double testAngle = i * ANGLE_INCREMENT;
+            Position testPos = moveInDirection(current, testAngle);
+
+            if (!isMoveBlocked(current, testAngle, testPos, stats)) {
+                double distToTarget = dist(testPos, target);
+                if (distToTarget < bestDist) {
+                    bestDist = distToTarget;
+                    bestPos = testPos;
+                }
+            }
+        }
+
+        return bestPos;
+    }
+
+    private Position findAlternativeMoveRelaxed(Position current, Position target,
+                                                double targetAngle, int stuckCounter, WalkStats stats) {
+        double[] offsets = {
+                -ANGLE_INCREMENT, ANGLE_INCREMENT,
+                -2*ANGLE_INCREMENT, 2*ANGLE_INCREMENT,
+                -3*ANGLE_INCREMENT, 3*ANGLE_INCREMENT,
+                -4*ANGLE_INCREMENT, 4*ANGLE_INCREMENT,
+                -5*ANGLE_INCREMENT, 5*ANGLE_INCREMENT,
+                -6*ANGLE_INCREMENT, 6*ANGLE_INCREMENT,
+                -7*ANGLE_INCREMENT, 7*ANGLE_INCREMENT,
+                -8*ANGLE_INCREMENT, 8*ANGLE_INCREMENT
+        };
+
+        double tolerance = stuckCounter > 50 ? 4.0 : (stuckCounter > 30 ? 3.0 : 2.0);
+
+        for (double offset : offsets) {
+            double testAngle = normalizeAngle(targetAngle + offset);
+            Position testPos = moveInDirection(current, testAngle);
+
+            if (!isMoveBlocked(current, testAngle, testPos, stats)) {
+                double distBefore = dist(current, target);
+                double distAfter = dist(testPos, target);
+
+                if (distAfter <= distBefore * tolerance) {
+                    return testPos;
+                }
+            }
+        }
+
+        List<Position> validMoves = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            double testAngle = i * ANGLE_INCREMENT;
+            Position testPos = moveInDirection(current, testAngle);
+
+            if (!isMoveBlocked(current, testAngle, testPos, stats)) {
+                validMoves.add(testPos);
+            }
+        }
+
+        if (validMoves.isEmpty()) {
+            return null;
+        }
+
+        Position best = null;
+        double bestDist = Double.POSITIVE_INFINITY;
+        for (Position pos : validMoves) {
+            double d = dist(pos, target);
+            if (d < bestDist) {
+                bestDist = d;
+                best = pos;
+            }
+        }
+
+        return best;
+    }
+
+    private boolean isMoveBlocked(Position from, double angleDegrees, Position to, WalkStats stats) {
+        stats.collisionChecks++;
+        int direction = (int) Math.round(angleDegrees / ANGLE_INCREMENT) % 16;
+        return stats.validator.isMoveBlocked(from.getLng(), from.getLat(), direction, to.getLng(), to.getLat());
+    }
+
+    private Position moveInDirection(Position from, double angleDegrees) {
+        double angleRad = Math.toRadians(angleDegrees);
+        double newLng = from.getLng() + STEP * Math.cos(angleRad);
+        double newLat = from.getLat() + STEP * Math.sin(angleRad);
+        return new Position(newLng, newLat);
+    }
+
+    private double calculateAngle(Position from, Position to) {
+        double dx = to.getLng() - from.getLng();
+        double dy = to.getLat() - from.getLat();
+        double angleRad = Math.atan2(dy, dx);
+        double angleDeg = Math.toDegrees(angleRad);
+        return normalizeAngle(angleDeg);
+    }
+
+    private double normalizeAngle(double angle) {
+        while (angle < 0) angle += 360;
+        while (angle >= 360) angle -= 360;
+        return Math.round(angle / ANGLE_INCREMENT) * ANGLE_INCREMENT;
+    }
+
+    private boolean isCloseEnough(Position p1, Position p2) {
+        return dist(p1, p2) < CLOSE_THRESHOLD;
+    }
+
+    private double dist(Position a, Position b) {
+        if (a == null || b == null) return Double.POSITIVE_INFINITY;
+        double dx = a.getLng() - b.getLng();
+        double dy = a.getLat() - b.getLat();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Per-walk state: the validator the walk checks moves against and what it counted.
+    private static final class WalkStats {
+        final MoveValidator validator;
+        int iterations;
+        int collisionChecks;
+        int skippedChecks;
+
+        WalkStats(MoveValidator validator) {
+            this.validator = validator;
+        }
+
+        PathSearchResult toResult(String engine, List<LngLat> path, long wallTimeNanos) {
+            return new PathSearchResult(engine, path, iterations, collisionChecks, skippedChecks, wallTimeNanos);
+        }
+    }
+}
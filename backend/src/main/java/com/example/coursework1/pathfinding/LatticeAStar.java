@@ -0,0 +1,192 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.dto.LngLat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// A* over the 16-direction, fixed-step move lattice. Positions reached by different move sequences
+// are merged when they fall into the same half-step cell, which bounds the search space; each node
+// keeps the exact position it was reached at, so emitted paths are always valid lattice moves.
+public final class LatticeAStar {
+
+    public static final int DIRECTIONS = 16;
+
+    private static final double TIE_BREAK = 1e-9;
+
+    private final double step;
+    private final double closeThreshold;
+    private final double cellSize;
+    private final double[] dx = new double[DIRECTIONS];
+    private final double[] dy = new double[DIRECTIONS];
+
+    public LatticeAStar(double step, double closeThreshold) {
+        this.step = step;
+        this.closeThreshold = closeThreshold;
+        this.cellSize = step / 2;
+
+        for (int d = 0; d < DIRECTIONS; d++) {
+            double angle = Math.toRadians(d * (360.0 / DIRECTIONS));
+            dx[d] = step * Math.cos(angle);
+            dy[d] = step * Math.sin(angle);
+        }
+    }
+
+    public Result search(double fromLng, double fromLat, double toLng, double toLat,
+                         int maxExpansions, MoveValidator validator) {
+        Search search = new Search(fromLng, fromLat, toLng, toLat);
+        return search.run(maxExpansions, validator);
+    }
+
+    public static final class Result {
+        private final List<LngLat> path;
+        private final int expansions;
+        private final int collisionChecks;
+        private final int skippedChecks;
+
+        Result(List<LngLat> path, int expansions, int collisionChecks, int skippedChecks) {
+            this.path = path;
+            this.expansions = expansions;
+            this.collisionChecks = collisionChecks;
+            this.skippedChecks = skippedChecks;
+        }
+
+        // Null when no path was found within the expansion budget.
+        public List<LngLat> getPath() { return path; }
+        public int getExpansions() { return expansions; }
+        public int getCollisionChecks() { return collisionChecks; }
+        public int getSkippedChecks() { return skippedChecks; }
+        public boolean isFound() { return path != null; }
+    }
+
+    private final class Search {
+        private final double originLng;
+        private final double originLat;
+        private final double toLng;
+        private final double toLat;
+
+        private double[] xs = new double[1024];
+        private double[] ys = new double[1024];
+        private int[] g = new int[1024];
+        private int[] parent = new int[1024];
+        private boolean[] closed = new boolean[1024];
+        private int nodeCount;
+
+        private final LongIntHashMap index = new LongIntHashMap(1024);
+        private final NodeHeap open = new NodeHeap(1024);
+
+        Search(double fromLng, double fromLat, double toLng, double toLat) {
+            this.originLng = fromLng;
+            this.originLat = fromLat;
+            this.toLng = toLng;
+            this.toLat = toLat;
+        }
+
+        Result run(int maxExpansions, MoveValidator validator) {
+            int start = addNode(originLng, originLat, 0, -1);
+            index.put(key(originLng, originLat), start);
+            open.push(heuristic(originLng, originLat), start);
+
+            int expansions = 0;
+            int checks = 0;
+            int skipped = 0;
+
+            while (!open.isEmpty()) {
+                int node = open.pop();
+                if (closed[node]) continue;
+                closed[node] = true;
+
+                double x = xs[node], y = ys[node];
+                if (distanceToTarget(x, y) < closeThreshold) {
+                    return new Result(reconstruct(node), expansions, checks, skipped);
+                }
+
+                if (++expansions > maxExpansions) {
+                    break;
+                }
+
+                // With enough clearance none of the 16 moves can reach restricted airspace.
+                boolean unchecked = validator.clearance(x, y) > step;
+                int nextG = g[node] + 1;
+
+                for (int d = 0; d < DIRECTIONS; d++) {
+                    double nx = x + dx[d], ny = y + dy[d];
+                    long key = key(nx, ny);
+                    int existing = index.get(key);
+
+                    if (existing >= 0 && (closed[existing] || g[existing] <= nextG)) {
+                        continue;
+                    }
+
+                    if (unchecked) {
+                        skipped++;
+                    } else {
+                        checks++;
+                        if (validator.isMoveBlocked(x, y, d, nx, ny)) continue;
+                    }
+
+                    int next;
+                    if (existing < 0) {
+                        next = addNode(nx, ny, nextG, node);
+                        index.put(key, next);
+                    } else {
+                        next = existing;
+                        xs[next] = nx;
+                        ys[next] = ny;
+                        g[next] = nextG;
+                        parent[next] = node;
+                    }
+
+                    double h = heuristic(nx, ny);
+                    open.push(nextG + h + h * TIE_BREAK, next);
+                }
+            }
+
+            return new Result(null, expansions, checks, skipped);
+        }
+
+        // Each move covers exactly one step, so no path can arrive in fewer moves than the
+        // straight-line shortfall divided by the step length.
+        private double heuristic(double x, double y) {
+            return Math.max(0, (distanceToTarget(x, y) - closeThreshold) / step);
+        }
+
+        private double distanceToTarget(double x, double y) {
+            double ex = x - toLng, ey = y - toLat;
+            return Math.sqrt(ex * ex + ey * ey);
+        }
+
+        private long key(double x, double y) {
+            long ix = (long) Math.floor((x - originLng) / cellSize);
+            long iy = (long) Math.floor((y - originLat) / cellSize);
+            return (ix << 32) | (iy & 0xFFFFFFFFL);
+        }
+
+        private int addNode(double x, double y, int cost, int from) {
+            if (nodeCount == xs.length) {
+                int capacity = nodeCount * 2;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                g = Arrays.copyOf(g, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                closed = Arrays.copyOf(closed, capacity);
+            }
+            xs[nodeCount] = x;
+            ys[nodeCount] = y;
+            g[nodeCount] = cost;
+            parent[nodeCount] = from;
+            return nodeCount++;
+        }
+
+        private List<LngLat> reconstruct(int node) {
+            List<LngLat> path = new ArrayList<>(g[node] + 1);
+            for (int n = node; n >= 0; n = parent[n]) {
+                path.add(new LngLat(xs[n], ys[n]));
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+}
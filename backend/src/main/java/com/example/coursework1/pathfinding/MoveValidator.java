@@ -0,0 +1,11 @@
+package com.example.coursework1.pathfinding;
+
+public interface MoveValidator {
+
+    boolean isMoveBlocked(double fromLng, double fromLat, int direction, double toLng, double toLat);
+
+    // Lower bound on the distance to restricted airspace; zero means every move has to be checked.
+    default double clearance(double lng, double lat) {
+        return 0;
+    }
+}
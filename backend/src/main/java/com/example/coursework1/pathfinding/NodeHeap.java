@@ -0,0 +1,66 @@
+package com.example.coursework1.pathfinding;
+
+import java.util.Arrays;
+
+// Binary min-heap of (priority, node index) pairs held in parallel primitive arrays.
+// Decrease-key is done by pushing a duplicate; stale entries are skipped by the caller.
+final class NodeHeap {
+
+    private double[] priorities;
+    private int[] nodes;
+    private int size;
+
+    NodeHeap(int capacity) {
+        priorities = new double[Math.max(16, capacity)];
+        nodes = new int[priorities.length];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void push(double priority, int node) {
+        if (size == priorities.length) {
+            priorities = Arrays.copyOf(priorities, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (priorities[parent] <= priority) break;
+            priorities[i] = priorities[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        priorities[i] = priority;
+        nodes[i] = node;
+    }
+
+    int pop() {
+        int top = nodes[0];
+        size--;
+        if (size > 0) {
+            double priority = priorities[size];
+            int node = nodes[size];
+
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && priorities[child + 1] < priorities[child]) child++;
+                if (priorities[child] >= priority) break;
+                priorities[i] = priorities[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            priorities[i] = priority;
+            nodes[i] = node;
+        }
+        return top;
+    }
+}
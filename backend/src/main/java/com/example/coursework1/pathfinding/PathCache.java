@@ -0,0 +1,106 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.model.Position;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Bounded LRU of planned legs. Endpoints are snapped to a grid much finer than one move so that
+// floating-point noise and near-identical hover points share an entry; the caller decides whether a
+// cached leg can be reused from a slightly different start.
+public class PathCache {
+
+    private final double quantum;
+    private final Map<Key, Entry> entries;
+
+    public PathCache(int maxEntries, double quantum) {
+        this.quantum = quantum;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public Entry get(String engine, long generation, int budget, Position from, Position to) {
+        return entries.get(key(engine, generation, budget, from, to));
+    }
+
+    public void put(String engine, long generation, int budget, Position from, Position to, List<LngLat> path) {
+        List<LngLat> stored = path == null ? null : List.copyOf(path);
+        entries.put(key(engine, generation, budget, from, to), new Entry(from, to, stored));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Key key(String engine, long generation, int budget, Position from, Position to) {
+        return new Key(engine, generation, budget,
+                Math.round(from.getLng() / quantum), Math.round(from.getLat() / quantum),
+                Math.round(to.getLng() / quantum), Math.round(to.getLat() / quantum));
+    }
+
+    public static final class Entry {
+        private final Position from;
+        private final Position to;
+        private final List<LngLat> path;
+
+        Entry(Position from, Position to, List<LngLat> path) {
+            this.from = from;
+            this.to = to;
+            this.path = path;
+        }
+
+        public Position getFrom() { return from; }
+        public Position getTo() { return to; }
+
+        // Null when the search failed; failures are cached too so hopeless legs aren't retried.
+        public List<LngLat> getPath() { return path; }
+    }
+
+    private static final class Key {
+        private final String engine;
+        private final long generation;
+        private final int budget;
+        private final long fromX;
+        private final long fromY;
+        private final long toX;
+        private final long toY;
+
+        Key(String engine, long generation, int budget, long fromX, long fromY, long toX, long toY) {
+            this.engine = engine;
+            this.generation = generation;
+            this.budget = budget;
+            this.fromX = fromX;
+            this.fromY = fromY;
+            this.toX = toX;
+            this.toY = toY;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return generation == other.generation && budget == other.budget
+                    && fromX == other.fromX && fromY == other.fromY
+                    && toX == other.toX && toY == other.toY
+                    && engine.equals(other.engine);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(engine, generation, budget, fromX, fromY, toX, toY);
+        }
+    }
+}
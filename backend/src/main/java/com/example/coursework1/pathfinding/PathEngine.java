@@ -0,0 +1,16 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.model.Position;
+
+// A strategy for routing one leg across the 16-direction move lattice. Implementations are Spring
+// components and are picked up by name, so a new engine only needs to be added to this package.
+public interface PathEngine {
+
+    String getName();
+
+    // The budget caps the engine's main loop (walker steps or search expansions).
+    PathSearchResult findPath(Position from, Position to, int budget);
+
+    // The same search against a caller-supplied validator, e.g. one bound to a plan's airspace snapshot.
+    PathSearchResult findPath(Position from, Position to, int budget, MoveValidator validator);
+}
@@ -0,0 +1,36 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.dto.LngLat;
+
+import java.util.List;
+
+public class PathSearchResult {
+
+    private final String engine;
+    private final List<LngLat> path;
+    private final int iterations;
+    private final int collisionChecks;
+    private final int skippedChecks;
+    private final long wallTimeNanos;
+
+    public PathSearchResult(String engine, List<LngLat> path, int iterations,
+                            int collisionChecks, int skippedChecks, long wallTimeNanos) {
+        this.engine = engine;
+        this.path = path;
+        this.iterations = iterations;
+        this.collisionChecks = collisionChecks;
+        this.skippedChecks = skippedChecks;
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    public String getEngine() { return engine; }
+    public List<LngLat> getPath() { return path; }
+    public int getIterations() { return iterations; }
+    public int getCollisionChecks() { return collisionChecks; }
+    public int getSkippedChecks() { return skippedChecks; }
+    public long getWallTimeNanos() { return wallTimeNanos; }
+
+    public boolean isFound() {
+        return path != null && !path.isEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.coursework1.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Holds the last value fetched from an ILP resource. Within the TTL reads are free; after it, the stale value
+// is still returned while one background refresh fetches a new one (stale-while-revalidate). Only a cold or
+// invalidated cache makes the caller wait for the fetch, and concurrent callers share that one fetch. The
+// loader returns null on failure, in which case nothing is cached and a stale value, if any, stays in place.
+final class CatalogCache<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final long ttlNanos;
+    private final Executor refresher;
+    private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final SingleFlight<String, T> flights = new SingleFlight<>();
+
+    private volatile Entry<T> entry;
+
+    CatalogCache(String name, Supplier<T> loader, long ttlMillis, Executor refresher) {
+        this.name = name;
+        this.loader = loader;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.refresher = refresher;
+    }
+
+    // Null only if the cache is cold and the fetch failed.
+    T get() {
+        Entry<T> current = entry;
+        if (current == null) {
+            return load(null);
+        }
+        if (System.nanoTime() - current.loadedAt > ttlNanos) {
+            refreshInBackground(current);
+        }
+        return current.value;
+    }
+
+    void invalidate() {
+        entry = null;
+        logger.info("Invalidated {} cache", name);
+    }
+
+    void addListener(Consumer<T> listener) {
+        listeners.add(listener);
+    }
+
+    private void refreshInBackground(Entry<T> stale) {
+        if (!refreshing.compareAndSet(false, true)) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(stale);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    // If another caller replaced the entry this one saw while it was waiting, that value is used as is.
+    private T load(Entry<T> seen) {
+        return flights.execute(name, () -> {
+            Entry<T> current = entry;
+            if (current != null && current != seen) {
+                return current.value;
+            }
+            return fetch();
+        });
+    }
+
+    private T fetch() {
+        T value = loader.get();
+        if (value == null) {
+            return null;
+        }
+
+        entry = new Entry<>(value, System.nanoTime());
+        logger.debug("Loaded {} cache", name);
+        for (Consumer<T> listener : listeners) {
+            try {
+                listener.accept(value);
+            } catch (RuntimeException e) {
+                logger.error("{} cache listener failed", name, e);
+            }
+        }
+        return value;
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long loadedAt;
+
+        Entry(T value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
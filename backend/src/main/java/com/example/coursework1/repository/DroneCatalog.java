@@ -0,0 +1,35 @@
+package com.example.coursework1.repository;
+
+import com.example.coursework1.dto.Drone;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable snapshot of the ILP drone list with an id index. A new snapshot replaces the old one on refresh,
+// so readers never see a half-updated catalog.
+public final class DroneCatalog {
+
+    private final List<Drone> drones;
+    private final Map<String, Drone> byId;
+    private final long fetchedAt;
+
+    DroneCatalog(List<Drone> drones, long fetchedAt) {
+        this.drones = Collections.unmodifiableList(new ArrayList<>(drones));
+        Map<String, Drone> index = new HashMap<>();
+        for (Drone drone : drones) {
+            if (drone != null && drone.getId() != null) {
+                index.putIfAbsent(drone.getId(), drone);
+            }
+        }
+        this.byId = Collections.unmodifiableMap(index);
+        this.fetchedAt = fetchedAt;
+    }
+
+    public List<Drone> getDrones() { return drones; }
+    public Drone getDrone(String id) { return id == null ? null : byId.get(id); }
+    public int size() { return drones.size(); }
+    public long getFetchedAt() { return fetchedAt; }
+}
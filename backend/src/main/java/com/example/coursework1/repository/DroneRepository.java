@@ -2,17 +2,26 @@ package com.example.coursework1.repository;
 
 import com.example.coursework1.dto.Drone;
 import com.example.coursework1.dto.ServicePointDrones;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
+// The drone list and per-service-point availability are cached for ilp.catalog.ttl-ms and refreshed in the
+// background once stale, so planning reads them without a round-trip to the ILP service.
 @Repository
 public class DroneRepository {
 
@@ -20,12 +29,60 @@ public class DroneRepository {
     private final RestTemplate restTemplate;
     private final String ilpEndpoint;
 
-    public DroneRepository(RestTemplate restTemplate, String ilpEndpoint) {
+    private final ExecutorService refresher;
+    private final CatalogCache<DroneCatalog> droneCache;
+    private final CatalogCache<List<ServicePointDrones>> servicePointDroneCache;
+
+    public DroneRepository(RestTemplate restTemplate, String ilpEndpoint,
+                           @Value("${ilp.catalog.ttl-ms:60000}") long catalogTtlMillis) {
         this.restTemplate = restTemplate;
         this.ilpEndpoint = ilpEndpoint.endsWith("/") ? ilpEndpoint : ilpEndpoint + "/";
+
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "drone-catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droneCache = new CatalogCache<>("drones", this::loadDrones, catalogTtlMillis, refresher);
+        this.servicePointDroneCache = new CatalogCache<>("drones-for-service-points",
+                this::loadDronesForServicePoints, catalogTtlMillis, refresher);
+    }
+
+    public DroneCatalog fetchCatalog() {
+        DroneCatalog catalog = droneCache.get();
+        return catalog != null ? catalog : new DroneCatalog(List.of(), 0);
     }
 
     public List<Drone> fetchAllDrones() {
+        return fetchCatalog().getDrones();
+    }
+
+    public Drone findDroneById(String id) {
+        return fetchCatalog().getDrone(id);
+    }
+
+    public List<ServicePointDrones> fetchDronesForServicePoints() {
+        List<ServicePointDrones> data = servicePointDroneCache.get();
+        return data != null ? data : List.of();
+    }
+
+    // Called with each newly fetched drone list, including background refreshes.
+    public void addCatalogListener(Consumer<List<Drone>> listener) {
+        droneCache.addListener(catalog -> listener.accept(catalog.getDrones()));
+    }
+
+    // The next read fetches both resources again.
+    public void invalidate() {
+        droneCache.invalidate();
+        servicePointDroneCache.invalidate();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private DroneCatalog loadDrones() {
         try {
             String url = ilpEndpoint + "drones";
             logger.debug("Fetching drones from: {}", url);
@@ -34,18 +91,18 @@ public class DroneRepository {
 
             if (drones == null) {
                 logger.warn("Received null drones array from ILP service");
-                return List.of();
+                return null;
             }
 
             logger.info("Successfully fetched {} drones", drones.length);
-            return Arrays.asList(drones);
+            return new DroneCatalog(Arrays.asList(drones), System.currentTimeMillis());
         } catch (Exception e) {
             logger.error("Failed to fetch drones from ILP service", e);
-            return List.of();
+            return null;
         }
     }
 
-    public List<ServicePointDrones> fetchDronesForServicePoints() {
+    private List<ServicePointDrones> loadDronesForServicePoints() {
         try {
             String url = ilpEndpoint + "drones-for-service-points";
             logger.debug("Fetching drones-for-service-points from: {}", url);
@@ -61,7 +118,7 @@ public class DroneRepository {
 
             if (data == null) {
                 logger.warn("Received null drones-for-service-points from ILP service");
-                return List.of();
+                return null;
             }
 
             int totalDrones = data.stream()
@@ -70,10 +127,10 @@ public class DroneRepository {
 
             logger.info("Successfully fetched {} service points with {} total drones",
                     data.size(), totalDrones);
-            return data;
+            return Collections.unmodifiableList(new ArrayList<>(data));
         } catch (Exception e) {
             logger.error("Failed to fetch drones-for-service-points from ILP service", e);
-            return List.of();
+            return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.example.coursework1.repository;
 
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
 import com.example.coursework1.model.RestrictedArea;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,19 +21,40 @@ public class RestrictedAreaRepository {
     private final RestTemplate restTemplate;
     private final String ilpEndpoint;
 
-    private List<RestrictedArea> cachedRestrictedAreas = null;
+    // The areas and the airspace compiled from them are cached, and cleared, together in one write, so a
+    // reader can never see one without the other. Null until the first successful fetch.
+    private volatile Snapshot cached = null;
+    private final SingleFlight<String, Snapshot> flights = new SingleFlight<>();
 
     public RestrictedAreaRepository(RestTemplate restTemplate, String ilpEndpoint) {
         this.restTemplate = restTemplate;
         this.ilpEndpoint = ilpEndpoint.endsWith("/") ? ilpEndpoint : ilpEndpoint + "/";
     }
 
+    // A cold cache is filled by one request to the ILP service, however many callers arrive while it runs.
     public List<RestrictedArea> fetchRestrictedAreas() {
-        if (cachedRestrictedAreas != null) {
+        return snapshot().areas;
+    }
+
+    // Empty while the areas can't be fetched; the next call tries again.
+    public RestrictedAirspace fetchAirspace() {
+        return snapshot().airspace;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = cached;
+        if (snapshot != null) {
             logger.debug("Returning cached restricted areas");
-            return cachedRestrictedAreas;
+            return snapshot;
         }
 
+        return flights.execute("restricted-areas", () -> {
+            Snapshot filled = cached;
+            return filled != null ? filled : loadRestrictedAreas();
+        });
+    }
+
+    private Snapshot loadRestrictedAreas() {
         try {
             String url = ilpEndpoint + "restricted-areas";
             logger.debug("Fetching restricted areas from: {}", url);
@@ -43,23 +66,59 @@ public class RestrictedAreaRepository {
                     new ParameterizedTypeReference<List<RestrictedArea>>() {}
             );
 
-            cachedRestrictedAreas = response.getBody();
+            List<RestrictedArea> areas = response.getBody();
 
-            if (cachedRestrictedAreas == null) {
+            if (areas == null) {
                 logger.warn("Received null restricted areas from ILP service");
-                cachedRestrictedAreas = new ArrayList<>();
+                areas = new ArrayList<>();
             }
 
-            logger.info("Successfully fetched {} restricted areas", cachedRestrictedAreas.size());
-            return cachedRestrictedAreas;
+            Snapshot snapshot = new Snapshot(areas, compile(areas));
+            cached = snapshot;
+
+            logger.info("Successfully fetched {} restricted areas", areas.size());
+            return snapshot;
         } catch (Exception e) {
             logger.error("Failed to fetch restricted areas from ILP service", e);
-            return new ArrayList<>();
+            return new Snapshot(new ArrayList<>(), RestrictedAirspace.empty());
+        }
+    }
+
+    private RestrictedAirspace compile(List<RestrictedArea> areas) {
+        List<PreparedRestrictedArea> prepared = new ArrayList<>(areas.size());
+
+        for (RestrictedArea area : areas) {
+            PreparedRestrictedArea compiled = PreparedRestrictedArea.compile(area);
+            if (compiled == null) {
+                logger.warn("Skipping restricted area {} - it has no usable edges",
+                        area != null ? area.getName() : null);
+                continue;
+            }
+            if (!compiled.isClosed()) {
+                logger.warn("Restricted area {} is not a closed polygon - only its edges will be checked",
+                        compiled.getName());
+            }
+            prepared.add(compiled);
         }
+
+        RestrictedAirspace airspace = RestrictedAirspace.of(prepared);
+        logger.info("Indexed {} edges across {} restricted areas",
+                airspace.getEdgeCount(), airspace.getAreaCount());
+        return airspace;
     }
 
     public void clearCache() {
         logger.info("Clearing restricted areas cache");
-        cachedRestrictedAreas = null;
+        cached = null;
+    }
+
+    private static final class Snapshot {
+        private final List<RestrictedArea> areas;
+        private final RestrictedAirspace airspace;
+
+        Snapshot(List<RestrictedArea> areas, RestrictedAirspace airspace) {
+            this.areas = areas;
+            this.airspace = airspace;
+        }
     }
-}
\ No newline at end of file
+}
@@ -15,13 +15,19 @@ public class ServicePointRepository {
     private static final Logger logger = LoggerFactory.getLogger(ServicePointRepository.class);
     private final RestTemplate restTemplate;
     private final String ilpEndpoint;
+    private final SingleFlight<String, List<ServicePoint>> flights = new SingleFlight<>();
 
     public ServicePointRepository(RestTemplate restTemplate, String ilpEndpoint) {
         this.restTemplate = restTemplate;
         this.ilpEndpoint = ilpEndpoint.endsWith("/") ? ilpEndpoint : ilpEndpoint + "/";
     }
 
+    // Concurrent callers share one request to the ILP service.
     public List<ServicePoint> fetchAllServicePoints() {
+        return flights.execute("service-points", this::loadServicePoints);
+    }
+
+    private List<ServicePoint> loadServicePoints() {
         try {
             String url = ilpEndpoint + "service-points";
             logger.debug("Fetching service points from: {}", url);
@@ -0,0 +1,36 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.geometry.NavigationGrid;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.pathfinding.MoveValidator;
+
+// Checks moves against one airspace snapshot and the navigation grid built from it, rather than whatever
+// the restricted-area cache holds at the time of the check. A plan searches every leg with the same one.
+final class AirspaceMoveValidator implements MoveValidator {
+
+    private final NavigationGrid grid;
+    private final RestrictedAreaService restrictedAreaService;
+
+    AirspaceMoveValidator(NavigationGrid grid, RestrictedAreaService restrictedAreaService) {
+        this.grid = grid;
+        this.restrictedAreaService = restrictedAreaService;
+    }
+
+    RestrictedAirspace getAirspace() {
+        return grid.getAirspace();
+    }
+
+    @Override
+    public boolean isMoveBlocked(double fromLng, double fromLat, int direction, double toLng, double toLat) {
+        if (grid.isMoveKnownClear(fromLng, fromLat, direction)) {
+            restrictedAreaService.recordGridResolvedCheck();
+            return false;
+        }
+        return restrictedAreaService.pathCrossesRestrictedArea(grid.getAirspace(), fromLng, fromLat, toLng, toLat);
+    }
+
+    @Override
+    public double clearance(double lng, double lat) {
+        return grid.getAirspace().clearanceAt(lng, lat);
+    }
+}
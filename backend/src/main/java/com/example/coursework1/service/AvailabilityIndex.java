@@ -0,0 +1,160 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.DroneWithAvailability;
+import com.example.coursework1.dto.ServicePointDrones;
+import com.example.coursework1.dto.TimeWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Drone availability compiled from one drones-for-service-points snapshot. Each drone's windows become, per
+// day of week, a sorted array of merged [from, until] intervals in seconds of the day, so a lookup is a
+// binary search instead of re-parsing every window. Drones with no windows at all are absent and count as
+// always available.
+final class AvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    private static final DateTimeFormatter[] TIME_FORMATS = {
+            DateTimeFormatter.ofPattern("HH:mm:ss"),
+            DateTimeFormatter.ofPattern("H:mm:ss"),
+            DateTimeFormatter.ofPattern("HH:mm"),
+            DateTimeFormatter.ofPattern("H:mm")
+    };
+
+    private static final int[] NO_INTERVALS = new int[0];
+
+    // droneId -> [DayOfWeek.ordinal()] -> flattened [from0, until0, from1, until1, ...]
+    private final Map<String, int[][]> intervals;
+
+    private AvailabilityIndex(Map<String, int[][]> intervals) {
+        this.intervals = intervals;
+    }
+
+    static AvailabilityIndex compile(List<ServicePointDrones> servicePointData) {
+        // As before, a drone listed under several service points takes its last non-empty set of windows.
+        Map<String, List<TimeWindow>> windowsByDrone = new HashMap<>();
+        for (ServicePointDrones spData : servicePointData) {
+            if (spData.getDrones() == null) continue;
+            for (DroneWithAvailability drone : spData.getDrones()) {
+                List<TimeWindow> windows = drone.getAvailability();
+                if (windows != null && !windows.isEmpty()) {
+                    windowsByDrone.put(drone.getId(), windows);
+                }
+            }
+        }
+
+        Map<String, int[][]> compiled = new HashMap<>();
+        windowsByDrone.forEach((droneId, windows) -> compiled.put(droneId, compileWindows(windows)));
+        return new AvailabilityIndex(compiled);
+    }
+
+    boolean hasWindows(String droneId) {
+        return intervals.containsKey(droneId);
+    }
+
+    int size() {
+        return intervals.size();
+    }
+
+    boolean isAvailable(String droneId, DayOfWeek day, int secondOfDay) {
+        int[][] byDay = intervals.get(droneId);
+        if (byDay == null) {
+            return true;
+        }
+
+        int[] spans = byDay[day.ordinal()];
+        int low = 0;
+        int high = spans.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (spans[2 * mid] <= secondOfDay) {
+                if (secondOfDay <= spans[2 * mid + 1]) return true;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    // Seconds since midnight, or -1 if the text isn't a time in one of the accepted formats.
+    static int parseSecondOfDay(String text) {
+        if (text == null || text.isEmpty()) {
+            return -1;
+        }
+        for (DateTimeFormatter format : TIME_FORMATS) {
+            try {
+                return LocalTime.parse(text, format).toSecondOfDay();
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return -1;
+    }
+
+    private static int[][] compileWindows(List<TimeWindow> windows) {
+        List<List<int[]>> byDay = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            byDay.add(new ArrayList<>());
+        }
+
+        for (TimeWindow window : windows) {
+            DayOfWeek day = parseDay(window.getDayOfWeek());
+            if (day == null) continue;
+
+            int from = parseSecondOfDay(window.getFrom());
+            int until = parseSecondOfDay(window.getUntil());
+            if (from < 0 || until < 0) {
+                logger.warn("Could not parse window times: from='{}', until='{}'", window.getFrom(), window.getUntil());
+                continue;
+            }
+            if (from <= until) {
+                byDay.get(day.ordinal()).add(new int[] {from, until});
+            }
+        }
+
+        int[][] compiled = new int[7][];
+        for (int i = 0; i < 7; i++) {
+            compiled[i] = merge(byDay.get(i));
+        }
+        return compiled;
+    }
+
+    private static int[] merge(List<int[]> spans) {
+        if (spans.isEmpty()) {
+            return NO_INTERVALS;
+        }
+        spans.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        int[] merged = new int[spans.size() * 2];
+        int length = 0;
+        for (int[] span : spans) {
+            if (length > 0 && span[0] <= merged[length - 1]) {
+                merged[length - 1] = Math.max(merged[length - 1], span[1]);
+            } else {
+                merged[length++] = span[0];
+                merged[length++] = span[1];
+            }
+        }
+        return Arrays.copyOf(merged, length);
+    }
+
+    private static DayOfWeek parseDay(String name) {
+        if (name == null) return null;
+        try {
+            return DayOfWeek.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.coursework1.service;
 
 import com.example.coursework1.dto.*;
+import com.example.coursework1.geometry.RestrictedAirspace;
 import com.example.coursework1.model.Position;
 import com.example.coursework1.model.RestrictedArea;
+import com.example.coursework1.pathfinding.PathEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -19,26 +21,42 @@ public class DeliveryPlannerService {
     private final ServicePointService servicePointService;
     private final RestrictedAreaService restrictedAreaService;
     private final DroneAvailabilityService droneAvailabilityService;
+    private final PathEngineService pathEngineService;
+    private final FleetRouteOptimizer routeOptimizer;
+    private final LegMatrixBuilder legMatrixBuilder;
+    private final NavigationGridService navigationGridService;
 
     private static final double STEP = 0.00015;
     private static final double ANGLE_INCREMENT = 22.5;
-    private static final double CLOSE_THRESHOLD = 0.00015;
     private static final double EPS = 1e-12;
     private static final int MAX_PATH_ITERATIONS = 30000;
 
     public DeliveryPlannerService(DroneService droneService,
                                   ServicePointService servicePointService,
                                   RestrictedAreaService restrictedAreaService,
-                                  DroneAvailabilityService droneAvailabilityService) {
+                                  DroneAvailabilityService droneAvailabilityService,
+                                  PathEngineService pathEngineService,
+                                  FleetRouteOptimizer routeOptimizer,
+                                  LegMatrixBuilder legMatrixBuilder,
+                                  NavigationGridService navigationGridService) {
         this.droneService = droneService;
         this.servicePointService = servicePointService;
         this.restrictedAreaService = restrictedAreaService;
         this.droneAvailabilityService = droneAvailabilityService;
+        this.pathEngineService = pathEngineService;
+        this.routeOptimizer = routeOptimizer;
+        this.legMatrixBuilder = legMatrixBuilder;
+        this.navigationGridService = navigationGridService;
     }
 
     public CalcDeliveryResult calcDeliveryPath(List<MedDispatchRec> dispatches) {
-        logger.info("=== Starting calcDeliveryPath for {} dispatches ===",
-                dispatches != null ? dispatches.size() : 0);
+        return calcDeliveryPath(dispatches, null);
+    }
+
+    public CalcDeliveryResult calcDeliveryPath(List<MedDispatchRec> dispatches, String engineName) {
+        PathEngine engine = pathEngineService.resolve(engineName);
+        logger.info("=== Starting calcDeliveryPath for {} dispatches (path engine: {}) ===",
+                dispatches != null ? dispatches.size() : 0, engine.getName());
 
         if (dispatches == null || dispatches.isEmpty()) {
             return new CalcDeliveryResult(0.0, 0, List.of());
@@ -66,51 +84,92 @@ public class DeliveryPlannerService {
                         d.getRequirements() != null && d.getDelivery() != null)
                 .toList());
 
-        List<Drone> allDrones = droneService.fetchAllDrones();
-        List<ServicePoint> servicePoints = servicePointService.fetchAllServicePoints();
+        PlanningContext context = PlanningContext.capture(droneService, droneAvailabilityService,
+                servicePointService, restrictedAreaService, navigationGridService);
+        List<ServicePoint> servicePoints = context.getServicePoints();
 
         Position defaultBase = servicePoints.isEmpty() ?
                 new Position(0.0, 0.0) : safeGetPosition(servicePoints.get(0));
 
         logger.info("PHASE 1: Checking if any single drone can handle all {} dispatches", pending.size());
-        List<String> singleDroneCapable = droneAvailabilityService.queryAvailableDrones(pending);
+        List<String> singleDroneCapable = droneAvailabilityService.queryAvailableDrones(pending, context);
 
         if (!singleDroneCapable.isEmpty()) {
             logger.info("Found {} drones capable of handling all dispatches in single journey: {}",
                     singleDroneCapable.size(), singleDroneCapable);
 
-            List<Drone> capableDrones = allDrones.stream()
+            List<Drone> capableDrones = context.getDrones().stream()
                     .filter(d -> singleDroneCapable.contains(d.getId()))
                     .sorted(Comparator.comparingDouble((Drone dr) -> -safeGetCapabilityCapacity(dr)))
                     .toList();
 
-            for (Drone drone : capableDrones) {
-                logger.info("Attempting single-drone delivery with drone {}", drone.getId());
-                CalcDeliveryResult singleDroneResult = planSingleDroneDelivery(
-                        drone, new ArrayList<>(pending), defaultBase);
+            CalcDeliveryResult singleDroneResult = planSingleDroneDelivery(
+                    capableDrones, new ArrayList<>(pending), defaultBase, engine, context.getValidator());
 
-                if (singleDroneResult != null && !singleDroneResult.getDronePaths().isEmpty()) {
-                    logger.info("✓ Successfully planned all deliveries with single drone {}!", drone.getId());
-                    logger.info("=== Completed: 1 drone, {} moves, ${} cost ===",
-                            singleDroneResult.getTotalMoves(), singleDroneResult.getTotalCost());
-                    return singleDroneResult;
-                }
+            if (singleDroneResult != null) {
+                logger.info("=== Completed: 1 drone, {} moves, ${} cost ===",
+                        singleDroneResult.getTotalMoves(), singleDroneResult.getTotalCost());
+                return singleDroneResult;
             }
 
-            logger.warn("Single-drone capable drones found but pathfinding failed, falling back to multi-drone");
+            logger.warn("Single-drone journey could not be planned within any capable drone's limits, falling back to multi-drone");
         } else {
             logger.info("No single drone can handle all dispatches, proceeding with multi-drone strategy");
         }
 
         logger.info("PHASE 2: Planning multi-drone delivery");
-        return planMultiDroneDelivery(pending, dispatches, allDrones, defaultBase);
+        if (routeOptimizer.isEnabled()) {
+            return planOptimizedMultiDroneDelivery(pending, context, defaultBase, engine);
+        }
+        return planMultiDroneDelivery(pending, dispatches, context, defaultBase, engine);
     }
 
-    private CalcDeliveryResult planSingleDroneDelivery(Drone drone, List<MedDispatchRec> dispatches,
-                                                   Position base) {
-        Capability cap = drone.getCapability();
-        if (cap == null) return null;
+    // The single-journey route only depends on the base and the dispatch order, so it is planned once
+    // and then scored against every capable drone: the cheapest drone whose maxMoves covers it wins.
+    private CalcDeliveryResult planSingleDroneDelivery(List<Drone> capableDrones, List<MedDispatchRec> dispatches,
+                                                       Position base, PathEngine engine,
+                                                       AirspaceMoveValidator validator) {
+        SingleJourneyRoute route = buildSingleJourneyRoute(dispatches, base, engine, validator);
+        if (route == null) {
+            return null;
+        }
+
+        Drone bestDrone = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+
+        for (Drone drone : capableDrones) {
+            Capability cap = drone.getCapability();
+            if (cap == null) continue;
+
+            if (route.totalMoves > cap.getMaxMoves()) {
+                logger.debug("Total moves {} exceeds drone {} maxMoves {}",
+                        route.totalMoves, drone.getId(), cap.getMaxMoves());
+                continue;
+            }
+
+            double cost = computeFlightCost(cap, route.totalMoves);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestDrone = drone;
+            }
+        }
+
+        if (bestDrone == null) {
+            logger.warn("Single-journey route of {} moves exceeds maxMoves of all {} capable drones",
+                    route.totalMoves, capableDrones.size());
+            return null;
+        }
+
+        DronePathResult dronePathResult = new DronePathResult(bestDrone.getId(), route.deliveries);
+
+        logger.info("✓ Single drone {} selected from {} candidates: {} deliveries in {} moves, ${} cost",
+                bestDrone.getId(), capableDrones.size(), route.deliveries.size(), route.totalMoves, bestCost);
+
+        return new CalcDeliveryResult(bestCost, route.totalMoves, List.of(dronePathResult));
+    }
 
+    private SingleJourneyRoute buildSingleJourneyRoute(List<MedDispatchRec> dispatches, Position base,
+                                                       PathEngine engine, AirspaceMoveValidator validator) {
         List<DeliveryResult> allDeliveries = new ArrayList<>();
         Position current = base;
         int totalMoves = 0;
@@ -122,12 +181,12 @@ public class DeliveryPlannerService {
             logger.debug("Planning path for delivery {} from {} to {}",
                     dispatch.getId(), current, dest);
 
-            List<LngLat> pathToDest = buildPathAvoidingRestrictions(current, dest);
+            List<LngLat> pathToDest = buildPathAvoidingRestrictions(current, dest, engine, validator);
 
             if (pathToDest == null || pathToDest.isEmpty()) {
                 logger.warn("Failed to find path for delivery {}, trying relaxed", dispatch.getId());
-                diagnoseDeliveryFailure(dispatch, current);
-                pathToDest = buildPathWithRelaxedConstraints(current, dest);
+                diagnoseDeliveryFailure(dispatch, current, validator.getAirspace());
+                pathToDest = buildPathWithRelaxedConstraints(current, dest, validator);
             }
 
             if (pathToDest == null || pathToDest.isEmpty()) {
@@ -171,9 +230,9 @@ public class DeliveryPlannerService {
                     dispatch.getId(), steps, current.getLng(), current.getLat(), closestDist);
         }
 
-        List<LngLat> returnPath = buildPathAvoidingRestrictions(current, base);
+        List<LngLat> returnPath = buildPathAvoidingRestrictions(current, base, engine, validator);
         if (returnPath == null) {
-            returnPath = buildPathWithRelaxedConstraints(current, base);
+            returnPath = buildPathWithRelaxedConstraints(current, base, validator);
         }
 
         if (returnPath == null || returnPath.isEmpty()) {
@@ -184,12 +243,6 @@ public class DeliveryPlannerService {
         int returnSteps = returnPath.size() - 1;
         totalMoves += returnSteps;
 
-        if (totalMoves > cap.getMaxMoves()) {
-            logger.warn("Total moves {} exceeds drone {} maxMoves {}",
-                    totalMoves, drone.getId(), cap.getMaxMoves());
-            return null;
-        }
-
         if (!allDeliveries.isEmpty()) {
             DeliveryResult lastDelivery = allDeliveries.get(allDeliveries.size() - 1);
             List<LngLat> lastPath = new ArrayList<>(lastDelivery.getFlightPath());
@@ -199,25 +252,244 @@ public class DeliveryPlannerService {
             lastDelivery.setFlightPath(lastPath);
         }
 
-        double totalCost = computeFlightCost(cap, totalMoves);
+        return new SingleJourneyRoute(allDeliveries, totalMoves);
+    }
 
-        DronePathResult dronePathResult = new DronePathResult(drone.getId(), allDeliveries);
+    private static final class SingleJourneyRoute {
+        private final List<DeliveryResult> deliveries;
+        private final int totalMoves;
 
-        logger.info("Single drone {} completed all {} deliveries in {} moves, ${} cost",
-                drone.getId(), allDeliveries.size(), totalMoves, totalCost);
+        SingleJourneyRoute(List<DeliveryResult> deliveries, int totalMoves) {
+            this.deliveries = deliveries;
+            this.totalMoves = totalMoves;
+        }
+    }
+
+    // Hands the dispatches, the fleet and lattice path lengths between every pair of stops to the route
+    // optimizer, then lays the paths for the flights it chose. A drone flying several flights gets one
+    // DronePathResult with all of its deliveries, as with the greedy planner.
+    private CalcDeliveryResult planOptimizedMultiDroneDelivery(List<MedDispatchRec> pending,
+                                                               PlanningContext context,
+                                                               Position defaultBase,
+                                                               PathEngine engine) {
+        List<Drone> fleet = new ArrayList<>(context.getDrones().stream()
+                .filter(d -> d.getCapability() != null)
+                .toList());
+        fleet.sort(Comparator.comparingDouble((Drone d) -> d.getCapability().getCapacity()).reversed());
+
+        double[] demands = new double[pending.size()];
+        List<Set<String>> availableDrones = new ArrayList<>();
+        for (int j = 0; j < pending.size(); j++) {
+            demands[j] = pending.get(j).getRequirements().getCapacity();
+            availableDrones.add(new HashSet<>(
+                    droneAvailabilityService.queryAvailableDrones(List.of(pending.get(j)), context)));
+        }
+
+        List<FleetRouteOptimizer.Vehicle> vehicles = new ArrayList<>();
+        boolean[][] canServe = new boolean[fleet.size()][pending.size()];
+        for (int v = 0; v < fleet.size(); v++) {
+            Drone drone = fleet.get(v);
+            vehicles.add(new FleetRouteOptimizer.Vehicle(drone.getId(), drone.getCapability()));
+            for (int j = 0; j < pending.size(); j++) {
+                canServe[v][j] = fitsRequirements(pending.get(j).getRequirements(), drone.getCapability())
+                        && availableDrones.get(j).contains(drone.getId());
+            }
+        }
+
+        LegTable legs = new LegTable(defaultBase, pending, engine, context.getValidator());
+        FleetRouteOptimizer.RoutePlan plan = routeOptimizer.optimize(demands, vehicles, canServe, legs);
+
+        Map<String, List<DeliveryResult>> deliveriesByDrone = new LinkedHashMap<>();
+        List<Integer> skipped = new ArrayList<>(plan.unassigned);
+        double totalCost = 0.0;
+        int totalMoves = 0, flights = 0;
+        for (FleetRouteOptimizer.Flight flight : plan.flights) {
+            FleetRouteOptimizer.Vehicle vehicle = vehicles.get(flight.vehicle);
+            for (LaidFlight laid : legs.layFlight(flight.jobs, vehicle.maxMoves, skipped)) {
+                double cost = vehicle.fixedCost + laid.moves * vehicle.costPerMove;
+                deliveriesByDrone.computeIfAbsent(vehicle.droneId, id -> new ArrayList<>()).addAll(laid.deliveries);
+                totalCost += cost;
+                totalMoves += laid.moves;
+                flights++;
+
+                logger.info("Drone {} flight: {} deliveries, {} moves, ${} cost",
+                        vehicle.droneId, laid.deliveries.size(), laid.moves, cost);
+            }
+        }
+
+        if (!skipped.isEmpty()) {
+            logger.warn("No drone can reach or carry dispatches {} - SKIPPING",
+                    skipped.stream().map(j -> pending.get(j).getId()).toList());
+        }
+
+        List<DronePathResult> dronePaths = new ArrayList<>();
+        deliveriesByDrone.forEach((droneId, deliveries) -> dronePaths.add(new DronePathResult(droneId, deliveries)));
 
-        return new CalcDeliveryResult(totalCost, totalMoves, List.of(dronePathResult));
+        logger.info("=== Multi-drone completed: {} drones, {} flights, {} moves, ${} cost ===",
+                dronePaths.size(), flights, totalMoves, totalCost);
+
+        return new CalcDeliveryResult(totalCost, totalMoves, dronePaths);
+    }
+
+    private static final class LaidFlight {
+        private final List<DeliveryResult> deliveries;
+        private final int moves;
+
+        LaidFlight(List<DeliveryResult> deliveries, int moves) {
+            this.deliveries = deliveries;
+            this.moves = moves;
+        }
+    }
+
+    // Lattice paths between the base (node 0) and each dispatch (node j + 1), all planned in parallel before
+    // the optimizer starts. A leg to a dispatch is cut at the point closest to it and costs one extra move for
+    // the hover; a leg back to the base is the whole path. Legs are searched from the stops themselves, so
+    // they are the optimizer's estimates: the flights are laid out from wherever the drone actually hovers.
+    private final class LegTable implements FleetRouteOptimizer.LegCosts {
+        private final Position[] nodes;
+        private final List<MedDispatchRec> dispatches;
+        private final PathEngine engine;
+        private final AirspaceMoveValidator validator;
+        private final LegMatrixBuilder.LegMatrix matrix;
+
+        LegTable(Position base, List<MedDispatchRec> dispatches, PathEngine engine, AirspaceMoveValidator validator) {
+            this.nodes = new Position[dispatches.size() + 1];
+            this.nodes[0] = base;
+            for (int j = 0; j < dispatches.size(); j++) {
+                this.nodes[j + 1] = dispatches.get(j).getDelivery();
+            }
+            this.dispatches = dispatches;
+            this.engine = engine;
+            this.validator = validator;
+
+            // Searches run on the pool, so failures are noted per dispatch and diagnosed here afterwards
+            // rather than interleaving diagnostics from several threads.
+            boolean[] blockedFromBase = new boolean[nodes.length];
+            this.matrix = legMatrixBuilder.build(nodes, (from, to) -> {
+                List<LngLat> path = buildPathAvoidingRestrictions(nodes[from], nodes[to], engine, validator);
+                if (path == null || path.isEmpty()) {
+                    if (from == 0) blockedFromBase[to] = true;
+                    path = buildPathWithRelaxedConstraints(nodes[from], nodes[to], validator);
+                }
+                return path;
+            });
+            for (int j = 1; j < nodes.length; j++) {
+                if (blockedFromBase[j]) {
+                    diagnoseDeliveryFailure(dispatches.get(j - 1), base, validator.getAirspace());
+                }
+            }
+        }
+
+        @Override
+        public int moves(int from, int to) {
+            int moves = matrix.moves(from, to);
+            if (moves < 0) return -1;
+            return to == 0 ? moves : moves + 1;
+        }
+
+        // Chains the legs of one flight: each delivery's path ends with a hover over its drop-off, later legs
+        // leave out their starting point, and the way home is appended to the last delivery. Every leg starts
+        // at the point the drone is hovering over, so the flight is one unbroken run of lattice moves. If the
+        // re-planned legs take the flight past the drone's range, it heads home early and the rest of the jobs
+        // go on a new flight from the base; a job that doesn't fit even on its own is added to skipped.
+        List<LaidFlight> layFlight(List<Integer> jobs, int maxMoves, List<Integer> skipped) {
+            List<LaidFlight> flights = new ArrayList<>();
+            LngLat base = new LngLat(nodes[0].getLng(), nodes[0].getLat());
+            List<DeliveryResult> deliveries = new ArrayList<>();
+            List<LngLat> returnPath = null;
+            LngLat at = base;
+            int prev = 0, used = 0;
+
+            for (int i = 0; i < jobs.size(); ) {
+                int job = jobs.get(i);
+                List<LngLat> leg = legFrom(at, prev, job + 1);
+                LngLat hoverPoint = leg == null ? null : leg.get(leg.size() - 1);
+                List<LngLat> back = leg == null ? null : legFrom(hoverPoint, job + 1, 0);
+
+                // Reaching the drop-off plus the hover, then the way home from there.
+                if (back != null && used + leg.size() + back.size() - 1 <= maxMoves) {
+                    List<LngLat> flightPath = new ArrayList<>(deliveries.isEmpty() ? leg : leg.subList(1, leg.size()));
+                    flightPath.add(new LngLat(hoverPoint.getLng(), hoverPoint.getLat()));
+                    deliveries.add(new DeliveryResult(dispatches.get(job).getId(), flightPath));
+                    used += leg.size();
+                    returnPath = back;
+                    at = hoverPoint;
+                    prev = job + 1;
+                    i++;
+                } else if (!deliveries.isEmpty()) {
+                    logger.debug("Dispatch {} no longer fits this flight, starting another from the base",
+                            dispatches.get(job).getId());
+                    flights.add(closeFlight(deliveries, returnPath, used));
+                    deliveries = new ArrayList<>();
+                    at = base;
+                    prev = 0;
+                    used = 0;
+                } else {
+                    skipped.add(job);
+                    i++;
+                }
+            }
+            if (!deliveries.isEmpty()) {
+                flights.add(closeFlight(deliveries, returnPath, used));
+            }
+            return flights;
+        }
+
+        private LaidFlight closeFlight(List<DeliveryResult> deliveries, List<LngLat> returnPath, int used) {
+            DeliveryResult lastDelivery = deliveries.get(deliveries.size() - 1);
+            List<LngLat> lastPath = new ArrayList<>(lastDelivery.getFlightPath());
+            lastPath.addAll(returnPath.subList(1, returnPath.size()));
+            lastDelivery.setFlightPath(lastPath);
+            return new LaidFlight(deliveries, used + returnPath.size() - 1);
+        }
+
+        // The matrix leg when it starts exactly where the drone is, otherwise a new search from there.
+        private List<LngLat> legFrom(LngLat at, int from, int to) {
+            List<LngLat> leg = matrix.path(from, to);
+            if (leg != null && leg.get(0).getLng() == at.getLng() && leg.get(0).getLat() == at.getLat()) {
+                return leg;
+            }
+
+            Position start = new Position(at.getLng(), at.getLat()), dest = nodes[to];
+            List<LngLat> path = buildPathAvoidingRestrictions(start, dest, engine, validator);
+            if (path == null || path.isEmpty()) {
+                path = buildPathWithRelaxedConstraints(start, dest, validator);
+            }
+            if (path == null || path.isEmpty()) {
+                return null;
+            }
+            if (to == 0) {
+                return path;
+            }
+
+            int closestIndex = 0;
+            double closestDist = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < path.size(); i++) {
+                LngLat point = path.get(i);
+                double d = dist(new Position(point.getLng(), point.getLat()), dest);
+                if (d < closestDist) {
+                    closestDist = d;
+                    closestIndex = i;
+                }
+            }
+            return path.subList(0, closestIndex + 1);
+        }
     }
 
     private CalcDeliveryResult planMultiDroneDelivery(List<MedDispatchRec> pending,
                                                   List<MedDispatchRec> allDispatches,
-                                                  List<Drone> allDrones,
-                                                  Position defaultBase) {
+                                                  PlanningContext context,
+                                                  Position defaultBase,
+                                                  PathEngine engine) {
         double totalCost = 0.0;
         int totalMoves = 0;
         List<DronePathResult> dronePaths = new ArrayList<>();
 
-        List<Drone> sortedDrones = new ArrayList<>(allDrones);
+        // Which drones can take each dispatch doesn't change while planning, so each is looked up once
+        // instead of once per drone.
+        Map<MedDispatchRec, Set<String>> availableByDispatch = new IdentityHashMap<>();
+
+        List<Drone> sortedDrones = new ArrayList<>(context.getDrones());
         sortedDrones.sort(Comparator.comparingDouble((Drone d) -> d.getCapability() != null ? d.getCapability().getCapacity() : 0).reversed());
 
         for (Drone drone : sortedDrones) {
@@ -249,7 +521,8 @@ public class DeliveryPlannerService {
                             if (!fitsRequirements(m.getRequirements(), cap)) {
                                 return false;
                             }
-                            List<String> available = droneAvailabilityService.queryAvailableDrones(List.of(m));
+                            Set<String> available = availableByDispatch.computeIfAbsent(m,
+                                    d -> new HashSet<>(droneAvailabilityService.queryAvailableDrones(List.of(d), context)));
                             boolean isAvailable = available.contains(drone.getId());
                             if (!isAvailable) {
                                 logger.trace("Drone {} not available for dispatch {}", drone.getId(), m.getId());
@@ -282,12 +555,13 @@ public class DeliveryPlannerService {
                         continue;
                     }
 
-                    List<LngLat> pathToDest = buildPathAvoidingRestrictions(current, dest);
+                    List<LngLat> pathToDest = buildPathAvoidingRestrictions(current, dest, engine,
+                            context.getValidator());
 
                     if (pathToDest == null || pathToDest.isEmpty()) {
                         logger.warn("Failed to find path for delivery {}, trying relaxed", next.getId());
-                        diagnoseDeliveryFailure(next, current);
-                        pathToDest = buildPathWithRelaxedConstraints(current, dest);
+                        diagnoseDeliveryFailure(next, current, context.getAirspace());
+                        pathToDest = buildPathWithRelaxedConstraints(current, dest, context.getValidator());
                     }
 
                     if (pathToDest == null || pathToDest.isEmpty()) {
@@ -351,9 +625,10 @@ public class DeliveryPlannerService {
                     break;
                 }
 
-                List<LngLat> returnPath = buildPathAvoidingRestrictions(current, base);
+                List<LngLat> returnPath = buildPathAvoidingRestrictions(current, base, engine,
+                        context.getValidator());
                 if (returnPath == null) {
-                    returnPath = buildPathWithRelaxedConstraints(current, base);
+                    returnPath = buildPathWithRelaxedConstraints(current, base, context.getValidator());
                 }
 
                 int stepsBack = returnPath != null ? returnPath.size() - 1 : estimateStepsBack(current, base);
@@ -409,262 +684,31 @@ public class DeliveryPlannerService {
         return new CalcDeliveryResult(totalCost, totalMoves, dronePaths);
     }
 
-    private List<LngLat> buildPathAvoidingRestrictions(Position from, Position to) {
+    private List<LngLat> buildPathAvoidingRestrictions(Position from, Position to, PathEngine engine,
+                                                       AirspaceMoveValidator validator) {
         if (from == null || to == null) {
             logger.error("Null position in buildPath: from={}, to={}", from, to);
             return null;
         }
 
-        double totalDistance = dist(from, to);
-        logger.debug("Building path from {} to {}, distance={}", from, to, totalDistance);
-
-        List<LngLat> path = new ArrayList<>();
-        path.add(new LngLat(from.getLng(), from.getLat()));
-
-        Position current = new Position(from.getLng(), from.getLat());
-        int iterations = 0;
-        int consecutiveBlocked = 0;
-
-        while (!isCloseEnough(current, to) && iterations < MAX_PATH_ITERATIONS) {
-            iterations++;
-
-            double targetAngle = calculateAngle(current, to);
-            Position nextDirect = moveInDirection(current, targetAngle);
-
-            double distanceToTarget = dist(current, to);
-            if (distanceToTarget < STEP * 5 && iterations % 50 == 0) {
-                logger.debug("Getting close to target: distance={}, iteration={}",
-                        distanceToTarget, iterations);
-            }
-
-            if (!pathSegmentCrossesRestriction(current, nextDirect)) {
-                current = nextDirect;
-                path.add(new LngLat(current.getLng(), current.getLat()));
-                consecutiveBlocked = 0;
-            } else {
-                logger.trace("Direct path blocked at iteration {}, trying alternatives", iterations);
-
-                Position nextPos = findAlternativeMove(current, to, targetAngle);
-
-                if (nextPos == null) {
-                    logger.warn("No alternative move found at iteration {} (distance to target: {})",
-                            iterations, distanceToTarget);
-
-                    if (distanceToTarget < CLOSE_THRESHOLD * 1.5) {
-                        logger.debug("Close enough to target, accepting current position");
-                        break;
-                    }
-
-                    return null;
-                }
-
-                current = nextPos;
-                path.add(new LngLat(current.getLng(), current.getLat()));
-                consecutiveBlocked++;
-
-                if (consecutiveBlocked > 30) {
-                    logger.warn("Blocked {} consecutive times, may be stuck", consecutiveBlocked);
-                }
-            }
-
-            if (iterations % 2000 == 0) {
-                logger.debug("Pathfinding iteration {}, distance remaining: {}, consecutive blocked: {}",
-                        iterations, dist(current, to), consecutiveBlocked);
-            }
-        }
-
-        if (iterations >= MAX_PATH_ITERATIONS) {
-            logger.warn("Exceeded max iterations building path from {} to {}", from, to);
-            return null;
-        }
-
-        double finalDistance = dist(current, to);
-        logger.debug("Path built with {} steps, final position {}, distance to target: {}",
-                path.size(), current, finalDistance);
-
-        return path;
-    }
-
-    private List<LngLat> buildPathWithRelaxedConstraints(Position from, Position to) {
-        logger.info("Trying RELAXED pathfinding from {} to {} (distance={})",
-                from, to, dist(from, to));
-
-        List<LngLat> path = new ArrayList<>();
-        path.add(new LngLat(from.getLng(), from.getLat()));
-
-        Position current = new Position(from.getLng(), from.getLat());
-        int iterations = 0;
-        int stuckCounter = 0;
-        double lastDistance = dist(current, to);
-        double bestDistance = lastDistance;
-
-        while (!isCloseEnough(current, to) && iterations < MAX_PATH_ITERATIONS) {
-            iterations++;
-
-            double targetAngle = calculateAngle(current, to);
-            Position nextDirect = moveInDirection(current, targetAngle);
-
-            if (!pathSegmentCrossesRestriction(current, nextDirect)) {
-                current = nextDirect;
-                path.add(new LngLat(current.getLng(), current.getLat()));
-                stuckCounter = 0;
-                lastDistance = dist(current, to);
-
-                if (lastDistance < bestDistance) {
-                    bestDistance = lastDistance;
-                }
-            } else {
-                Position nextPos = findAlternativeMoveRelaxed(current, to, targetAngle, stuckCounter);
-
-                if (nextPos == null) {
-                    logger.warn("No alternative move in relaxed mode at iteration {} (stuck={}, dist={})",
-                            iterations, stuckCounter, dist(current, to));
-
-                    if (dist(current, to) < CLOSE_THRESHOLD * 2) {
-                        logger.info("Relaxed: Close enough to target, accepting position");
-                        break;
-                    }
-
-                    return null;
-                }
-
-                current = nextPos;
-                path.add(new LngLat(current.getLng(), current.getLat()));
-
-                double currentDistance = dist(current, to);
-                if (currentDistance >= lastDistance - EPS) {
-                    stuckCounter++;
-                } else {
-                    stuckCounter = Math.max(0, stuckCounter - 1);
-                    if (currentDistance < bestDistance) {
-                        bestDistance = currentDistance;
-                    }
-                }
-                lastDistance = currentDistance;
-
-                if (stuckCounter > 100) {
-                    logger.warn("Stuck for {} iterations (dist={}, best={}), abandoning",
-                            stuckCounter, currentDistance, bestDistance);
-                    return null;
-                }
-            }
-
-            if (iterations % 1000 == 0) {
-                logger.debug("Relaxed iteration {}, distance: {}, best: {}, stuck: {}",
-                        iterations, dist(current, to), bestDistance, stuckCounter);
-            }
-        }
-
-        if (iterations >= MAX_PATH_ITERATIONS) {
-            logger.warn("Relaxed pathfinding exceeded max iterations");
-            return null;
-        }
-
-        logger.info("Relaxed pathfinding SUCCEEDED with {} steps, final distance: {}",
-                path.size(), dist(current, to));
-
-        return path;
-    }
-
-    private Position findAlternativeMove(Position current, Position target, double targetAngle) {
-        double[] offsets = {
-                -ANGLE_INCREMENT, ANGLE_INCREMENT,
-                -2*ANGLE_INCREMENT, 2*ANGLE_INCREMENT,
-                -3*ANGLE_INCREMENT, 3*ANGLE_INCREMENT,
-                -4*ANGLE_INCREMENT, 4*ANGLE_INCREMENT,
-                -5*ANGLE_INCREMENT, 5*ANGLE_INCREMENT
-        };
-
-        for (double offset : offsets) {
-            double testAngle = normalizeAngle(targetAngle + offset);
-            Position testPos = moveInDirection(current, testAngle);
-
-            if (!pathSegmentCrossesRestriction(current, testPos)) {
-                double distBefore = dist(current, target);
-                double distAfter = dist(testPos, target);
-
-                if (distAfter <= distBefore * 1.8) {
-                    return testPos;
-                }
-            }
-        }
-
-        Position bestPos = null;
-        double bestDist = Double.POSITIVE_INFINITY;
-
-        for (int i = 0; i < 16; i++) {
-            double testAngle = i * ANGLE_INCREMENT;
-            Position testPos = moveInDirection(current, testAngle);
-
-            if (!pathSegmentCrossesRestriction(current, testPos)) {
-                double distToTarget = dist(testPos, target);
-                if (distToTarget < bestDist) {
-                    bestDist = distToTarget;
-                    bestPos = testPos;
-                }
-            }
+        List<LngLat> path = pathEngineService.findPath(engine, from, to, MAX_PATH_ITERATIONS, validator);
+        if (path != null || engine == pathEngineService.getGreedyEngine()) {
+            return path;
         }
 
-        return bestPos;
+        logger.warn("{} found no path from {} to {} within {} iterations, falling back to greedy walk",
+                engine.getName(), from, to, MAX_PATH_ITERATIONS);
+        return pathEngineService.findPath(pathEngineService.getGreedyEngine(), from, to, MAX_PATH_ITERATIONS,
+                validator);
     }
 
-    private Position findAlternativeMoveRelaxed(Position current, Position target,
-                                                double targetAngle, int stuckCounter) {
-        double[] offsets = {
-                -ANGLE_INCREMENT, ANGLE_INCREMENT,
-                -2*ANGLE_INCREMENT, 2*ANGLE_INCREMENT,
-                -3*ANGLE_INCREMENT, 3*ANGLE_INCREMENT,
-                -4*ANGLE_INCREMENT, 4*ANGLE_INCREMENT,
-                -5*ANGLE_INCREMENT, 5*ANGLE_INCREMENT,
-                -6*ANGLE_INCREMENT, 6*ANGLE_INCREMENT,
-                -7*ANGLE_INCREMENT, 7*ANGLE_INCREMENT,
-                -8*ANGLE_INCREMENT, 8*ANGLE_INCREMENT
-        };
-
-        double tolerance = stuckCounter > 50 ? 4.0 : (stuckCounter > 30 ? 3.0 : 2.0);
-
-        for (double offset : offsets) {
-            double testAngle = normalizeAngle(targetAngle + offset);
-            Position testPos = moveInDirection(current, testAngle);
-
-            if (!pathSegmentCrossesRestriction(current, testPos)) {
-                double distBefore = dist(current, target);
-                double distAfter = dist(testPos, target);
-
-                if (distAfter <= distBefore * tolerance) {
-                    return testPos;
-                }
-            }
-        }
-
-        List<Position> validMoves = new ArrayList<>();
-        for (int i = 0; i < 16; i++) {
-            double testAngle = i * ANGLE_INCREMENT;
-            Position testPos = moveInDirection(current, testAngle);
-
-            if (!pathSegmentCrossesRestriction(current, testPos)) {
-                validMoves.add(testPos);
-            }
-        }
-
-        if (validMoves.isEmpty()) {
-            return null;
-        }
-
-        Position best = null;
-        double bestDist = Double.POSITIVE_INFINITY;
-        for (Position pos : validMoves) {
-            double d = dist(pos, target);
-            if (d < bestDist) {
-                bestDist = d;
-                best = pos;
-            }
-        }
-
-        return best;
+    private List<LngLat> buildPathWithRelaxedConstraints(Position from, Position to,
+                                                         AirspaceMoveValidator validator) {
+        return pathEngineService.findRelaxedPath(from, to, MAX_PATH_ITERATIONS, validator);
     }
 
-    private void diagnoseDeliveryFailure(MedDispatchRec dispatch, Position currentPos) {
+    // Reads the plan's airspace snapshot, so the diagnosis describes the same areas the plan was made against.
+    private void diagnoseDeliveryFailure(MedDispatchRec dispatch, Position currentPos, RestrictedAirspace airspace) {
         logger.info("=== DIAGNOSING DELIVERY FAILURE FOR ID {} ===", dispatch.getId());
 
         Position target = dispatch.getDelivery();
@@ -672,20 +716,20 @@ public class DeliveryPlannerService {
         logger.info("Current position: {}", currentPos);
         logger.info("Distance to target: {}", dist(currentPos, target));
 
-        boolean targetInRestricted = restrictedAreaService.isInRestrictedArea(target);
+        boolean targetInRestricted = airspace.findContainingArea(target.getLng(), target.getLat()) >= 0;
         logger.info("Target in restricted area: {}", targetInRestricted);
 
         if (targetInRestricted) {
             logger.error("DELIVERY POINT IS INSIDE RESTRICTED AREA - CANNOT BE COMPLETED");
-            String areaName = restrictedAreaService.getRestrictedAreaNameForPath(target, target);
+            String areaName = RestrictedAreaService.areaNameAlongPath(airspace, target, target);
             logger.error("Restricted area: {}", areaName);
         }
 
-        boolean pathBlocked = restrictedAreaService.pathCrossesRestrictedArea(currentPos, target);
+        boolean pathBlocked = segmentBlocked(airspace, currentPos, target);
         logger.info("Direct path blocked: {}", pathBlocked);
 
         if (pathBlocked) {
-            String areaName = restrictedAreaService.getRestrictedAreaNameForPath(currentPos, target);
+            String areaName = RestrictedAreaService.areaNameAlongPath(airspace, currentPos, target);
             logger.info("Blocked by restricted area: {}", areaName);
         }
 
@@ -697,7 +741,7 @@ public class DeliveryPlannerService {
             for (int j = 0; j < i; j++) {
                 testPos = moveInDirection(testPos, targetAngle);
             }
-            boolean stepBlocked = restrictedAreaService.pathCrossesRestrictedArea(currentPos, testPos);
+            boolean stepBlocked = segmentBlocked(airspace, currentPos, testPos);
             logger.info("After {} steps towards target: blocked={}, pos={}, dist to target={}",
                     i, stepBlocked, testPos, dist(testPos, target));
         }
@@ -705,8 +749,8 @@ public class DeliveryPlannerService {
         logger.info("=== END DIAGNOSIS ===");
     }
 
-    private boolean pathSegmentCrossesRestriction(Position from, Position to) {
-        return restrictedAreaService.pathCrossesRestrictedArea(from, to);
+    private boolean segmentBlocked(RestrictedAirspace airspace, Position from, Position to) {
+        return airspace.segmentIntersectsAnyArea(from.getLng(), from.getLat(), to.getLng(), to.getLat());
     }
 
     private Position moveInDirection(Position from, double angleDegrees) {
@@ -730,10 +774,6 @@ public class DeliveryPlannerService {
         return Math.round(angle / ANGLE_INCREMENT) * ANGLE_INCREMENT;
     }
 
-    private boolean isCloseEnough(Position p1, Position p2) {
-        return dist(p1, p2) < CLOSE_THRESHOLD;
-    }
-
     private int estimateStepsBack(Position from, Position to) {
         double d = dist(from, to);
         if (Double.isInfinite(d)) return Integer.MAX_VALUE;
@@ -7,8 +7,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,11 +18,30 @@ public class DroneAvailabilityService {
     private final DroneService droneService;
     private static final double EPS = 1e-12;
 
+    private volatile CompiledAvailability compiled;
+
     public DroneAvailabilityService(DroneService droneService) {
         this.droneService = droneService;
     }
 
     public List<String> queryAvailableDrones(List<MedDispatchRec> dispatches) {
+        List<MedDispatchRec> validDispatches = validDispatches(dispatches);
+        if (validDispatches.isEmpty()) {
+            return List.of();
+        }
+        return queryAvailableDrones(validDispatches, droneService.eligibility(), availabilityIndex());
+    }
+
+    // Same query against a plan's snapshot, so a planner asking repeatedly doesn't refetch anything.
+    List<String> queryAvailableDrones(List<MedDispatchRec> dispatches, PlanningContext context) {
+        List<MedDispatchRec> validDispatches = validDispatches(dispatches);
+        if (validDispatches.isEmpty()) {
+            return List.of();
+        }
+        return queryAvailableDrones(validDispatches, context.getEligibility(), context.getAvailability());
+    }
+
+    private List<MedDispatchRec> validDispatches(List<MedDispatchRec> dispatches) {
         if (dispatches == null || dispatches.isEmpty()) {
             logger.debug("No dispatches provided for availability query");
             return List.of();
@@ -36,24 +53,42 @@ public class DroneAvailabilityService {
 
         if (validDispatches.isEmpty()) {
             logger.warn("No valid dispatches found (all have null requirements)");
-            return List.of();
         }
+        return validDispatches;
+    }
 
+    private List<String> queryAvailableDrones(List<MedDispatchRec> validDispatches,
+                                              DroneEligibilityIndex eligibility,
+                                              AvailabilityIndex availabilityIndex) {
         logger.info("Querying available drones for {} valid dispatches (single journey - must handle ALL in one trip)",
                 validDispatches.size());
 
-        List<Drone> allDrones = droneService.fetchAllDrones();
-
-        List<ServicePointDrones> servicePointData = droneService.fetchDronesForServicePoints();
+        double totalCapacityNeeded = 0;
+        double largestCapacityNeeded = 0;
+        boolean needsCooling = false;
+        boolean needsHeating = false;
+        for (MedDispatchRec dispatch : validDispatches) {
+            Requirements req = dispatch.getRequirements();
+            totalCapacityNeeded += req.getCapacity();
+            largestCapacityNeeded = Math.max(largestCapacityNeeded, req.getCapacity());
+            needsCooling |= req.isCooling();
+            needsHeating |= req.isHeating();
+        }
 
-        Map<String, List<TimeWindow>> availabilityMap = buildAvailabilityMap(servicePointData);
+        // Capacity, cooling and heating come straight from the shared capability index; only the drones it
+        // returns are checked against each dispatch's schedule and cost limit.
+        List<Drone> candidates = eligibility.eligible(
+                Math.max(totalCapacityNeeded, largestCapacityNeeded) - EPS,
+                needsCooling, needsHeating, Integer.MIN_VALUE);
 
-        logger.debug("Built availability map for {} drones", availabilityMap.size());
+        List<DispatchSlot> slots = validDispatches.stream()
+                .map(DispatchSlot::of)
+                .collect(Collectors.toList());
 
         List<String> availableDroneIds = new ArrayList<>();
 
-        for (Drone drone : allDrones) {
-            if (canHandleAllDispatches(drone, validDispatches, availabilityMap)) {
+        for (Drone drone : candidates) {
+            if (canHandleAllDispatches(drone, slots, availabilityIndex)) {
                 availableDroneIds.add(drone.getId());
                 logger.debug("Drone {} CAN handle all {} dispatches in single journey",
                         drone.getId(), validDispatches.size());
@@ -63,73 +98,38 @@ public class DroneAvailabilityService {
         }
 
         logger.info("Found {} available drones (out of {}) that can handle ALL {} dispatches in single journey",
-                availableDroneIds.size(), allDrones.size(), validDispatches.size());
+                availableDroneIds.size(), eligibility.size(), validDispatches.size());
 
         return availableDroneIds;
     }
 
-    private Map<String, List<TimeWindow>> buildAvailabilityMap(
-            List<ServicePointDrones> servicePointData) {
-
-        Map<String, List<TimeWindow>> map = new HashMap<>();
-
-        for (ServicePointDrones spData : servicePointData) {
-            if (spData.getDrones() == null) continue;
-
-            for (DroneWithAvailability droneWithAvail : spData.getDrones()) {
-                String droneId = droneWithAvail.getId();
-                List<TimeWindow> windows = droneWithAvail.getAvailability();
+    // The repository hands back the same list until its catalog is refreshed, so the windows are only
+    // compiled again when that snapshot changes.
+    AvailabilityIndex availabilityIndex() {
+        List<ServicePointDrones> servicePointData = droneService.fetchDronesForServicePoints();
 
-                if (windows != null && !windows.isEmpty()) {
-                    map.put(droneId, windows);
-                }
-            }
+        CompiledAvailability current = compiled;
+        if (current != null && current.source == servicePointData) {
+            return current.index;
         }
 
-        return map;
+        AvailabilityIndex index = AvailabilityIndex.compile(servicePointData);
+        compiled = new CompiledAvailability(servicePointData, index);
+        logger.debug("Compiled availability windows for {} drones", index.size());
+        return index;
     }
 
-    private boolean canHandleAllDispatches(Drone drone, List<MedDispatchRec> dispatches,
-                                           Map<String, List<TimeWindow>> availabilityMap) {
-        if (drone == null || drone.getCapability() == null) {
-            return false;
-        }
-
+    // Schedule and cost checks for a drone the capability index has already matched on capacity, cooling
+    // and heating.
+    private boolean canHandleAllDispatches(Drone drone, List<DispatchSlot> slots,
+                                           AvailabilityIndex availabilityIndex) {
         Capability capability = drone.getCapability();
 
-        double totalCapacityNeeded = dispatches.stream()
-                .mapToDouble(d -> d.getRequirements().getCapacity())
-                .sum();
-
-        if (totalCapacityNeeded > capability.getCapacity() + EPS) {
-            logger.trace("Drone {} failed total capacity check for single journey ({} > {})",
-                    drone.getId(), totalCapacityNeeded, capability.getCapacity());
-            return false;
-        }
-
-        for (MedDispatchRec dispatch : dispatches) {
+        for (DispatchSlot slot : slots) {
+            MedDispatchRec dispatch = slot.dispatch;
             Requirements req = dispatch.getRequirements();
 
-            if (capability.getCapacity() + EPS < req.getCapacity()) {
-                logger.trace("Drone {} failed individual capacity check for dispatch {} ({} < {})",
-                        drone.getId(), dispatch.getId(),
-                        capability.getCapacity(), req.getCapacity());
-                return false;
-            }
-
-            if (req.isCooling() && !capability.isCooling()) {
-                logger.trace("Drone {} failed cooling check for dispatch {}",
-                        drone.getId(), dispatch.getId());
-                return false;
-            }
-
-            if (req.isHeating() && !capability.isHeating()) {
-                logger.trace("Drone {} failed heating check for dispatch {}",
-                        drone.getId(), dispatch.getId());
-                return false;
-            }
-
-            if (!isAvailableForDispatch(drone.getId(), dispatch, availabilityMap)) {
+            if (slot.day != null && !availabilityIndex.isAvailable(drone.getId(), slot.day, slot.secondOfDay)) {
                 logger.trace("Drone {} failed availability check for dispatch {} ({} at {})",
                         drone.getId(), dispatch.getId(),
                         dispatch.getDate(), dispatch.getTime());
@@ -149,80 +149,49 @@ public class DroneAvailabilityService {
         return true;
     }
 
-    private boolean isAvailableForDispatch(String droneId, MedDispatchRec dispatch,
-                                           Map<String, List<TimeWindow>> availabilityMap) {
-        if (dispatch.getDate() == null || dispatch.getTime() == null) {
-            return true;
-        }
-
-        List<TimeWindow> windows = availabilityMap.get(droneId);
-        if (windows == null || windows.isEmpty()) {
-            return true;
-        }
-
-        try {
-            LocalDate date = LocalDate.parse(dispatch.getDate());
-            DayOfWeek dayOfWeek = date.getDayOfWeek();
-            String dayName = dayOfWeek.toString();
-
-            LocalTime dispatchTime = parseTime(dispatch.getTime());
-            if (dispatchTime == null) {
-                logger.warn("Could not parse dispatch time '{}', assuming available",
-                        dispatch.getTime());
-                return true;
-            }
-
-            for (TimeWindow window : windows) {
-                if (isInTimeWindow(dayName, dispatchTime, window)) {
-                    return true;
-                }
-            }
-
-            return false;
-
-        } catch (DateTimeParseException e) {
-            logger.warn("Failed to parse date '{}' for dispatch {}, assuming available",
-                    dispatch.getDate(), dispatch.getId());
-            return true;
-        }
-    }
-
-    private boolean isInTimeWindow(String dayName, LocalTime dispatchTime, TimeWindow window) {
-        if (!window.getDayOfWeek().equalsIgnoreCase(dayName)) {
-            return false;
-        }
-
-        LocalTime fromTime = parseTime(window.getFrom());
-        LocalTime untilTime = parseTime(window.getUntil());
+    private static final class CompiledAvailability {
+        final List<ServicePointDrones> source;
+        final AvailabilityIndex index;
 
-        if (fromTime == null || untilTime == null) {
-            logger.warn("Could not parse window times: from='{}', until='{}'",
-                    window.getFrom(), window.getUntil());
-            return false;
+        CompiledAvailability(List<ServicePointDrones> source, AvailabilityIndex index) {
+            this.source = source;
+            this.index = index;
         }
-
-        return !dispatchTime.isBefore(fromTime) && !dispatchTime.isAfter(untilTime);
     }
 
-    private LocalTime parseTime(String timeStr) {
-        if (timeStr == null || timeStr.isEmpty()) {
-            return null;
+    // A dispatch with its date and time parsed once per query. A null day means the dispatch has no usable
+    // date/time and any drone is treated as available for it.
+    private static final class DispatchSlot {
+        final MedDispatchRec dispatch;
+        final DayOfWeek day;
+        final int secondOfDay;
+
+        private DispatchSlot(MedDispatchRec dispatch, DayOfWeek day, int secondOfDay) {
+            this.dispatch = dispatch;
+            this.day = day;
+            this.secondOfDay = secondOfDay;
         }
 
-        DateTimeFormatter[] formatters = {
-                DateTimeFormatter.ofPattern("HH:mm:ss"),
-                DateTimeFormatter.ofPattern("H:mm:ss"),
-                DateTimeFormatter.ofPattern("HH:mm"),
-                DateTimeFormatter.ofPattern("H:mm")
-        };
+        static DispatchSlot of(MedDispatchRec dispatch) {
+            if (dispatch.getDate() == null || dispatch.getTime() == null) {
+                return new DispatchSlot(dispatch, null, -1);
+            }
 
-        for (DateTimeFormatter formatter : formatters) {
+            DayOfWeek day;
             try {
-                return LocalTime.parse(timeStr, formatter);
+                day = LocalDate.parse(dispatch.getDate()).getDayOfWeek();
             } catch (DateTimeParseException e) {
+                logger.warn("Failed to parse date '{}' for dispatch {}, assuming available",
+                        dispatch.getDate(), dispatch.getId());
+                return new DispatchSlot(dispatch, null, -1);
             }
-        }
 
-        return null;
+            int secondOfDay = AvailabilityIndex.parseSecondOfDay(dispatch.getTime());
+            if (secondOfDay < 0) {
+                logger.warn("Could not parse dispatch time '{}', assuming available", dispatch.getTime());
+                return new DispatchSlot(dispatch, null, -1);
+            }
+            return new DispatchSlot(dispatch, day, secondOfDay);
+        }
     }
-}
\ No newline at end of file
+}
@@ -4,12 +4,14 @@ import com.example.coursework1.dto.*;
 import com.example.coursework1.model.Position;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
@@ -21,21 +23,46 @@ public class DroneDispatchService {
     private final DroneService droneService;
     private final ServicePointService servicePointService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final MissionExecutor missionExecutor;
+    private final SimulationClock simulationClock;
+    private final FleetTelemetryService fleetTelemetryService;
+    private final FleetStatusService fleetStatusService;
+    private final boolean perDroneUpdates;
+    private final long batchStepMillis;
+    private final long singleStepMillis;
+
+    // How long a finished drone stays on the map as COMPLETED before it is released.
+    private static final long COMPLETED_LINGER_MILLIS = 3000;
 
     private static final Map<String, ActiveDroneState> activeDrones = new ConcurrentHashMap<>();
     private static final AtomicInteger deliveryIdCounter = new AtomicInteger(1000);
-    private static final Map<String, BatchData> activeBatches = new ConcurrentHashMap<>();
+    private static final AtomicInteger planIdCounter = new AtomicInteger(1);
+    private static final Map<String, BatchPlan> batchPlans = new ConcurrentHashMap<>();
 
     private List<List<Double>> allDeliveryDestinations;
 
     public DroneDispatchService(DeliveryPlannerService plannerService,
                                 DroneService droneService,
                                 ServicePointService servicePointService,
-                                SimpMessagingTemplate messagingTemplate) {
+                                SimpMessagingTemplate messagingTemplate,
+                                MissionExecutor missionExecutor,
+                                SimulationClock simulationClock,
+                                FleetTelemetryService fleetTelemetryService,
+                                FleetStatusService fleetStatusService,
+                                @Value("${telemetry.per-drone-updates:true}") boolean perDroneUpdates,
+                                @Value("${simulation.step-ms.batch:50}") long batchStepMillis,
+                                @Value("${simulation.step-ms.single:100}") long singleStepMillis) {
         this.plannerService = plannerService;
         this.droneService = droneService;
         this.servicePointService = servicePointService;
         this.messagingTemplate = messagingTemplate;
+        this.missionExecutor = missionExecutor;
+        this.simulationClock = simulationClock;
+        this.fleetTelemetryService = fleetTelemetryService;
+        this.fleetStatusService = fleetStatusService;
+        this.perDroneUpdates = perDroneUpdates;
+        this.batchStepMillis = batchStepMillis;
+        this.singleStepMillis = singleStepMillis;
 
         logger.info("DroneDispatchService initialized - {} active drones", activeDrones.size());
     }
@@ -128,11 +155,9 @@ public class DroneDispatchService {
         final boolean finalBatchNeedsCooling = batchNeedsCooling;
         final boolean finalBatchNeedsHeating = batchNeedsHeating;
         
-        int maxDroneMoves = allDrones.stream()
-                .filter(d -> d.getCapability() != null)
-                .filter(d -> d.getCapability().getCapacity() >= finalTotalCapacity)
-                .filter(d -> !finalBatchNeedsCooling || d.getCapability().isCooling())
-                .filter(d -> !finalBatchNeedsHeating || d.getCapability().isHeating())
+        int maxDroneMoves = droneService.eligibility()
+                .eligible(finalTotalCapacity, finalBatchNeedsCooling, finalBatchNeedsHeating, Integer.MIN_VALUE)
+                .stream()
                 .mapToInt(d -> d.getCapability().getMaxMoves())
                 .max()
                 .orElse(0);
@@ -177,8 +202,15 @@ public class DroneDispatchService {
                     pathResult.getDroneId(), pathResult.getDeliveries().size());
         }
 
+        // Missions fly exactly the paths validated above; they are handed over by plan ID rather than re-planned.
+        String planId = "plan-" + planIdCounter.getAndIncrement();
+        BatchPlan plan = new BatchPlan(planId, batchRequest.getBatchId(), result);
+        batchPlans.put(planId, plan);
+        logger.info("Registered {} for batch {}", planId, batchRequest.getBatchId());
+
         int dispatchedDrones = 0;
         List<String> skippedDrones = new ArrayList<>();
+        List<String> missionIds = new ArrayList<>();
 
         for (DronePathResult pathResult : result.getDronePaths()) {
             String plannedDroneId = pathResult.getDroneId();
@@ -187,6 +219,7 @@ public class DroneDispatchService {
             if (drone == null) {
                 logger.error("Planned drone {} not found", plannedDroneId);
                 skippedDrones.add(plannedDroneId + " (not found)");
+                releaseBatchPlan(plan);
                 continue;
             }
 
@@ -212,7 +245,6 @@ public class DroneDispatchService {
                 logger.warn("Planned drone {} is BUSY - searching for alternative...", drone.getId());
                 
                 Drone alternativeDrone = findAlternativeDrone(
-                        allDrones, 
                         drone.getCapability(), 
                         droneDispatches
                 );
@@ -224,6 +256,7 @@ public class DroneDispatchService {
                 } else {
                     logger.error("No alternative drone available (planned: {})", plannedDroneId);
                     skippedDrones.add(plannedDroneId + " (busy, no alternatives available)");
+                    releaseBatchPlan(plan);
                     continue;
                 }
             } else {
@@ -241,10 +274,21 @@ public class DroneDispatchService {
                     droneDestinations
             );
             placeholderState.setStatus("PENDING");
-            activeDrones.put(drone.getId(), placeholderState);
+            markActive(drone.getId(), placeholderState);
             logger.info("Drone {} marked as unavailable for batch {}", drone.getId(), batchRequest.getBatchId());
 
-            startBatchMission(drone, droneDispatches, base, batchRequest.getBatchId(), droneDestinations);
+            Drone missionDrone = drone;
+            try {
+                String missionId = missionExecutor.submit(
+                        "batch " + batchRequest.getBatchId() + ", drone " + missionDrone.getId(),
+                        () -> runBatchMission(missionDrone, planId, plannedDroneId, droneDestinations));
+                missionIds.add(missionId);
+            } catch (RejectedExecutionException e) {
+                markReleased(missionDrone.getId());
+                skippedDrones.add(plannedDroneId + " (mission queue full)");
+                releaseBatchPlan(plan);
+                continue;
+            }
             dispatchedDrones++;
         }
 
@@ -254,6 +298,7 @@ public class DroneDispatchService {
             response.put("success", false);
             response.put("message", "No drones available. All drones are currently busy. Skipped: " + skippedDrones);
             response.put("skippedDrones", skippedDrones);
+            batchPlans.remove(planId);
             return response;
         }
 
@@ -264,8 +309,10 @@ public class DroneDispatchService {
 
         response.put("success", true);
         response.put("batchId", batchRequest.getBatchId());
+        response.put("planId", planId);
         response.put("deliveryCount", allDispatches.size());
         response.put("dispatchedDrones", dispatchedDrones);
+        response.put("missionIds", missionIds);
         if (!skippedDrones.isEmpty()) {
             response.put("skippedDrones", skippedDrones);
         }
@@ -297,19 +344,12 @@ public class DroneDispatchService {
                 new Position(servicePoints.get(0).getLocation().getLng(),
                         servicePoints.get(0).getLocation().getLat());
 
-        List<Drone> allDrones = droneService.fetchAllDrones();
         Requirements reqs = dispatch.getRequirements();
 
-        List<Drone> availableDrones = allDrones.stream()
+        List<Drone> availableDrones = droneService.eligibility()
+                .eligible(reqs.getCapacity() - 0.01, reqs.isCooling(), reqs.isHeating(), Integer.MIN_VALUE)
+                .stream()
                 .filter(drone -> !activeDrones.containsKey(drone.getId()))
-                .filter(drone -> {
-                    Capability cap = drone.getCapability();
-                    if (cap == null) return false;
-                    if (cap.getCapacity() < reqs.getCapacity() - 0.01) return false;
-                    if (reqs.isCooling() && !cap.isCooling()) return false;
-                    if (reqs.isHeating() && !cap.isHeating()) return false;
-                    return true;
-                })
                 .toList();
 
         if (availableDrones.isEmpty()) {
@@ -337,43 +377,57 @@ public class DroneDispatchService {
                 List.of(actualDestination)
         );
         placeholderState.setStatus("PENDING");
-        activeDrones.put(selectedDrone.getId(), placeholderState);
+        markActive(selectedDrone.getId(), placeholderState);
         logger.info("Drone {} marked as unavailable (PENDING)", selectedDrone.getId());
 
-        broadcastSystemState();
+        String missionId;
+        try {
+            missionId = missionExecutor.submit("delivery " + deliveryId + ", drone " + selectedDrone.getId(),
+                    () -> runSingleDeliveryMission(selectedDrone, dispatch, base, actualDestination));
+        } catch (RejectedExecutionException e) {
+            markReleased(selectedDrone.getId());
+            return new DeliverySubmissionResult(false, deliveryId, null, "Mission queue is full, try again shortly");
+        }
 
-        startSingleDeliveryMission(selectedDrone, dispatch, base, actualDestination);
+        broadcastSystemState();
 
         return new DeliverySubmissionResult(
                 true,
                 deliveryId,
                 selectedDrone.getId(),
-                "Drone dispatched successfully"
+                "Drone dispatched successfully",
+                missionId
         );
     }
 
 
-    @Async
-    public void startBatchMission(Drone drone, List<MedDispatchRec> allDispatches, 
-                                Position base, String batchId, List<Position> deliveryDestinations) {
+    // Prepares the flight on a mission thread; the returned future completes once the clock has flown it.
+    private CompletableFuture<Void> runBatchMission(Drone drone, String planId, String plannedDroneId,
+                                                    List<Position> deliveryDestinations) {
         String droneId = drone.getId();
-        logger.info("Starting BATCH mission: Drone {} → {} deliveries", droneId, allDispatches.size());
+        BatchPlan plan = batchPlans.get(planId);
+        DronePathResult pathResult = plan != null ? plan.getDronePath(plannedDroneId) : null;
 
-        try {
-            CalcDeliveryResult result = plannerService.calcDeliveryPath(allDispatches);
+        if (pathResult == null || pathResult.getDeliveries() == null || pathResult.getDeliveries().isEmpty()) {
+            logger.error("No planned path for drone {} in {}", plannedDroneId, planId);
+            markReleased(droneId);
+            broadcastSystemState();
+            broadcastBatchFailed(plan != null ? plan.getBatchId() : planId, droneId, "Batch plan not found");
+            releaseBatchPlan(plan);
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("No planned path for drone " + plannedDroneId + " in " + planId));
+        }
 
-            if (result.getDronePaths() == null || result.getDronePaths().isEmpty()) {
-                logger.error("Pathfinding failed for batch {}", batchId);
-                activeDrones.remove(droneId);
-                broadcastSystemState();
-                broadcastBatchFailed(batchId, droneId, "Pathfinding failed");
-                return;
-            }
+        String batchId = plan.getBatchId();
+        List<DeliveryResult> deliveryResults = pathResult.getDeliveries();
+        logger.info("Starting BATCH mission: Drone {} → {} deliveries from {} (planned for {})",
+                droneId, deliveryResults.size(), planId, plannedDroneId);
 
-            DronePathResult pathResult = result.getDronePaths().get(0);
-            List<DeliveryResult> deliveryResults = pathResult.getDeliveries();
+        List<LngLat> completePath = new ArrayList<>();
+        List<Integer> hoverStepIndices = new ArrayList<>();
+        ActiveDroneState state;
 
-            List<LngLat> completePath = new ArrayList<>();
+        try {
             for (int i = 0; i < deliveryResults.size(); i++) {
                 List<LngLat> deliveryPath = deliveryResults.get(i).getFlightPath();
                 if (i == 0) {
@@ -386,7 +440,6 @@ public class DroneDispatchService {
             logger.info("Batch {} path: {} waypoints for {} deliveries",
                     batchId, completePath.size(), deliveryResults.size());
 
-            List<Integer> hoverStepIndices = new ArrayList<>();
             for (int i = 0; i < completePath.size() - 1; i++) {
                 LngLat current = completePath.get(i);
                 LngLat next = completePath.get(i + 1);
@@ -398,105 +451,135 @@ public class DroneDispatchService {
                 }
             }
 
-            ActiveDroneState state = new ActiveDroneState(
+            state = new ActiveDroneState(
                     droneId, -1, completePath, drone.getCapability().getCapacity(),
-                    0, batchId, allDispatches.size(), deliveryDestinations
+                    0, batchId, deliveryResults.size(), deliveryDestinations
             );
-
-            activeDrones.put(droneId, state);
+        } catch (RuntimeException e) {
+            logger.error("Batch {} failed", batchId, e);
+            markReleased(droneId);
             broadcastSystemState();
+            broadcastBatchFailed(batchId, droneId, "Mission failed: " + e.getMessage());
+            releaseBatchPlan(plan);
+            return CompletableFuture.failedFuture(e);
+        }
 
-            for (int i = 0; i < completePath.size(); i++) {
-                if (!activeDrones.containsKey(droneId)) {
-                    logger.warn("Drone {} mission cancelled", droneId);
-                    break;
-                }
+        markActive(droneId, state);
+        broadcastSystemState();
 
-                LngLat position = completePath.get(i);
-                state.setCurrentPosition(position);
-                state.setStepIndex(i);
+        CompletableFuture<Void> flightDone = new CompletableFuture<>();
+        simulationClock.schedule(batchStepMillis, new SimulatedFlight() {
+            private int stepIndex = 0;
+
+            @Override
+            public boolean step() {
+                if (stepIndex < completePath.size() && activeDrones.containsKey(droneId)) {
+                    int i = stepIndex++;
+                    state.setCurrentPosition(completePath.get(i));
+                    state.setStepIndex(i);
+
+                    int completedCount = 0;
+                    for (int hoverIdx : hoverStepIndices) {
+                        if (i > hoverIdx) {
+                            completedCount++;
+                        }
+                    }
 
-                int completedCount = 0;
-                for (int hoverIdx : hoverStepIndices) {
-                    if (i > hoverIdx) {
-                        completedCount++;
+                    state.setCurrentDeliveryIndex(completedCount);
+
+                    double progress = (double) i / completePath.size();
+                    if (progress < 0.1) {
+                        state.setStatus("DEPLOYING");
+                    } else if (progress < 0.2) {
+                        state.setStatus("FLYING");
+                    } else if (progress < 0.95) {
+                        state.setStatus("DELIVERING");
+                    } else {
+                        state.setStatus("RETURNING");
                     }
-                }
 
-                state.setCurrentDeliveryIndex(completedCount);
+                    broadcastBatchUpdate(state);
+                    return true;
+                }
 
-                double progress = (double) i / completePath.size();
-                if (progress < 0.1) {
-                    state.setStatus("DEPLOYING");
-                } else if (progress < 0.2) {
-                    state.setStatus("FLYING");
-                } else if (progress < 0.95) {
-                    state.setStatus("DELIVERING");
-                } else {
-                    state.setStatus("RETURNING");
+                if (stepIndex < completePath.size()) {
+                    logger.warn("Drone {} mission cancelled", droneId);
                 }
 
+                logger.info("Batch {} completed", batchId);
+                state.setStatus("COMPLETED");
+                state.setCurrentDeliveryIndex(deliveryResults.size());
                 broadcastBatchUpdate(state);
-                Thread.sleep(50);
-            }
 
-            logger.info("Batch {} completed", batchId);
-            state.setStatus("COMPLETED");
-            state.setCurrentDeliveryIndex(allDispatches.size());
-            broadcastBatchUpdate(state);
-            Thread.sleep(3000);
+                simulationClock.after(COMPLETED_LINGER_MILLIS, () -> {
+                    markReleased(droneId);
+                    fleetTelemetryService.ended(droneId);
+                    broadcastSystemState();
+                    broadcastBatchCompleted(batchId, droneId);
+                    releaseBatchPlan(plan);
+                    flightDone.complete(null);
+                });
+                return false;
+            }
 
-            activeDrones.remove(droneId);
-            activeBatches.remove(batchId);
-            broadcastSystemState();
-            broadcastBatchCompleted(batchId, droneId);
+            @Override
+            public void onError(RuntimeException e) {
+                logger.error("Batch {} failed", batchId, e);
+                markReleased(droneId);
+                fleetTelemetryService.ended(droneId);
+                broadcastSystemState();
+                broadcastBatchFailed(batchId, droneId, "Mission failed: " + e.getMessage());
+                releaseBatchPlan(plan);
+                flightDone.completeExceptionally(e);
+            }
+        });
+        return flightDone;
+    }
 
-        } catch (InterruptedException e) {
-            logger.warn("Batch {} interrupted", batchId);
-            Thread.currentThread().interrupt();
-            activeDrones.remove(droneId);
-            activeBatches.remove(batchId);
-            broadcastSystemState();
-        } catch (Exception e) {
-            logger.error("Batch {} failed", batchId, e);
-            activeDrones.remove(droneId);
-            activeBatches.remove(batchId);
-            broadcastSystemState();
-            broadcastBatchFailed(batchId, droneId, "Mission failed: " + e.getMessage());
+    // A plan is dropped once every drone it assigned has either flown its path or been skipped.
+    private void releaseBatchPlan(BatchPlan plan) {
+        if (plan != null && plan.missionFinished()) {
+            batchPlans.remove(plan.getPlanId());
+            logger.debug("Released {} for batch {}", plan.getPlanId(), plan.getBatchId());
         }
     }
 
-    @Async
-    public void startSingleDeliveryMission(Drone drone, MedDispatchRec dispatch, Position base, Position actualDestination) {
+    private CompletableFuture<Void> runSingleDeliveryMission(Drone drone, MedDispatchRec dispatch, Position base,
+                                                             Position actualDestination) {
         String droneId = drone.getId();
         int deliveryId = dispatch.getId();
         
         logger.info("Starting SINGLE delivery mission: Drone {} → Delivery {} at ({}, {})",
                 droneId, deliveryId, actualDestination.getLat(), actualDestination.getLng());
 
+        List<LngLat> flightPath;
+        ActiveDroneState state;
+
         try {
             CalcDeliveryResult result = plannerService.calcDeliveryPath(List.of(dispatch));
 
             if (result.getDronePaths() == null || result.getDronePaths().isEmpty()) {
                 logger.error("Pathfinding failed for delivery {}", deliveryId);
-                activeDrones.remove(droneId);
+                markReleased(droneId);
                 broadcastSystemState();
                 broadcastDeliveryFailed(droneId, deliveryId, "Pathfinding failed");
-                return;
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Pathfinding failed for delivery " + deliveryId));
             }
 
             DronePathResult pathResult = result.getDronePaths().get(0);
             if (pathResult.getDeliveries().isEmpty()) {
                 logger.error("No delivery path for delivery {}", deliveryId);
-                activeDrones.remove(droneId);
+                markReleased(droneId);
                 broadcastSystemState();
                 broadcastDeliveryFailed(droneId, deliveryId, "No valid path");
-                return;
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("No delivery path for delivery " + deliveryId));
             }
 
-            List<LngLat> flightPath = pathResult.getDeliveries().get(0).getFlightPath();
+            flightPath = pathResult.getDeliveries().get(0).getFlightPath();
 
-            ActiveDroneState state = new ActiveDroneState(
+            state = new ActiveDroneState(
                     droneId,
                     deliveryId,
                     flightPath,
@@ -506,58 +589,75 @@ public class DroneDispatchService {
                     1,
                     List.of(actualDestination)
             );
-
-            activeDrones.put(droneId, state);
+        } catch (RuntimeException e) {
+            logger.error("Drone {} mission failed with exception", droneId, e);
+            markReleased(droneId);
             broadcastSystemState();
+            broadcastDeliveryFailed(droneId, deliveryId, "Mission failed: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
 
-            logger.info("Drone {} starting flight with {} waypoints", droneId, flightPath.size());
+        markActive(droneId, state);
+        broadcastSystemState();
 
-            for (int i = 0; i < flightPath.size(); i++) {
-                if (!activeDrones.containsKey(droneId)) {
-                    logger.warn("Drone {} mission cancelled", droneId);
-                    break;
-                }
+        logger.info("Drone {} starting flight with {} waypoints", droneId, flightPath.size());
+
+        CompletableFuture<Void> flightDone = new CompletableFuture<>();
+        simulationClock.schedule(singleStepMillis, new SimulatedFlight() {
+            private int stepIndex = 0;
+
+            @Override
+            public boolean step() {
+                if (stepIndex < flightPath.size() && activeDrones.containsKey(droneId)) {
+                    int i = stepIndex++;
+                    state.setCurrentPosition(flightPath.get(i));
+                    state.setStepIndex(i);
+
+                    double progress = (double) i / flightPath.size();
+                    if (i >= flightPath.size() - 2) {
+                        state.setStatus("DELIVERING");
+                    } else if (progress > 0.55) {
+                        state.setStatus("RETURNING");
+                    } else if (progress < 0.1) {
+                        state.setStatus("DEPLOYING");
+                    } else {
+                        state.setStatus("FLYING");
+                    }
 
-                LngLat position = flightPath.get(i);
-                state.setCurrentPosition(position);
-                state.setStepIndex(i);
-
-                double progress = (double) i / flightPath.size();
-                if (i >= flightPath.size() - 2) {
-                    state.setStatus("DELIVERING");
-                } else if (progress > 0.55) {
-                    state.setStatus("RETURNING");
-                } else if (progress < 0.1) {
-                    state.setStatus("DEPLOYING");
-                } else {
-                    state.setStatus("FLYING");
+                    broadcastSingleUpdate(state);
+                    return true;
                 }
 
-                broadcastSingleUpdate(state);
-                Thread.sleep(100);
-            }
+                if (stepIndex < flightPath.size()) {
+                    logger.warn("Drone {} mission cancelled", droneId);
+                }
 
-            logger.info("Drone {} completed delivery {}", droneId, deliveryId);
+                logger.info("Drone {} completed delivery {}", droneId, deliveryId);
 
-            state.setStatus("COMPLETED");
-            broadcastSingleUpdate(state);
-            Thread.sleep(3000);
+                state.setStatus("COMPLETED");
+                broadcastSingleUpdate(state);
 
-            activeDrones.remove(droneId);
-            broadcastSystemState();
-            broadcastDeliveryCompleted(droneId, deliveryId);
+                simulationClock.after(COMPLETED_LINGER_MILLIS, () -> {
+                    markReleased(droneId);
+                    fleetTelemetryService.ended(droneId);
+                    broadcastSystemState();
+                    broadcastDeliveryCompleted(droneId, deliveryId);
+                    flightDone.complete(null);
+                });
+                return false;
+            }
 
-        } catch (InterruptedException e) {
-            logger.warn("Drone {} mission interrupted", droneId);
-            Thread.currentThread().interrupt();
-            activeDrones.remove(droneId);
-            broadcastSystemState();
-        } catch (Exception e) {
-            logger.error("Drone {} mission failed with exception", droneId, e);
-            activeDrones.remove(droneId);
-            broadcastSystemState();
-            broadcastDeliveryFailed(droneId, deliveryId, "Mission failed: " + e.getMessage());
-        }
+            @Override
+            public void onError(RuntimeException e) {
+                logger.error("Drone {} mission failed with exception", droneId, e);
+                markReleased(droneId);
+                fleetTelemetryService.ended(droneId);
+                broadcastSystemState();
+                broadcastDeliveryFailed(droneId, deliveryId, "Mission failed: " + e.getMessage());
+                flightDone.completeExceptionally(e);
+            }
+        });
+        return flightDone;
     }
 
     private Drone selectBestDrone(List<Drone> availableDrones, Position deliveryLocation, Position base) {
@@ -580,8 +680,7 @@ public class DroneDispatchService {
         return bestDrone;
     }
 
-    private Drone findAlternativeDrone(List<Drone> allDrones, Capability requiredCapability, 
-                                        List<MedDispatchRec> dispatches) {
+    private Drone findAlternativeDrone(Capability requiredCapability, List<MedDispatchRec> dispatches) {
         if (requiredCapability == null || dispatches == null || dispatches.isEmpty()) {
             return null;
         }
@@ -599,16 +698,11 @@ public class DroneDispatchService {
         logger.info("Looking for drone with: capacity >= {}, cooling={}, heating={}",
                 totalCapacityNeeded, needsCooling, needsHeating);
 
-        List<Drone> candidates = allDrones.stream()
+        // The planned path is flown as-is, so the replacement needs at least the same range.
+        List<Drone> candidates = droneService.eligibility()
+                .eligible(totalCapacityNeeded - 0.01, needsCooling, needsHeating, requiredCapability.getMaxMoves())
+                .stream()
                 .filter(drone -> !activeDrones.containsKey(drone.getId()))
-                .filter(drone -> {
-                    Capability cap = drone.getCapability();
-                    if (cap == null) return false;
-                    if (cap.getCapacity() < totalCapacityNeeded - 0.01) return false;
-                    if (needsCooling && !cap.isCooling()) return false;
-                    if (needsHeating && !cap.isHeating()) return false;
-                    return true;
-                })
                 .sorted(Comparator.comparingDouble((Drone d) -> {
                     double capacityDiff = Math.abs(d.getCapability().getCapacity() - totalCapacityNeeded);
                     double costFactor = d.getCapability().getCostPerMove() * 100;
@@ -636,7 +730,11 @@ public class DroneDispatchService {
         return Math.sqrt(dx * dx + dy * dy);
     }
 
+    // Every step goes into the tick's fleet frame; the per-drone topic is kept for clients that haven't moved over.
     private void broadcastBatchUpdate(ActiveDroneState state) {
+        fleetTelemetryService.record(state);
+        if (!perDroneUpdates) return;
+
         DroneUpdate update = new DroneUpdate();
         update.setDroneId(state.getDroneId());
         update.setDeliveryId(state.getDeliveryId());
@@ -687,6 +785,9 @@ public class DroneDispatchService {
     }
 
     private void broadcastSingleUpdate(ActiveDroneState state) {
+        fleetTelemetryService.record(state);
+        if (!perDroneUpdates) return;
+
         DroneUpdate update = new DroneUpdate();
         update.setDroneId(state.getDroneId());
         update.setDeliveryId(state.getDeliveryId());
@@ -724,10 +825,28 @@ public class DroneDispatchService {
         messagingTemplate.convertAndSend("/topic/drone-updates", update);
     }
 
+    // Every change to activeDrones goes through markActive/markReleased so the fleet status view stays in
+    // step; compute() keeps the two updates for one drone in order.
+    private void markActive(String droneId, ActiveDroneState state) {
+        activeDrones.compute(droneId, (id, previous) -> {
+            if (previous == null) {
+                fleetStatusService.droneActivated(id);
+            }
+            return state;
+        });
+    }
+
+    private void markReleased(String droneId) {
+        activeDrones.computeIfPresent(droneId, (id, previous) -> {
+            fleetStatusService.droneReleased(id);
+            return null;
+        });
+    }
+
     private void broadcastSystemState() {
         SystemStateUpdate state = new SystemStateUpdate();
-        state.setActiveDrones(activeDrones.size());
-        state.setAvailableDrones(countAvailableDrones());
+        state.setActiveDrones(fleetStatusService.getActiveDrones());
+        state.setAvailableDrones(fleetStatusService.getAvailableDrones());
         messagingTemplate.convertAndSend("/topic/system-state", state);
     }
 
@@ -765,14 +884,6 @@ public class DroneDispatchService {
         messagingTemplate.convertAndSend("/topic/delivery-status", update);
     }
 
-    private int countAvailableDrones() {
-        List<Drone> allDrones = droneService.fetchAllDrones();
-        return (int) allDrones.stream()
-                .filter(d -> d.getCapability() != null)
-                .filter(d -> !activeDrones.containsKey(d.getId()))
-                .count();
-    }
-
     private LngLat findDeliveryPoint(List<LngLat> flightPath) {
         if (flightPath == null || flightPath.size() < 2) {
             return null;
@@ -795,15 +906,27 @@ public class DroneDispatchService {
         return new HashMap<>(activeDrones);
     }
 
-    private static class BatchData {
-        String batchId;
-        String droneId;
-        int totalDeliveries;
+    private static class BatchPlan {
+        private final String planId;
+        private final String batchId;
+        private final Map<String, DronePathResult> dronePaths = new HashMap<>();
+        private final AtomicInteger pendingMissions;
 
-        public BatchData(String batchId, String droneId, int totalDeliveries) {
+        BatchPlan(String planId, String batchId, CalcDeliveryResult result) {
+            this.planId = planId;
             this.batchId = batchId;
-            this.droneId = droneId;
-            this.totalDeliveries = totalDeliveries;
+            for (DronePathResult pathResult : result.getDronePaths()) {
+                dronePaths.put(pathResult.getDroneId(), pathResult);
+            }
+            this.pendingMissions = new AtomicInteger(result.getDronePaths().size());
+        }
+
+        String getPlanId() { return planId; }
+        String getBatchId() { return batchId; }
+        DronePathResult getDronePath(String plannedDroneId) { return dronePaths.get(plannedDroneId); }
+
+        boolean missionFinished() {
+            return pendingMissions.decrementAndGet() <= 0;
         }
     }
 
@@ -881,19 +1004,27 @@ public class DroneDispatchService {
         private int deliveryId;
         private String droneId;
         private String message;
+        private String missionId;
 
         public DeliverySubmissionResult(boolean success, int deliveryId,
                                         String droneId, String message) {
+            this(success, deliveryId, droneId, message, null);
+        }
+
+        public DeliverySubmissionResult(boolean success, int deliveryId,
+                                        String droneId, String message, String missionId) {
             this.success = success;
             this.deliveryId = deliveryId;
             this.droneId = droneId;
             this.message = message;
+            this.missionId = missionId;
         }
 
         public boolean isSuccess() { return success; }
         public int getDeliveryId() { return deliveryId; }
         public String getDroneId() { return droneId; }
         public String getMessage() { return message; }
+        public String getMissionId() { return missionId; }
     }
 
     public static class DroneUpdate {
@@ -0,0 +1,156 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Capability;
+import com.example.coursework1.dto.Drone;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+// Drones grouped by a cooling/heating bitmask, each group sorted once by capacity and once by maxMoves. A
+// requirement query only visits the groups whose mask covers the required one, binary-searches both sort
+// orders and walks whichever tail is shorter, instead of testing every drone in the fleet. Results come back
+// in catalog order so callers that break ties by position behave as they did with a plain scan. Drones
+// without a capability are never eligible.
+final class DroneEligibilityIndex {
+
+    private static final int COOLING = 1;
+    private static final int HEATING = 2;
+
+    private final List<Drone> drones;
+    private final Group[] groups = new Group[4];
+
+    private DroneEligibilityIndex(List<Drone> drones) {
+        this.drones = drones;
+
+        List<List<Integer>> positionsByMask = new ArrayList<>();
+        for (int mask = 0; mask < 4; mask++) {
+            positionsByMask.add(new ArrayList<>());
+        }
+        for (int i = 0; i < drones.size(); i++) {
+            Drone drone = drones.get(i);
+            if (drone == null || drone.getCapability() == null) continue;
+            positionsByMask.get(maskOf(drone.getCapability())).add(i);
+        }
+        for (int mask = 0; mask < 4; mask++) {
+            groups[mask] = new Group(drones, positionsByMask.get(mask));
+        }
+    }
+
+    static DroneEligibilityIndex of(List<Drone> drones) {
+        return new DroneEligibilityIndex(drones);
+    }
+
+    private static int maskOf(boolean cooling, boolean heating) {
+        return (cooling ? COOLING : 0) | (heating ? HEATING : 0);
+    }
+
+    private static int maskOf(Capability capability) {
+        return maskOf(capability.isCooling(), capability.isHeating());
+    }
+
+    List<Drone> eligible(double minCapacity, boolean cooling, boolean heating, int minMoves) {
+        int required = maskOf(cooling, heating);
+        BitSet matches = new BitSet(drones.size());
+        for (int mask = 0; mask < 4; mask++) {
+            if ((mask & required) == required) {
+                groups[mask].collect(minCapacity, minMoves, matches);
+            }
+        }
+
+        List<Drone> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(drones.get(i));
+        }
+        return result;
+    }
+
+    List<Drone> getDrones() {
+        return drones;
+    }
+
+    boolean covers(List<Drone> drones) {
+        return this.drones == drones;
+    }
+
+    int size() {
+        return drones.size();
+    }
+
+    private static final class Group {
+        // Catalog positions in capacity order and in maxMoves order, with the sort keys alongside.
+        final int[] byCapacity;
+        final double[] capacities;
+        final int[] byMoves;
+        final int[] moves;
+        private final List<Drone> drones;
+
+        Group(List<Drone> drones, List<Integer> positions) {
+            this.drones = drones;
+            int n = positions.size();
+            List<Integer> sorted = new ArrayList<>(positions);
+
+            sorted.sort(Comparator.comparingDouble(i -> drones.get(i).getCapability().getCapacity()));
+            byCapacity = new int[n];
+            capacities = new double[n];
+            for (int k = 0; k < n; k++) {
+                byCapacity[k] = sorted.get(k);
+                capacities[k] = drones.get(byCapacity[k]).getCapability().getCapacity();
+            }
+
+            sorted.sort(Comparator.comparingInt(i -> drones.get(i).getCapability().getMaxMoves()));
+            byMoves = new int[n];
+            moves = new int[n];
+            for (int k = 0; k < n; k++) {
+                byMoves[k] = sorted.get(k);
+                moves[k] = drones.get(byMoves[k]).getCapability().getMaxMoves();
+            }
+        }
+
+        void collect(double minCapacity, int minMoves, BitSet matches) {
+            int capacityFrom = firstAtLeast(capacities, minCapacity);
+            int movesFrom = firstAtLeast(moves, minMoves);
+
+            if (byCapacity.length - capacityFrom <= byMoves.length - movesFrom) {
+                for (int k = capacityFrom; k < byCapacity.length; k++) {
+                    int position = byCapacity[k];
+                    if (movesOf(position) >= minMoves) matches.set(position);
+                }
+            } else {
+                for (int k = movesFrom; k < byMoves.length; k++) {
+                    int position = byMoves[k];
+                    if (capacityOf(position) >= minCapacity) matches.set(position);
+                }
+            }
+        }
+
+        private int movesOf(int position) {
+            return drones.get(position).getCapability().getMaxMoves();
+        }
+
+        private double capacityOf(int position) {
+            return drones.get(position).getCapability().getCapacity();
+        }
+    }
+
+    private static int firstAtLeast(double[] sorted, double value) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int firstAtLeast(int[] sorted, int value) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -7,12 +7,15 @@ import com.example.coursework1.repository.DroneRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class DroneService {
 
     private final DroneRepository droneRepository;
 
+    private volatile DroneEligibilityIndex eligibility;
+
     public DroneService(DroneRepository droneRepository) {
         this.droneRepository = droneRepository;
     }
@@ -25,12 +28,30 @@ public class DroneService {
         return droneRepository.fetchDronesForServicePoints();
     }
 
+    // Capability index over the current drone list, shared by every service that filters drones by
+    // requirements. The repository returns the same immutable list until its catalog is refreshed, so the
+    // index is only rebuilt when that list changes.
+    DroneEligibilityIndex eligibility() {
+        List<Drone> drones = fetchAllDrones();
+        DroneEligibilityIndex current = eligibility;
+        if (current != null && current.covers(drones)) {
+            return current;
+        }
+        current = DroneEligibilityIndex.of(drones);
+        eligibility = current;
+        return current;
+    }
+
     public Drone getDroneById(String id) {
-        return fetchAllDrones()
-                .stream()
-                .filter(d -> d.getId() != null && d.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return droneRepository.findDroneById(id);
+    }
+
+    public void addCatalogListener(Consumer<List<Drone>> listener) {
+        droneRepository.addCatalogListener(listener);
+    }
+
+    public void invalidateCatalog() {
+        droneRepository.invalidate();
     }
 
     public List<String> dronesWithCooling(boolean state) {
@@ -0,0 +1,109 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Viewport;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Uniform grid over lng/lat holding the current position of every drone on the map, keyed by its telemetry
+// index. A viewport query only visits the cells the viewport covers (or the occupied cells, if that's
+// fewer), so routing updates to a zoomed-in console costs the drones near it rather than the whole fleet.
+// Not thread-safe; FleetTelemetryService guards it with its own lock.
+class DroneSpatialIndex {
+
+    private final double cellDegrees;
+    private final Map<Long, Set<Integer>> cells = new HashMap<>();
+    private final Map<Integer, double[]> positions = new HashMap<>();
+    private final Map<Integer, Long> cellOf = new HashMap<>();
+
+    DroneSpatialIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    void update(int index, double lng, double lat) {
+        long cell = cellKey(column(lng), row(lat));
+        Long previous = cellOf.put(index, cell);
+        if (previous == null || previous != cell) {
+            if (previous != null) {
+                removeFromCell(previous, index);
+            }
+            cells.computeIfAbsent(cell, c -> new HashSet<>()).add(index);
+        }
+
+        double[] position = positions.get(index);
+        if (position == null) {
+            positions.put(index, new double[] {lng, lat});
+        } else {
+            position[0] = lng;
+            position[1] = lat;
+        }
+    }
+
+    void remove(int index) {
+        Long cell = cellOf.remove(index);
+        if (cell != null) {
+            removeFromCell(cell, index);
+        }
+        positions.remove(index);
+    }
+
+    Set<Integer> within(Viewport viewport) {
+        Set<Integer> result = new HashSet<>();
+        int minColumn = column(viewport.getMinLng());
+        int maxColumn = column(viewport.getMaxLng());
+        int minRow = row(viewport.getMinLat());
+        int maxRow = row(viewport.getMaxLat());
+
+        long coveredCells = (long) (maxColumn - minColumn + 1) * (maxRow - minRow + 1);
+        if (coveredCells > cells.size()) {
+            for (Set<Integer> occupants : cells.values()) {
+                addContained(occupants, viewport, result);
+            }
+            return result;
+        }
+
+        for (int column = minColumn; column <= maxColumn; column++) {
+            for (int row = minRow; row <= maxRow; row++) {
+                Set<Integer> occupants = cells.get(cellKey(column, row));
+                if (occupants != null) {
+                    addContained(occupants, viewport, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return positions.size();
+    }
+
+    private void addContained(Set<Integer> occupants, Viewport viewport, Set<Integer> result) {
+        for (int index : occupants) {
+            double[] position = positions.get(index);
+            if (viewport.contains(position[0], position[1])) {
+                result.add(index);
+            }
+        }
+    }
+
+    private void removeFromCell(long cell, int index) {
+        Set<Integer> occupants = cells.get(cell);
+        if (occupants != null && occupants.remove(index) && occupants.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    private int column(double lng) {
+        return (int) Math.floor(lng / cellDegrees);
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellDegrees);
+    }
+
+    private static long cellKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+}
@@ -0,0 +1,546 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Capability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Assigns dispatches to drone flights with adaptive large-neighbourhood search. Every flight leaves the base,
+// makes its deliveries and returns, and must fit the drone's capacity and maxMoves; a drone may fly as many
+// flights as it needs. The search minimises total flight cost (costInitial + costFinal + moves * costPerMove),
+// starting from a regret insertion and then repeatedly tearing out part of the plan and rebuilding it, with
+// the destroy/repair operators weighted by how often they have helped and worse plans accepted by simulated
+// annealing. It stops after planner.vrp.time-budget-ms or planner.vrp.max-iterations, whichever comes first.
+@Component
+public class FleetRouteOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetRouteOptimizer.class);
+
+    private static final double EPS = 1e-12;
+    private static final double UNASSIGNED_PENALTY = 1e6;
+    private static final int SEGMENT_ITERATIONS = 100;
+    private static final double REACTION = 0.2;
+    private static final double SCORE_NEW_BEST = 33;
+    private static final double SCORE_IMPROVED = 9;
+    private static final double SCORE_ACCEPTED = 13;
+    private static final double FINAL_TEMPERATURE_RATIO = 0.002;
+
+    private static final int DESTROY_RANDOM = 0;
+    private static final int DESTROY_WORST = 1;
+    private static final int DESTROY_RELATED = 2;
+    private static final int DESTROY_FLIGHT = 3;
+    private static final int REPAIR_GREEDY = 0;
+    private static final int REPAIR_REGRET = 1;
+
+    private final boolean enabled;
+    private final long timeBudgetNanos;
+    private final int maxIterations;
+    private final long seed;
+
+    public FleetRouteOptimizer(@Value("${planner.vrp.enabled:true}") boolean enabled,
+                               @Value("${planner.vrp.time-budget-ms:500}") long timeBudgetMillis,
+                               @Value("${planner.vrp.max-iterations:20000}") int maxIterations,
+                               @Value("${planner.vrp.seed:42}") long seed) {
+        this.enabled = enabled;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Moves a leg adds to a flight, or -1 if there is no path. Node 0 is the base and node i + 1 is job i.
+    interface LegCosts {
+        int moves(int from, int to);
+    }
+
+    static final class Vehicle {
+        final String droneId;
+        final double capacity;
+        final int maxMoves;
+        final double fixedCost;
+        final double costPerMove;
+
+        Vehicle(String droneId, Capability capability) {
+            this.droneId = droneId;
+            this.capacity = capability.getCapacity();
+            this.maxMoves = capability.getMaxMoves();
+            this.fixedCost = capability.getCostInitial() + capability.getCostFinal();
+            this.costPerMove = capability.getCostPerMove();
+        }
+    }
+
+    static final class Flight {
+        final int vehicle;
+        final List<Integer> jobs;
+        final int moves;
+        final double cost;
+
+        Flight(int vehicle, List<Integer> jobs, int moves, double cost) {
+            this.vehicle = vehicle;
+            this.jobs = List.copyOf(jobs);
+            this.moves = moves;
+            this.cost = cost;
+        }
+    }
+
+    static final class RoutePlan {
+        final List<Flight> flights;
+        final List<Integer> unassigned;
+        final double cost;
+        final int moves;
+        final int iterations;
+
+        RoutePlan(List<Flight> flights, List<Integer> unassigned, double cost, int moves, int iterations) {
+            this.flights = flights;
+            this.unassigned = unassigned;
+            this.cost = cost;
+            this.moves = moves;
+            this.iterations = iterations;
+        }
+    }
+
+    // canServe[v][j] says whether vehicle v may carry job j at all (requirements and availability).
+    RoutePlan optimize(double[] demands, List<Vehicle> vehicles, boolean[][] canServe, LegCosts legs) {
+        Search search = new Search(demands, vehicles, canServe, legs, new Random(seed));
+        return search.run();
+    }
+
+    private final class Search {
+        final double[] demands;
+        final List<Vehicle> vehicles;
+        final boolean[][] canServe;
+        final LegCosts legCosts;
+        final Random random;
+        final int[][] legMemo;
+
+        Search(double[] demands, List<Vehicle> vehicles, boolean[][] canServe, LegCosts legCosts, Random random) {
+            this.demands = demands;
+            this.vehicles = vehicles;
+            this.canServe = canServe;
+            this.legCosts = legCosts;
+            this.random = random;
+            this.legMemo = new int[demands.length + 1][demands.length + 1];
+            for (int[] row : legMemo) {
+                Arrays.fill(row, Integer.MIN_VALUE);
+            }
+        }
+
+        int leg(int from, int to) {
+            int moves = legMemo[from][to];
+            if (moves == Integer.MIN_VALUE) {
+                moves = legCosts.moves(from, to);
+                legMemo[from][to] = moves;
+            }
+            return moves;
+        }
+
+        RoutePlan run() {
+            long start = System.nanoTime();
+
+            Solution current = new Solution();
+            for (int job = 0; job < demands.length; job++) {
+                current.unassigned.add(job);
+            }
+            repair(REPAIR_REGRET, current);
+            Solution best = current.copy();
+
+            double[] destroyWeights = {1, 1, 1, 1};
+            double[] repairWeights = {1, 1};
+            double[] destroyScores = new double[4];
+            double[] repairScores = new double[2];
+            int[] destroyUses = new int[4];
+            int[] repairUses = new int[2];
+
+            double initialCost = best.flightCost();
+            double startTemperature = Math.max(best.flightCost() * 0.05, EPS) / Math.log(2);
+
+            int iterations = 0;
+            while (best.assignedCount() > 0 && iterations < maxIterations) {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= timeBudgetNanos) break;
+
+                double progress = Math.max((double) iterations / maxIterations, (double) elapsed / timeBudgetNanos);
+                double temperature = startTemperature * Math.pow(FINAL_TEMPERATURE_RATIO, progress);
+
+                int destroy = roulette(destroyWeights);
+                int repair = roulette(repairWeights);
+
+                Solution candidate = current.copy();
+                destroy(destroy, candidate);
+                repair(repair, candidate);
+
+                double score = 0;
+                double candidateCost = candidate.cost();
+                if (candidateCost < best.cost() - EPS) {
+                    best = candidate.copy();
+                    current = candidate;
+                    score = SCORE_NEW_BEST;
+                } else if (candidateCost < current.cost() - EPS) {
+                    current = candidate;
+                    score = SCORE_IMPROVED;
+                } else if (candidateCost > current.cost() + EPS
+                        && random.nextDouble() < Math.exp((current.cost() - candidateCost) / temperature)) {
+                    current = candidate;
+                    score = SCORE_ACCEPTED;
+                }
+
+                destroyScores[destroy] += score;
+                destroyUses[destroy]++;
+                repairScores[repair] += score;
+                repairUses[repair]++;
+
+                if (++iterations % SEGMENT_ITERATIONS == 0) {
+                    reweigh(destroyWeights, destroyScores, destroyUses);
+                    reweigh(repairWeights, repairScores, repairUses);
+                }
+            }
+
+            logger.info("Route optimizer: {} iterations in {}ms, cost {} -> {}, {} flights, {} unassigned",
+                    iterations, (System.nanoTime() - start) / 1_000_000, initialCost, best.flightCost(),
+                    best.routes.size(), best.unassigned.size());
+            return best.toPlan(iterations);
+        }
+
+        private void reweigh(double[] weights, double[] scores, int[] uses) {
+            for (int i = 0; i < weights.length; i++) {
+                if (uses[i] > 0) {
+                    weights[i] = weights[i] * (1 - REACTION) + REACTION * scores[i] / uses[i];
+                }
+                weights[i] = Math.max(weights[i], 0.05);
+                scores[i] = 0;
+                uses[i] = 0;
+            }
+        }
+
+        private int roulette(double[] weights) {
+            double total = 0;
+            for (double weight : weights) total += weight;
+            double pick = random.nextDouble() * total;
+            for (int i = 0; i < weights.length; i++) {
+                pick -= weights[i];
+                if (pick <= 0) return i;
+            }
+            return weights.length - 1;
+        }
+
+        // ---- destroy ----
+
+        private void destroy(int operator, Solution solution) {
+            int assigned = solution.assignedCount();
+            if (assigned == 0) return;
+            int limit = Math.max(1, Math.min(assigned, (int) Math.ceil(0.4 * assigned)));
+            int count = 1 + random.nextInt(limit);
+
+            switch (operator) {
+                case DESTROY_RANDOM -> removeRandom(solution, count);
+                case DESTROY_WORST -> removeWorst(solution, count);
+                case DESTROY_RELATED -> removeRelated(solution, count);
+                case DESTROY_FLIGHT -> removeFlight(solution);
+            }
+        }
+
+        private void removeRandom(Solution solution, int count) {
+            for (int i = 0; i < count && solution.assignedCount() > 0; i++) {
+                Route route = solution.routes.get(random.nextInt(solution.routes.size()));
+                solution.remove(route, route.jobs.get(random.nextInt(route.jobs.size())));
+            }
+        }
+
+        // Takes out the jobs whose removal saves the most, with some randomness so it doesn't always pick the
+        // same ones.
+        private void removeWorst(Solution solution, int count) {
+            for (int i = 0; i < count && solution.assignedCount() > 0; i++) {
+                List<double[]> savings = new ArrayList<>();
+                for (int r = 0; r < solution.routes.size(); r++) {
+                    Route route = solution.routes.get(r);
+                    for (int position = 0; position < route.jobs.size(); position++) {
+                        savings.add(new double[] {removalSaving(route, position), r, position});
+                    }
+                }
+                savings.sort(Comparator.comparingDouble((double[] s) -> -s[0]));
+                double[] pick = savings.get((int) (Math.pow(random.nextDouble(), 3) * savings.size()));
+                Route route = solution.routes.get((int) pick[1]);
+                solution.remove(route, route.jobs.get((int) pick[2]));
+            }
+        }
+
+        // Takes out a random job and the jobs closest to it, so they can be regrouped into different flights.
+        private void removeRelated(Solution solution, int count) {
+            List<Integer> assigned = solution.assignedJobs();
+            int seedJob = assigned.get(random.nextInt(assigned.size()));
+            assigned.sort(Comparator.comparingDouble(job -> relatedness(seedJob, job)));
+            for (int i = 0; i < count && i < assigned.size(); i++) {
+                int job = assigned.get(i);
+                Route route = solution.routeOf(job);
+                if (route != null) solution.remove(route, job);
+            }
+        }
+
+        private void removeFlight(Solution solution) {
+            solution.dissolve(solution.routes.get(random.nextInt(solution.routes.size())));
+        }
+
+        private double relatedness(int a, int b) {
+            if (a == b) return -1;
+            int there = leg(a + 1, b + 1), back = leg(b + 1, a + 1);
+            return there < 0 || back < 0 ? Double.MAX_VALUE : there + back;
+        }
+
+        private double removalSaving(Route route, int position) {
+            Vehicle vehicle = vehicles.get(route.vehicle);
+            if (route.jobs.size() == 1) {
+                return vehicle.fixedCost + route.moves * vehicle.costPerMove;
+            }
+            int prev = position == 0 ? 0 : route.jobs.get(position - 1) + 1;
+            int job = route.jobs.get(position) + 1;
+            int next = position == route.jobs.size() - 1 ? 0 : route.jobs.get(position + 1) + 1;
+            int bypass = leg(prev, next);
+            if (bypass < 0) return 0;
+            return (leg(prev, job) + leg(job, next) - bypass) * vehicle.costPerMove;
+        }
+
+        // ---- repair ----
+
+        private void repair(int operator, Solution solution) {
+            while (!solution.unassigned.isEmpty()) {
+                Insertion chosen = null;
+                double chosenKey = Double.NEGATIVE_INFINITY;
+
+                for (int job : solution.unassigned) {
+                    Insertion[] options = bestTwoInsertions(solution, job);
+                    Insertion first = options[0];
+                    if (first == null) continue;
+
+                    // Greedy takes the cheapest insertion; regret takes the job that would lose most by waiting.
+                    double key;
+                    if (operator == REPAIR_GREEDY) {
+                        key = -first.cost;
+                    } else {
+                        double second = options[1] != null ? options[1].cost : UNASSIGNED_PENALTY;
+                        key = second - first.cost;
+                    }
+                    if (chosen == null || key > chosenKey + EPS
+                            || (Math.abs(key - chosenKey) <= EPS && first.cost < chosen.cost)) {
+                        chosen = first;
+                        chosenKey = key;
+                    }
+                }
+
+                if (chosen == null) return;
+                solution.apply(chosen);
+            }
+        }
+
+        // The cheapest and second-cheapest places to put a job, counting a new flight on each vehicle as a place.
+        private Insertion[] bestTwoInsertions(Solution solution, int job) {
+            Insertion[] best = new Insertion[2];
+            int node = job + 1;
+            double demand = demands[job];
+
+            for (int r = 0; r < solution.routes.size(); r++) {
+                Route route = solution.routes.get(r);
+                Vehicle vehicle = vehicles.get(route.vehicle);
+                if (!canServe[route.vehicle][job] || route.load + demand > vehicle.capacity + EPS) continue;
+
+                for (int position = 0; position <= route.jobs.size(); position++) {
+                    int prev = position == 0 ? 0 : route.jobs.get(position - 1) + 1;
+                    int next = position == route.jobs.size() ? 0 : route.jobs.get(position) + 1;
+                    int there = leg(prev, node);
+                    if (there < 0) continue;
+                    int onward = leg(node, next);
+                    if (onward < 0) continue;
+
+                    int moves = route.moves - leg(prev, next) + there + onward;
+                    if (moves > vehicle.maxMoves) continue;
+                    offer(best, new Insertion(job, route, route.vehicle, position, moves,
+                            (moves - route.moves) * vehicle.costPerMove));
+                }
+            }
+
+            int out = leg(0, node);
+            int back = out < 0 ? -1 : leg(node, 0);
+            if (back >= 0) {
+                for (int v = 0; v < vehicles.size(); v++) {
+                    Vehicle vehicle = vehicles.get(v);
+                    if (!canServe[v][job] || demand > vehicle.capacity + EPS || out + back > vehicle.maxMoves) continue;
+                    offer(best, new Insertion(job, null, v, 0, out + back,
+                            vehicle.fixedCost + (out + back) * vehicle.costPerMove));
+                }
+            }
+            return best;
+        }
+
+        private void offer(Insertion[] best, Insertion option) {
+            if (best[0] == null || option.cost < best[0].cost) {
+                best[1] = best[0];
+                best[0] = option;
+            } else if (best[1] == null || option.cost < best[1].cost) {
+                best[1] = option;
+            }
+        }
+
+        // ---- solution ----
+
+        private final class Route {
+            final int vehicle;
+            final List<Integer> jobs = new ArrayList<>();
+            double load;
+            int moves;
+
+            Route(int vehicle) {
+                this.vehicle = vehicle;
+            }
+
+            Route copy() {
+                Route copy = new Route(vehicle);
+                copy.jobs.addAll(jobs);
+                copy.load = load;
+                copy.moves = moves;
+                return copy;
+            }
+
+            double cost() {
+                Vehicle v = vehicles.get(vehicle);
+                return v.fixedCost + moves * v.costPerMove;
+            }
+
+            void recompute() {
+                int total = 0;
+                int prev = 0;
+                double carried = 0;
+                for (int job : jobs) {
+                    total += leg(prev, job + 1);
+                    carried += demands[job];
+                    prev = job + 1;
+                }
+                moves = total + leg(prev, 0);
+                load = carried;
+            }
+        }
+
+        private final class Insertion {
+            final int job;
+            final Route route;
+            final int vehicle;
+            final int position;
+            final int moves;
+            final double cost;
+
+            Insertion(int job, Route route, int vehicle, int position, int moves, double cost) {
+                this.job = job;
+                this.route = route;
+                this.vehicle = vehicle;
+                this.position = position;
+                this.moves = moves;
+                this.cost = cost;
+            }
+        }
+
+        private final class Solution {
+            final List<Route> routes = new ArrayList<>();
+            final List<Integer> unassigned = new ArrayList<>();
+
+            Solution copy() {
+                Solution copy = new Solution();
+                for (Route route : routes) {
+                    copy.routes.add(route.copy());
+                }
+                copy.unassigned.addAll(unassigned);
+                return copy;
+            }
+
+            int assignedCount() {
+                return demands.length - unassigned.size();
+            }
+
+            List<Integer> assignedJobs() {
+                List<Integer> jobs = new ArrayList<>();
+                for (Route route : routes) {
+                    jobs.addAll(route.jobs);
+                }
+                return jobs;
+            }
+
+            Route routeOf(int job) {
+                for (Route route : routes) {
+                    if (route.jobs.contains(job)) return route;
+                }
+                return null;
+            }
+
+            double flightCost() {
+                double total = 0;
+                for (Route route : routes) {
+                    total += route.cost();
+                }
+                return total;
+            }
+
+            double cost() {
+                return flightCost() + unassigned.size() * UNASSIGNED_PENALTY;
+            }
+
+            // Dropping a stop normally shortens a flight, but the bypass leg may not exist (e.g. a restricted
+            // area in the way) or may be longer than the detour; then the whole flight goes back to be re-inserted.
+            void remove(Route route, int job) {
+                int position = route.jobs.indexOf(job);
+                route.jobs.remove(position);
+                unassigned.add(job);
+                if (route.jobs.isEmpty()) {
+                    routes.remove(route);
+                    return;
+                }
+
+                int prev = position == 0 ? 0 : route.jobs.get(position - 1) + 1;
+                int next = position == route.jobs.size() ? 0 : route.jobs.get(position) + 1;
+                if (leg(prev, next) >= 0) {
+                    route.recompute();
+                    if (route.moves <= vehicles.get(route.vehicle).maxMoves) return;
+                }
+                dissolve(route);
+            }
+
+            void dissolve(Route route) {
+                routes.remove(route);
+                unassigned.addAll(route.jobs);
+            }
+
+            void apply(Insertion insertion) {
+                Route route = insertion.route;
+                if (route == null) {
+                    route = new Route(insertion.vehicle);
+                    routes.add(route);
+                }
+                route.jobs.add(insertion.position, insertion.job);
+                route.load += demands[insertion.job];
+                route.moves = insertion.moves;
+                unassigned.remove(Integer.valueOf(insertion.job));
+            }
+
+            RoutePlan toPlan(int iterations) {
+                List<Route> ordered = new ArrayList<>(routes);
+                ordered.sort(Comparator.comparingInt(route -> route.vehicle));
+
+                List<Flight> flights = new ArrayList<>();
+                int totalMoves = 0;
+                for (Route route : ordered) {
+                    flights.add(new Flight(route.vehicle, route.jobs, route.moves, route.cost()));
+                    totalMoves += route.moves;
+                }
+                List<Integer> left = new ArrayList<>(unassigned);
+                left.sort(null);
+                return new RoutePlan(flights, left, flightCost(), totalMoves, iterations);
+            }
+        }
+    }
+}
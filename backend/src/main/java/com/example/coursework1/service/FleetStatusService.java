@@ -0,0 +1,151 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Drone;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Live view of how many drones are flying and which ones are free, kept up to date as drones enter and
+// leave DroneDispatchService's active set. The drone catalog is pushed in by DroneRepository whenever it
+// fetches the list, and only rebuilt when it actually differs from the one already held, so status queries
+// and system-state broadcasts are plain counter reads with no call to the ILP service.
+@Service
+public class FleetStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetStatusService.class);
+
+    private final DroneService droneService;
+
+    private final Object lock = new Object();
+    private volatile Map<String, Drone> catalog;
+    private volatile List<String> catalogSignature = List.of();
+    private final Set<String> activeDroneIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> availableDroneIds = ConcurrentHashMap.newKeySet();
+
+    public FleetStatusService(DroneService droneService, MeterRegistry meterRegistry) {
+        this.droneService = droneService;
+
+        Gauge.builder("fleet.drones.active", activeDroneIds, Set::size)
+                .description("Drones currently assigned to a mission")
+                .register(meterRegistry);
+        Gauge.builder("fleet.drones.available", availableDroneIds, Set::size)
+                .description("Capable drones not assigned to a mission")
+                .register(meterRegistry);
+    }
+
+    // A background catalog refresh can call updateCatalog() at any moment, so the listener is only
+    // registered once this service is fully constructed.
+    @PostConstruct
+    void start() {
+        droneService.addCatalogListener(this::updateCatalog);
+    }
+
+    public void droneActivated(String droneId) {
+        synchronized (lock) {
+            activeDroneIds.add(droneId);
+            availableDroneIds.remove(droneId);
+        }
+    }
+
+    public void droneReleased(String droneId) {
+        synchronized (lock) {
+            activeDroneIds.remove(droneId);
+            Map<String, Drone> current = catalog;
+            if (current != null && isCapable(current.get(droneId))) {
+                availableDroneIds.add(droneId);
+            }
+        }
+    }
+
+    // The available set is only rebuilt when the ids (or which of them are capable) changed; otherwise just
+    // the drone details are swapped.
+    public void updateCatalog(List<Drone> drones) {
+        Map<String, Drone> rebuilt = new LinkedHashMap<>();
+        for (Drone drone : drones) {
+            if (drone.getId() != null) {
+                rebuilt.put(drone.getId(), drone);
+            }
+        }
+        List<String> signature = signatureOf(drones);
+
+        synchronized (lock) {
+            if (catalog != null && signature.equals(catalogSignature)) {
+                catalog = rebuilt;
+                return;
+            }
+
+            availableDroneIds.clear();
+            rebuilt.forEach((id, drone) -> {
+                if (isCapable(drone) && !activeDroneIds.contains(id)) {
+                    availableDroneIds.add(id);
+                }
+            });
+            catalog = rebuilt;
+            catalogSignature = signature;
+        }
+        logger.info("Fleet catalog updated: {} drones, {} available", drones.size(), availableDroneIds.size());
+    }
+
+    public void refresh() {
+        updateCatalog(droneService.fetchAllDrones());
+    }
+
+    public int getActiveDrones() {
+        return activeDroneIds.size();
+    }
+
+    public int getAvailableDrones() {
+        ensureCatalog();
+        return availableDroneIds.size();
+    }
+
+    public int getTotalDrones() {
+        ensureCatalog();
+        return catalog.size();
+    }
+
+    public List<Drone> getAvailableDroneList() {
+        ensureCatalog();
+        Map<String, Drone> current = catalog;
+        List<Drone> available = new ArrayList<>(availableDroneIds.size());
+        for (Drone drone : current.values()) {
+            if (availableDroneIds.contains(drone.getId())) {
+                available.add(drone);
+            }
+        }
+        return available;
+    }
+
+    // The catalog is fetched on first use; after that it only changes through updateCatalog(). A failed fetch
+    // comes back as an empty list, so an empty catalog is fetched again on the next query rather than held
+    // until something else reloads the drones.
+    private void ensureCatalog() {
+        Map<String, Drone> current = catalog;
+        if (current == null || current.isEmpty()) {
+            refresh();
+        }
+    }
+
+    private static boolean isCapable(Drone drone) {
+        return drone != null && drone.getCapability() != null;
+    }
+
+    // Ids in order plus whether each has a capability; enough to tell whether availability could change.
+    private static List<String> signatureOf(List<Drone> drones) {
+        List<String> signature = new ArrayList<>(drones.size());
+        for (Drone drone : drones) {
+            signature.add(drone.getId() + (drone.getCapability() != null ? "" : "!"));
+        }
+        return signature;
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.dto.Viewport;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.service.DroneDispatchService.ActiveDroneState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Bundles every drone that changed during a simulation tick into one fleet frame, so broker traffic grows
+// with the tick rate instead of with fleet size times tick rate. Frames are delta-encoded: a drone's route
+// and static fields go out once in a keyframe, after which each step is just (drone index, step index,
+// status code) and clients rebuild the position from the cached route. A client that (re)subscribes gets
+// the current keyframes from snapshot(). Frames are handed to listeners (the per-subscriber fan-out) rather
+// than broadcast on a broker topic, so each subscriber can be flow-controlled separately. A spatial index of
+// current drone positions lets filter() narrow a frame to one subscriber's viewport.
+@Service
+public class FleetTelemetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetTelemetryService.class);
+
+    // Index in this list is the status code sent in updates.
+    public static final List<String> STATUS_CODES = List.of(
+            "PENDING", "DEPLOYING", "FLYING", "DELIVERING", "RETURNING", "COMPLETED");
+
+    private final List<Consumer<FleetFrame>> frameListeners = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+    private final Map<String, Integer> droneIndices = new HashMap<>();
+    private final Map<Integer, Track> tracks = new LinkedHashMap<>();
+    private final List<Keyframe> pendingKeyframes = new ArrayList<>();
+    private final Map<Integer, int[]> pendingUpdates = new LinkedHashMap<>();
+    private final List<Integer> pendingRemovals = new ArrayList<>();
+    private final DroneSpatialIndex spatialIndex;
+    private final SimulationClock simulationClock;
+    private long frameSequence;
+    private int routeVersions;
+
+    private final Counter framesSent;
+    private final DistributionSummary dronesPerFrame;
+    private final Counter keyframesSent;
+
+    public FleetTelemetryService(SimulationClock simulationClock,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${telemetry.viewport.cell-degrees:0.002}") double cellDegrees) {
+        this.simulationClock = simulationClock;
+        this.spatialIndex = new DroneSpatialIndex(cellDegrees);
+        this.framesSent = Counter.builder("telemetry.frames")
+                .description("Fleet frames published")
+                .register(meterRegistry);
+        this.dronesPerFrame = DistributionSummary.builder("telemetry.frame.drones")
+                .description("Drone updates carried per fleet frame")
+                .register(meterRegistry);
+        this.keyframesSent = Counter.builder("telemetry.keyframes")
+                .description("Route keyframes published")
+                .register(meterRegistry);
+    }
+
+    // The clock's thread calls flush() on every tick, so it only gets hold of this service once the
+    // constructor has finished.
+    @PostConstruct
+    void start() {
+        simulationClock.addTickListener(this::flush);
+    }
+
+    public void addFrameListener(Consumer<FleetFrame> listener) {
+        frameListeners.add(listener);
+    }
+
+    public void record(ActiveDroneState state) {
+        synchronized (lock) {
+            int index = droneIndices.computeIfAbsent(state.getDroneId(), id -> droneIndices.size());
+
+            Track track = tracks.get(index);
+            if (track == null || track.route != state.getFlightPath()) {
+                Keyframe keyframe = Keyframe.of(index, ++routeVersions, state);
+                tracks.put(index, new Track(state.getFlightPath(), keyframe));
+                pendingKeyframes.removeIf(k -> k.index == index);
+                pendingKeyframes.add(keyframe);
+                track = tracks.get(index);
+            }
+
+            track.step = state.getStepIndex();
+            track.status = statusCode(state.getStatus());
+            pendingUpdates.put(index, new int[] {track.step, track.status});
+
+            List<LngLat> path = state.getFlightPath();
+            LngLat position = path.get(Math.min(Math.max(track.step, 0), path.size() - 1));
+            spatialIndex.update(index, position.getLng(), position.getLat());
+        }
+    }
+
+    // The drone has left the map; clients can drop its cached route.
+    public void ended(String droneId) {
+        synchronized (lock) {
+            Integer index = droneIndices.get(droneId);
+            if (index == null || tracks.remove(index) == null) return;
+            spatialIndex.remove(index);
+            pendingKeyframes.removeIf(k -> k.index == index);
+            pendingUpdates.remove(index);
+            pendingRemovals.add(index);
+        }
+    }
+
+    // Keyframes of every drone currently on the map, for clients joining or resubscribing mid-flight.
+    public KeyframeSnapshot snapshot() {
+        synchronized (lock) {
+            List<Keyframe> keyframes = new ArrayList<>(tracks.size());
+            for (Track track : tracks.values()) {
+                keyframes.add(track.keyframe);
+            }
+            return new KeyframeSnapshot(frameSequence, STATUS_CODES, keyframes);
+        }
+    }
+
+    // Narrows a published frame to the drones inside the viewer's viewport. Drones entering it get their
+    // keyframe (unless the viewer already has that route), and drones leaving it are sent as removals. Only the
+    // drones in view and the routes the viewer already holds are visited, never the rest of the frame.
+    public FleetFrame filter(FleetFrame frame, ViewportFilter viewer) {
+        synchronized (lock) {
+            Set<Integer> visible = spatialIndex.within(viewer.viewport);
+            List<Keyframe> keyframes = new ArrayList<>();
+            List<Integer> removed = new ArrayList<>();
+
+            for (int index : frame.getRemoved()) {
+                if (viewer.sentRoutes.remove(index) != null) {
+                    removed.add(index);
+                }
+            }
+            viewer.sentRoutes.keySet().removeIf(index -> {
+                if (visible.contains(index)) return false;
+                removed.add(index);
+                return true;
+            });
+
+            int[] triples = frame.getUpdates();
+            int[] updates = new int[Math.min(visible.size() * 3, triples.length)];
+            int length = 0;
+            for (int index : visible) {
+                int offset = frame.updateOffset(index);
+                Track track = tracks.get(index);
+                if (offset < 0 || track == null) continue;
+                sendKeyframeIfNeeded(viewer, index, track, keyframes);
+                updates[length++] = index;
+                updates[length++] = triples[offset + 1];
+                updates[length++] = triples[offset + 2];
+            }
+
+            return new FleetFrame(frame.getSeq(), frame.getTimestamp(), keyframes,
+                    Arrays.copyOf(updates, length), removed.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    // Narrows a viewer that was following the whole fleet, and so already holds every current route, to a
+    // viewport. Only the drones outside it are sent, as removals.
+    public FleetFrame narrowFromFleet(ViewportFilter viewer, Viewport viewport) {
+        synchronized (lock) {
+            tracks.forEach((index, track) -> viewer.sentRoutes.put(index, track.keyframe.getRouteVersion()));
+            return refocus(viewer, viewport);
+        }
+    }
+
+    // Moves the viewer to a new viewport and returns the frame that brings it up to date: keyframes and latest
+    // steps for drones now inside, removals for drones it had that are now outside. A new ViewportFilter holds
+    // no routes, so it gets the keyframe of every drone in view.
+    public FleetFrame refocus(ViewportFilter viewer, Viewport viewport) {
+        synchronized (lock) {
+            viewer.viewport = viewport;
+            Set<Integer> visible = spatialIndex.within(viewport);
+
+            List<Integer> removed = new ArrayList<>();
+            viewer.sentRoutes.keySet().removeIf(index -> {
+                if (visible.contains(index)) return false;
+                removed.add(index);
+                return true;
+            });
+
+            List<Keyframe> keyframes = new ArrayList<>();
+            int[] updates = new int[visible.size() * 3];
+            int length = 0;
+            for (int index : visible) {
+                Track track = tracks.get(index);
+                sendKeyframeIfNeeded(viewer, index, track, keyframes);
+                updates[length++] = index;
+                updates[length++] = track.step;
+                updates[length++] = track.status;
+            }
+
+            return new FleetFrame(frameSequence, System.currentTimeMillis(), keyframes, updates,
+                    removed.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    private static void sendKeyframeIfNeeded(ViewportFilter viewer, int index, Track track, List<Keyframe> keyframes) {
+        int routeVersion = track.keyframe.getRouteVersion();
+        if (!Objects.equals(viewer.sentRoutes.put(index, routeVersion), routeVersion)) {
+            keyframes.add(track.keyframe);
+        }
+    }
+
+    void flush() {
+        FleetFrame frame;
+        synchronized (lock) {
+            if (pendingKeyframes.isEmpty() && pendingUpdates.isEmpty() && pendingRemovals.isEmpty()) return;
+
+            int[] updates = new int[pendingUpdates.size() * 3];
+            int i = 0;
+            for (Map.Entry<Integer, int[]> entry : pendingUpdates.entrySet()) {
+                updates[i++] = entry.getKey();
+                updates[i++] = entry.getValue()[0];
+                updates[i++] = entry.getValue()[1];
+            }
+            int[] removed = pendingRemovals.stream().mapToInt(Integer::intValue).toArray();
+
+            frame = new FleetFrame(++frameSequence, System.currentTimeMillis(),
+                    new ArrayList<>(pendingKeyframes), updates, removed);
+            pendingKeyframes.clear();
+            pendingUpdates.clear();
+            pendingRemovals.clear();
+        }
+
+        for (Consumer<FleetFrame> listener : frameListeners) {
+            listener.accept(frame);
+        }
+        framesSent.increment();
+        keyframesSent.increment(frame.getKeyframes().size());
+        dronesPerFrame.record(frame.getUpdates().length / 3.0);
+        logger.trace("Fleet frame {}: {} keyframes, {} updates, {} removed", frame.getSeq(),
+                frame.getKeyframes().size(), frame.getUpdates().length / 3, frame.getRemoved().length);
+    }
+
+    private static int statusCode(String status) {
+        int code = STATUS_CODES.indexOf(status);
+        return code >= 0 ? code : 0;
+    }
+
+    private static final class Track {
+        private final List<LngLat> route;
+        private final Keyframe keyframe;
+        private int step;
+        private int status;
+
+        Track(List<LngLat> route, Keyframe keyframe) {
+            this.route = route;
+            this.keyframe = keyframe;
+        }
+    }
+
+    // One subscriber's viewport and the route version of every drone it currently holds.
+    public static class ViewportFilter {
+        private Viewport viewport;
+        private final Map<Integer, Integer> sentRoutes = new HashMap<>();
+
+        public Viewport getViewport() { return viewport; }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class FleetFrame {
+        private final long seq;
+        private final long timestamp;
+        private final List<Keyframe> keyframes;
+        private final int[] updates;
+        private final int[] removed;
+        private Map<Integer, Integer> updateOffsets;
+
+        FleetFrame(long seq, long timestamp, List<Keyframe> keyframes, int[] updates, int[] removed) {
+            this.seq = seq;
+            this.timestamp = timestamp;
+            this.keyframes = keyframes;
+            this.updates = updates;
+            this.removed = removed;
+        }
+
+        public long getSeq() { return seq; }
+        public long getTimestamp() { return timestamp; }
+        public List<Keyframe> getKeyframes() { return keyframes; }
+
+        // Flattened (drone index, step index, status code) triples.
+        public int[] getUpdates() { return updates; }
+        public int[] getRemoved() { return removed; }
+
+        // Position of a drone's triple in updates, or -1 if the frame has none for it. The lookup is built the
+        // first time a viewer filters the frame and reused for the rest; filter() calls this under its lock.
+        int updateOffset(int index) {
+            if (updateOffsets == null) {
+                updateOffsets = new HashMap<>(updates.length / 2);
+                for (int i = 0; i + 2 < updates.length; i += 3) {
+                    updateOffsets.put(updates[i], i);
+                }
+            }
+            return updateOffsets.getOrDefault(index, -1);
+        }
+    }
+
+    public static class KeyframeSnapshot {
+        private final long seq;
+        private final List<String> statusCodes;
+        private final List<Keyframe> keyframes;
+
+        KeyframeSnapshot(long seq, List<String> statusCodes, List<Keyframe> keyframes) {
+            this.seq = seq;
+            this.statusCodes = statusCodes;
+            this.keyframes = keyframes;
+        }
+
+        public long getSeq() { return seq; }
+        public List<String> getStatusCodes() { return statusCodes; }
+        public List<Keyframe> getKeyframes() { return keyframes; }
+    }
+
+    // Route and destinations are flat [lat, lng, lat, lng, ...] arrays; deliverySteps are the hover steps,
+    // so the current delivery is the number of them already passed.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Keyframe {
+        private int index;
+        private int routeVersion;
+        private String droneId;
+        private int deliveryId;
+        private String batchId;
+        private int totalDeliveries;
+        private double totalCapacity;
+        private double capacityUsed;
+        private double[] route;
+        private int[] deliverySteps;
+        private double[] destinations;
+
+        static Keyframe of(int index, int routeVersion, ActiveDroneState state) {
+            Keyframe keyframe = new Keyframe();
+            keyframe.index = index;
+            keyframe.routeVersion = routeVersion;
+            keyframe.droneId = state.getDroneId();
+            keyframe.deliveryId = state.getDeliveryId();
+            keyframe.batchId = state.getBatchId();
+            keyframe.totalDeliveries = state.getTotalDeliveriesInBatch();
+            keyframe.totalCapacity = state.getTotalCapacity();
+            keyframe.capacityUsed = state.getCapacityUsed();
+
+            List<LngLat> path = state.getFlightPath();
+            keyframe.route = new double[path.size() * 2];
+            List<Integer> hovers = new ArrayList<>();
+            for (int i = 0; i < path.size(); i++) {
+                LngLat point = path.get(i);
+                keyframe.route[2 * i] = point.getLat();
+                keyframe.route[2 * i + 1] = point.getLng();
+                if (i > 0 && point.getLat() == path.get(i - 1).getLat() && point.getLng() == path.get(i - 1).getLng()) {
+                    hovers.add(i - 1);
+                }
+            }
+            keyframe.deliverySteps = hovers.stream().mapToInt(Integer::intValue).toArray();
+
+            List<Position> destinations = state.getDeliveryDestinations();
+            if (destinations != null && !destinations.isEmpty()) {
+                keyframe.destinations = new double[destinations.size() * 2];
+                for (int i = 0; i < destinations.size(); i++) {
+                    keyframe.destinations[2 * i] = destinations.get(i).getLat();
+                    keyframe.destinations[2 * i + 1] = destinations.get(i).getLng();
+                }
+            }
+            return keyframe;
+        }
+
+        public int getIndex() { return index; }
+        public int getRouteVersion() { return routeVersion; }
+        public String getDroneId() { return droneId; }
+        public int getDeliveryId() { return deliveryId; }
+        public String getBatchId() { return batchId; }
+        public int getTotalDeliveries() { return totalDeliveries; }
+        public double getTotalCapacity() { return totalCapacity; }
+        public double getCapacityUsed() { return capacityUsed; }
+        public double[] getRoute() { return route; }
+        public int[] getDeliverySteps() { return deliverySteps; }
+        public double[] getDestinations() { return destinations; }
+    }
+}
@@ -21,7 +21,11 @@ public class GeoJsonService {
     }
 
     public Object calcDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches) {
-        CalcDeliveryResult result = deliveryPlannerService.calcDeliveryPath(dispatches);
+        return calcDeliveryPathAsGeoJson(dispatches, null);
+    }
+
+    public Object calcDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches, String engine) {
+        CalcDeliveryResult result = deliveryPlannerService.calcDeliveryPath(dispatches, engine);
 
         if (result.getDronePaths() != null && result.getDronePaths().size() > 1) {
             logger.info("Multiple drones ({}) used - generating FeatureCollection",
@@ -0,0 +1,160 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.model.Position;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Plans the legs between every pair of stops in a batch up front, on a fork-join pool, so the route optimizer
+// reads leg costs from a flat array instead of searching one leg at a time on the request thread. Each
+// unordered pair is searched once: a lattice path flown backwards is also a valid path, so the reverse leg is
+// the forward leg reversed, starting from the point where the forward leg hovers. Paths are only copied out
+// (reversed and cut at the stop) when a flight uses them.
+@Component
+public class LegMatrixBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegMatrixBuilder.class);
+
+    private final ForkJoinPool pool;
+
+    public LegMatrixBuilder(@Value("${planner.leg-matrix.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // A leg search between two stops, by index; null or empty when there's no way through.
+    public interface PathSearch {
+        List<LngLat> path(int from, int to);
+    }
+
+    public LegMatrix build(Position[] stops, PathSearch search) {
+        long start = System.nanoTime();
+        int n = stops.length;
+        LegMatrix matrix = new LegMatrix(stops);
+
+        // One task per pair: leg searches take a millisecond or more each, so the forking overhead is noise.
+        List<ForkJoinTask<?>> searches = new ArrayList<>(n * (n - 1) / 2);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int from = i, to = j;
+                searches.add(ForkJoinTask.adapt(() -> matrix.record(from, to, search.path(from, to))));
+            }
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> {
+            ForkJoinTask.invokeAll(searches);
+        }));
+
+        logger.info("Leg matrix: {} stops, {} searches in {} ms on {} threads",
+                n, searches.size(), (System.nanoTime() - start) / 1_000_000, pool.getParallelism());
+        return matrix;
+    }
+
+    int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Row-major moves between stops: the number of moves from one stop to the point of the leg closest to the
+    // other, or -1 when there's no leg. Each pair's cells are written by exactly one task, and only read once
+    // the pool has joined them.
+    public static final class LegMatrix {
+        private final Position[] stops;
+        private final int n;
+        private final int[] moves;
+        private final List<List<LngLat>> searched;
+        private final List<List<LngLat>> legs;
+
+        LegMatrix(Position[] stops) {
+            this.stops = stops;
+            this.n = stops.length;
+            this.moves = new int[n * n];
+            this.searched = new ArrayList<>(Collections.nCopies(n * n, null));
+            this.legs = new ArrayList<>(Collections.nCopies(n * n, null));
+        }
+
+        private void record(int i, int j, List<LngLat> path) {
+            if (path == null || path.isEmpty()) {
+                moves[i * n + j] = -1;
+                moves[j * n + i] = -1;
+                return;
+            }
+            searched.set(i * n + j, List.copyOf(path));
+
+            // The forward leg ends at the first point closest to stop j. The reverse leg flies that leg backwards
+            // from there, up to its first point closest to stop i.
+            int forward = 0;
+            double forwardDist = Double.POSITIVE_INFINITY;
+            for (int p = 0; p < path.size(); p++) {
+                double d = dist(path.get(p), stops[j]);
+                if (d < forwardDist) {
+                    forwardDist = d;
+                    forward = p;
+                }
+            }
+            int backward = forward;
+            double backwardDist = Double.POSITIVE_INFINITY;
+            for (int p = forward; p >= 0; p--) {
+                double d = dist(path.get(p), stops[i]);
+                if (d < backwardDist) {
+                    backwardDist = d;
+                    backward = p;
+                }
+            }
+            moves[i * n + j] = forward;
+            moves[j * n + i] = forward - backward;
+        }
+
+        public int size() {
+            return n;
+        }
+
+        public int moves(int from, int to) {
+            return moves[from * n + to];
+        }
+
+        public int[] getMoves() {
+            return moves;
+        }
+
+        // The leg from one stop up to the point closest to the other, or null when there's no leg.
+        public List<LngLat> path(int from, int to) {
+            if (from == to) {
+                return List.of(new LngLat(stops[from].getLng(), stops[from].getLat()));
+            }
+            int cell = from * n + to;
+            if (moves[cell] < 0) {
+                return null;
+            }
+            List<LngLat> leg = legs.get(cell);
+            if (leg == null) {
+                List<LngLat> path;
+                if (from < to) {
+                    path = searched.get(cell);
+                } else {
+                    path = new ArrayList<>(searched.get(to * n + from).subList(0, moves[to * n + from] + 1));
+                    Collections.reverse(path);
+                }
+                leg = List.copyOf(path.subList(0, moves[cell] + 1));
+                legs.set(cell, leg);
+            }
+            return leg;
+        }
+
+        private static double dist(LngLat point, Position target) {
+            double dx = point.getLng() - target.getLng(), dy = point.getLat() - target.getLat();
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.coursework1.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Prepares drone missions off the request threads and tracks them until their flight ends. Preparation
+// (plan lookup, pathfinding) runs on a small bounded pool; the flight itself is advanced by the
+// SimulationClock, so the number of threads doesn't grow with the number of drones in the air. The queue
+// is bounded so an overloaded fleet rejects new work instead of piling it up.
+@Service
+public class MissionExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MissionExecutor.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger missionIdCounter = new AtomicInteger(1);
+    private final Map<String, String> missionStates = new ConcurrentHashMap<>();
+    private final AtomicInteger runningMissions = new AtomicInteger();
+
+    private final Counter completedMissions;
+    private final Counter failedMissions;
+    private final Counter rejectedMissions;
+    private final Timer missionDuration;
+
+    public MissionExecutor(MeterRegistry meterRegistry,
+                           @Value("${missions.executor.threads:4}") int threads,
+                           @Value("${missions.executor.queue-capacity:256}") int queueCapacity) {
+        // A mission thread is only busy while the mission is prepared, and that is mostly A* over the lattice,
+        // i.e. CPU work; it never blocks for the length of a flight. A few platform threads therefore keep
+        // pathfinding from starving the request threads, where virtual threads would add nothing. The queue
+        // absorbs a large batch submitted at once.
+        AtomicInteger threadCounter = new AtomicInteger(1);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "mission-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("missions.queued", executor, e -> e.getQueue().size())
+                .description("Missions waiting to be prepared")
+                .register(meterRegistry);
+        Gauge.builder("missions.running", runningMissions, AtomicInteger::get)
+                .description("Missions currently flying")
+                .register(meterRegistry);
+        this.completedMissions = Counter.builder("missions.completed")
+                .description("Missions that have finished, by outcome")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+        this.failedMissions = Counter.builder("missions.completed")
+                .description("Missions that have finished, by outcome")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.rejectedMissions = Counter.builder("missions.rejected")
+                .description("Missions rejected because the mission queue was full")
+                .register(meterRegistry);
+        this.missionDuration = Timer.builder("missions.duration")
+                .description("Wall time of a mission from preparation to release")
+                .register(meterRegistry);
+
+        logger.info("Mission executor started: {} threads, queue capacity {}", threads, queueCapacity);
+    }
+
+    // Returns the mission ID straight away. The mission prepares itself on a mission thread and returns a
+    // future that completes when its flight is over. Throws RejectedExecutionException when the queue is full.
+    public String submit(String description, Supplier<CompletableFuture<?>> mission) {
+        String missionId = "mission-" + missionIdCounter.getAndIncrement();
+        missionStates.put(missionId, QUEUED);
+
+        try {
+            executor.execute(() -> run(missionId, description, mission));
+        } catch (RejectedExecutionException e) {
+            missionStates.remove(missionId);
+            rejectedMissions.increment();
+            logger.error("Mission queue full ({} queued, {} running), rejected {}",
+                    executor.getQueue().size(), runningMissions.get(), description);
+            throw e;
+        }
+
+        logger.info("Queued {} ({})", missionId, description);
+        return missionId;
+    }
+
+    private void run(String missionId, String description, Supplier<CompletableFuture<?>> mission) {
+        missionStates.put(missionId, RUNNING);
+        runningMissions.incrementAndGet();
+        long start = System.nanoTime();
+
+        CompletableFuture<?> flight;
+        try {
+            flight = mission.get();
+        } catch (RuntimeException e) {
+            flight = CompletableFuture.failedFuture(e);
+        }
+
+        flight.whenComplete((result, error) -> {
+            if (error == null) {
+                completedMissions.increment();
+            } else {
+                failedMissions.increment();
+                logger.error("{} ({}) failed", missionId, description, error);
+            }
+            missionDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            runningMissions.decrementAndGet();
+            missionStates.remove(missionId);
+        });
+    }
+
+    // Null once the mission has finished.
+    public String getMissionState(String missionId) {
+        return missionStates.get(missionId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", executor.getQueue().size());
+        stats.put("running", runningMissions.get());
+        stats.put("completed", (long) completedMissions.count());
+        stats.put("failed", (long) failedMissions.count());
+        stats.put("rejected", (long) rejectedMissions.count());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Stopping mission executor ({} running, {} queued)",
+                runningMissions.get(), executor.getQueue().size());
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.ServicePoint;
+import com.example.coursework1.geometry.NavigationGrid;
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.pathfinding.MoveValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Service
+public class NavigationGridService implements MoveValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(NavigationGridService.class);
+
+    private static final double STEP = 0.00015;
+    private static final double GRID_MARGIN = 0.01;
+
+    private final RestrictedAreaService restrictedAreaService;
+    private final ServicePointService servicePointService;
+
+    // Grids are kept for the few most recent airspaces, so plans still running against an older snapshot don't
+    // force a rebuild each time they alternate with plans on the new one. Compared by identity, like the path
+    // cache's generations. Not a weak map: each grid references its airspace, which would keep the key alive.
+    private static final int MAX_GRIDS = 4;
+    private final Map<RestrictedAirspace, NavigationGrid> grids = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RestrictedAirspace, NavigationGrid> eldest) {
+            return size() > MAX_GRIDS;
+        }
+    };
+    private final Object buildLock = new Object();
+    private volatile NavigationGrid latest;
+
+    public NavigationGridService(RestrictedAreaService restrictedAreaService,
+                                 ServicePointService servicePointService) {
+        this.restrictedAreaService = restrictedAreaService;
+        this.servicePointService = servicePointService;
+    }
+
+    // The grid is tied to the airspace snapshot it was built from; a refreshed restricted-area
+    // cache produces a new snapshot, which triggers a build on the next lookup.
+    public NavigationGrid getGrid() {
+        return gridFor(restrictedAreaService.getAirspace(), servicePointService::fetchAllServicePoints);
+    }
+
+    // A validator that keeps checking against this airspace even if the restricted-area cache moves on.
+    AirspaceMoveValidator validatorFor(RestrictedAirspace airspace) {
+        return new AirspaceMoveValidator(gridFor(airspace, servicePointService::fetchAllServicePoints),
+                restrictedAreaService);
+    }
+
+    // Sizes a missing grid from service points the caller has already fetched, e.g. a plan's PlanningContext.
+    AirspaceMoveValidator validatorFor(RestrictedAirspace airspace, List<ServicePoint> servicePoints) {
+        return new AirspaceMoveValidator(gridFor(airspace, () -> servicePoints), restrictedAreaService);
+    }
+
+    private NavigationGrid gridFor(RestrictedAirspace airspace, Supplier<List<ServicePoint>> servicePoints) {
+        NavigationGrid current = latest;
+        if (current != null && current.getAirspace() == airspace) {
+            return current;
+        }
+        current = cachedGrid(airspace);
+        if (current != null) {
+            return current;
+        }
+
+        // Fetching service points can mean a round-trip to the ILP service, so it happens outside any lock.
+        List<ServicePoint> points = servicePoints.get();
+        synchronized (buildLock) {
+            current = cachedGrid(airspace);
+            if (current == null) {
+                current = buildGrid(airspace, points);
+                synchronized (grids) {
+                    grids.put(airspace, current);
+                }
+                latest = current;
+            }
+            return current;
+        }
+    }
+
+    private NavigationGrid cachedGrid(RestrictedAirspace airspace) {
+        synchronized (grids) {
+            return grids.get(airspace);
+        }
+    }
+
+    public boolean isMoveBlocked(Position from, double angleDegrees, Position to) {
+        return isMoveBlocked(from.getLng(), from.getLat(), NavigationGrid.directionIndex(angleDegrees),
+                to.getLng(), to.getLat());
+    }
+
+    @Override
+    public boolean isMoveBlocked(double fromLng, double fromLat, int direction, double toLng, double toLat) {
+        if (getGrid().isMoveKnownClear(fromLng, fromLat, direction)) {
+            restrictedAreaService.recordGridResolvedCheck();
+            return false;
+        }
+        return restrictedAreaService.pathCrossesRestrictedArea(fromLng, fromLat, toLng, toLat);
+    }
+
+    @Override
+    public double clearance(double lng, double lat) {
+        return restrictedAreaService.getAirspace().clearanceAt(lng, lat);
+    }
+
+    private NavigationGrid buildGrid(RestrictedAirspace airspace, List<ServicePoint> servicePoints) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+        for (ServicePoint sp : servicePoints) {
+            Position p = sp.getPosition();
+            if (p == null) continue;
+            minX = Math.min(minX, p.getLng());
+            minY = Math.min(minY, p.getLat());
+            maxX = Math.max(maxX, p.getLng());
+            maxY = Math.max(maxY, p.getLat());
+        }
+
+        for (PreparedRestrictedArea area : airspace.getAreas()) {
+            minX = Math.min(minX, area.getMinX());
+            minY = Math.min(minY, area.getMinY());
+            maxX = Math.max(maxX, area.getMaxX());
+            maxY = Math.max(maxY, area.getMaxY());
+        }
+
+        if (Double.isInfinite(minX)) {
+            logger.warn("No service points or restricted areas to size the navigation grid - using exact checks only");
+            return NavigationGrid.empty(airspace);
+        }
+
+        long start = System.nanoTime();
+        NavigationGrid built = NavigationGrid.build(airspace,
+                minX - GRID_MARGIN, minY - GRID_MARGIN, maxX + GRID_MARGIN, maxY + GRID_MARGIN, STEP);
+
+        logger.info("Built navigation grid: {}x{} cells of {}, {} of {} moves need an exact check ({} ms)",
+                built.getColumns(), built.getRows(), built.getCellSize(),
+                built.getBlockedMoveCount(), (long) built.getCellCount() * NavigationGrid.DIRECTIONS,
+                (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+}
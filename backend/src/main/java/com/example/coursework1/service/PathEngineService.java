@@ -0,0 +1,241 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.pathfinding.GreedyPathEngine;
+import com.example.coursework1.pathfinding.PathCache;
+import com.example.coursework1.pathfinding.PathEngine;
+import com.example.coursework1.pathfinding.PathSearchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+public class PathEngineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PathEngineService.class);
+
+    private final Map<String, PathEngine> engines = new LinkedHashMap<>();
+    private final GreedyPathEngine greedyEngine;
+    private final PathEngine defaultEngine;
+    private final RestrictedAreaService restrictedAreaService;
+    private final MeterRegistry meterRegistry;
+
+    private final PathCache pathCache;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    // Cached legs are only valid for the airspace they were planned against. Each airspace instance gets its
+    // own generation, and entries are keyed on the generation they were stored under. Nothing is cleared when
+    // a new airspace appears: plans still running against an older snapshot keep their entries, and legs of
+    // airspaces nobody plans against anymore age out of the LRU.
+    private final Object generationLock = new Object();
+    private final Map<RestrictedAirspace, Long> generations = new WeakHashMap<>();
+    private long cacheGeneration;
+
+    private static final double STEP = 0.00015;
+    private static final double CLOSE_THRESHOLD = 0.00015;
+    private static final double CACHE_QUANTUM = STEP / 16;
+
+    public PathEngineService(List<PathEngine> engines,
+                             GreedyPathEngine greedyEngine,
+                             RestrictedAreaService restrictedAreaService,
+                             MeterRegistry meterRegistry,
+                             @Value("${planner.path-engine:astar}") String defaultEngineName,
+                             @Value("${planner.path-cache.max-entries:4096}") int maxCachedPaths) {
+        for (PathEngine engine : engines) {
+            this.engines.put(engine.getName(), engine);
+        }
+        this.greedyEngine = greedyEngine;
+        this.restrictedAreaService = restrictedAreaService;
+        this.meterRegistry = meterRegistry;
+
+        PathEngine configured = this.engines.get(defaultEngineName);
+        if (configured == null) {
+            logger.warn("Unknown default path engine '{}', using {} (available: {})",
+                    defaultEngineName, GreedyPathEngine.NAME, this.engines.keySet());
+            configured = greedyEngine;
+        }
+        this.defaultEngine = configured;
+        logger.info("Path engines available: {}, default: {}", this.engines.keySet(), defaultEngine.getName());
+
+        this.pathCache = new PathCache(maxCachedPaths, CACHE_QUANTUM);
+        this.cacheHits = Counter.builder("planner.path.cache")
+                .description("Path cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("planner.path.cache")
+                .description("Path cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("planner.path.cache.size", pathCache, PathCache::size)
+                .description("Legs currently held in the path cache")
+                .register(meterRegistry);
+    }
+
+    public Set<String> getEngineNames() {
+        return engines.keySet();
+    }
+
+    public PathEngine getDefaultEngine() {
+        return defaultEngine;
+    }
+
+    public GreedyPathEngine getGreedyEngine() {
+        return greedyEngine;
+    }
+
+    public PathEngine resolve(String name) {
+        if (name == null || name.isBlank()) {
+            return defaultEngine;
+        }
+
+        PathEngine engine = engines.get(name.trim().toLowerCase());
+        if (engine == null) {
+            throw new IllegalArgumentException("Unknown path engine: " + name + " (available: " + engines.keySet() + ")");
+        }
+        return engine;
+    }
+
+    public List<LngLat> findPath(PathEngine engine, Position from, Position to, int budget) {
+        return cached(engine.getName(), from, to, budget, restrictedAreaService.getAirspace(),
+                () -> engine.findPath(from, to, budget));
+    }
+
+    public List<LngLat> findRelaxedPath(Position from, Position to, int budget) {
+        return cached(GreedyPathEngine.NAME + "-relaxed", from, to, budget, restrictedAreaService.getAirspace(),
+                () -> greedyEngine.findRelaxedPath(from, to, budget));
+    }
+
+    // Searches and cache lookups against the validator's airspace snapshot instead of the live one.
+    List<LngLat> findPath(PathEngine engine, Position from, Position to, int budget,
+                          AirspaceMoveValidator validator) {
+        return cached(engine.getName(), from, to, budget, validator.getAirspace(),
+                () -> engine.findPath(from, to, budget, validator));
+    }
+
+    List<LngLat> findRelaxedPath(Position from, Position to, int budget, AirspaceMoveValidator validator) {
+        return cached(GreedyPathEngine.NAME + "-relaxed", from, to, budget, validator.getAirspace(),
+                () -> greedyEngine.findRelaxedPath(from, to, budget, validator));
+    }
+
+    public void clearPathCache() {
+        pathCache.clear();
+    }
+
+    private List<LngLat> cached(String engine, Position from, Position to, int budget, RestrictedAirspace airspace,
+                                Supplier<PathSearchResult> search) {
+        long generation = cacheGeneration(airspace);
+
+        PathCache.Entry entry = pathCache.get(engine, generation, budget, from, to);
+        if (entry != null) {
+            if (entry.getPath() == null) {
+                cacheHits.increment();
+                return null;
+            }
+            List<LngLat> reused = rebase(entry, from, to, airspace);
+            if (reused != null) {
+                cacheHits.increment();
+                return reused;
+            }
+        }
+
+        cacheMisses.increment();
+        PathSearchResult result = record(search.get());
+        pathCache.put(engine, generation, budget, from, to, result.getPath());
+        return result.getPath();
+    }
+
+    // The airspace is compared by identity: the repository compiles a new instance whenever the areas are
+    // fetched again, including when a failed fetch is followed by a successful one.
+    private long cacheGeneration(RestrictedAirspace airspace) {
+        synchronized (generationLock) {
+            Long generation = generations.get(airspace);
+            if (generation == null) {
+                generation = ++cacheGeneration;
+                generations.put(airspace, generation);
+                if (generation > 1) {
+                    logger.info("Planning against a new restricted airspace ({} areas), cache generation {}",
+                            airspace.getAreaCount(), generation);
+                }
+            }
+            return generation;
+        }
+    }
+
+    // Shifts a cached leg onto the requested start. Endpoints in the same cache cell differ by a tiny
+    // fraction of a move, but the shifted path still has to stay clear and end close to the target.
+    private List<LngLat> rebase(PathCache.Entry entry, Position from, Position to, RestrictedAirspace airspace) {
+        double dx = from.getLng() - entry.getFrom().getLng();
+        double dy = from.getLat() - entry.getFrom().getLat();
+
+        List<LngLat> cachedPath = entry.getPath();
+        if (dx == 0 && dy == 0 && to.equals(entry.getTo())) {
+            return new ArrayList<>(cachedPath);
+        }
+
+        List<LngLat> shifted = new ArrayList<>(cachedPath.size());
+        List<Position> positions = new ArrayList<>(cachedPath.size());
+        for (LngLat point : cachedPath) {
+            shifted.add(new LngLat(point.getLng() + dx, point.getLat() + dy));
+            positions.add(new Position(point.getLng() + dx, point.getLat() + dy));
+        }
+
+        LngLat end = shifted.get(shifted.size() - 1);
+        double miss = distance(end, to);
+        if (miss >= CLOSE_THRESHOLD || restrictedAreaService.flightPathCrossesRestrictedArea(airspace, positions)) {
+            return null;
+        }
+        return shifted;
+    }
+
+    private double distance(LngLat point, Position target) {
+        double dx = point.getLng() - target.getLng(), dy = point.getLat() - target.getLat();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private PathSearchResult record(PathSearchResult result) {
+        String engine = result.getEngine();
+
+        Timer.builder("planner.path.search")
+                .description("Wall time of single-leg path searches")
+                .tag("engine", engine)
+                .tag("outcome", result.isFound() ? "found" : "failed")
+                .register(meterRegistry)
+                .record(result.getWallTimeNanos(), TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("planner.path.iterations")
+                .description("Walker steps or search expansions per leg")
+                .tag("engine", engine)
+                .register(meterRegistry)
+                .record(result.getIterations());
+
+        DistributionSummary.builder("planner.path.collision.checks")
+                .description("Collision checks issued per leg")
+                .tag("engine", engine)
+                .register(meterRegistry)
+                .record(result.getCollisionChecks());
+
+        restrictedAreaService.recordEngineSkippedChecks(result.getSkippedChecks());
+
+        logger.debug("{} leg: found={}, iterations={}, collision checks={}, skipped checks={}, {} us",
+                engine, result.isFound(), result.getIterations(), result.getCollisionChecks(),
+                result.getSkippedChecks(), result.getWallTimeNanos() / 1000);
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Drone;
+import com.example.coursework1.dto.ServicePoint;
+import com.example.coursework1.geometry.RestrictedAirspace;
+
+import java.util.List;
+
+// Everything one delivery plan reads from the ILP service, captured once when planning starts. Every phase of
+// the plan works from the same drones, availability, service points and airspace, and the number of upstream
+// fetches no longer grows with the number of drones, dispatches or flights considered. Path searches check
+// moves with the captured validator, so a restricted-area refresh mid-plan can't mix airspaces across legs.
+final class PlanningContext {
+
+    private final DroneEligibilityIndex eligibility;
+    private final AvailabilityIndex availability;
+    private final List<ServicePoint> servicePoints;
+    private final AirspaceMoveValidator validator;
+
+    PlanningContext(DroneEligibilityIndex eligibility, AvailabilityIndex availability,
+                    List<ServicePoint> servicePoints, AirspaceMoveValidator validator) {
+        this.eligibility = eligibility;
+        this.availability = availability;
+        this.servicePoints = List.copyOf(servicePoints);
+        this.validator = validator;
+    }
+
+    static PlanningContext capture(DroneService droneService, DroneAvailabilityService droneAvailabilityService,
+                                   ServicePointService servicePointService,
+                                   RestrictedAreaService restrictedAreaService,
+                                   NavigationGridService navigationGridService) {
+        List<ServicePoint> servicePoints = servicePointService.fetchAllServicePoints();
+        return new PlanningContext(
+                droneService.eligibility(),
+                droneAvailabilityService.availabilityIndex(),
+                servicePoints,
+                navigationGridService.validatorFor(restrictedAreaService.getAirspace(), servicePoints));
+    }
+
+    List<Drone> getDrones() { return eligibility.getDrones(); }
+    DroneEligibilityIndex getEligibility() { return eligibility; }
+    AvailabilityIndex getAvailability() { return availability; }
+    List<ServicePoint> getServicePoints() { return servicePoints; }
+    RestrictedAirspace getAirspace() { return validator.getAirspace(); }
+    AirspaceMoveValidator getValidator() { return validator; }
+}
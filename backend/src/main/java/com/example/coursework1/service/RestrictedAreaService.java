@@ -1,155 +1,140 @@
 package com.example.coursework1.service;
 
-import com.example.coursework1.dto.Region;
-import com.example.coursework1.dto.RegionRequest;
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
 import com.example.coursework1.model.Position;
 import com.example.coursework1.model.RestrictedArea;
 import com.example.coursework1.repository.RestrictedAreaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class RestrictedAreaService {
 
     private static final Logger logger = LoggerFactory.getLogger(RestrictedAreaService.class);
-    private static final double TOLERANCE = 1e-10;
 
     private final RestrictedAreaRepository restrictedAreaRepository;
-    private final RegionService regionService;
 
-    public RestrictedAreaService(RestrictedAreaRepository restrictedAreaRepository,
-                                 RegionService regionService) {
+    private final Counter exactChecks;
+    private final Counter clearanceSkips;
+    private final Counter gridSkips;
+    private final Counter engineSkips;
+
+    public RestrictedAreaService(RestrictedAreaRepository restrictedAreaRepository, MeterRegistry meterRegistry) {
         this.restrictedAreaRepository = restrictedAreaRepository;
-        this.regionService = regionService;
+        this.exactChecks = segmentCheckCounter(meterRegistry, "exact");
+        this.clearanceSkips = segmentCheckCounter(meterRegistry, "clearance");
+        this.gridSkips = segmentCheckCounter(meterRegistry, "grid");
+        this.engineSkips = segmentCheckCounter(meterRegistry, "engine");
+    }
+
+    private static Counter segmentCheckCounter(MeterRegistry registry, String resolvedBy) {
+        return Counter.builder("airspace.segment.checks")
+                .description("Path segment checks against restricted airspace, by what answered them")
+                .tag("resolvedBy", resolvedBy)
+                .register(registry);
     }
 
     public List<RestrictedArea> getRestrictedAreas() {
         return restrictedAreaRepository.fetchRestrictedAreas();
     }
 
+    public RestrictedAirspace getAirspace() {
+        return restrictedAreaRepository.fetchAirspace();
+    }
+
+    public List<PreparedRestrictedArea> getPreparedAreas() {
+        return getAirspace().getAreas();
+    }
+
     public boolean isInRestrictedArea(Position position) {
         if (position == null) {
             return false;
         }
 
-        List<RestrictedArea> areas = restrictedAreaRepository.fetchRestrictedAreas();
+        RestrictedAirspace airspace = getAirspace();
+        int area = airspace.findContainingArea(position.getLng(), position.getLat());
 
-        for (RestrictedArea area : areas) {
-            if (area.getVertices() == null || area.getVertices().isEmpty()) {
-                continue;
-            }
-
-            Region region = new Region(area.getName(), area.getVertices());
-            RegionRequest request = new RegionRequest(position, region);
-
-            try {
-                if (regionService.isInRegion(request)) {
-                    logger.debug("Position {} is in restricted area: {}", position, area.getName());
-                    return true;
-                }
-            } catch (Exception e) {
-                logger.warn("Error checking if position is in area {}: {}", area.getName(), e.getMessage());
-            }
+        if (area >= 0) {
+            logger.debug("Position {} is in restricted area: {}", position, airspace.getArea(area).getName());
+            return true;
         }
 
         return false;
     }
 
+    public boolean isInRestrictedArea(double lng, double lat) {
+        return getAirspace().findContainingArea(lng, lat) >= 0;
+    }
+
     public boolean pathCrossesRestrictedArea(Position from, Position to) {
         if (from == null || to == null) {
             return false;
         }
 
-        if (isInRestrictedArea(from) || isInRestrictedArea(to)) {
-            logger.debug("Path endpoint in restricted area: from={}, to={}", from, to);
-            return true;
-        }
-
-        List<RestrictedArea> areas = restrictedAreaRepository.fetchRestrictedAreas();
-
-        for (RestrictedArea area : areas) {
-            if (area.getVertices() == null || area.getVertices().isEmpty()) {
-                continue;
-            }
-
-            if (lineSegmentIntersectsPolygon(from, to, area.getVertices())) {
-                logger.debug("Path crosses restricted area {}: from {} to {}",
-                        area.getName(), from, to);
-                return true;
-            }
+        boolean crosses = pathCrossesRestrictedArea(from.getLng(), from.getLat(), to.getLng(), to.getLat());
+        if (crosses) {
+            logger.debug("Path crosses restricted area: from={}, to={}", from, to);
         }
+        return crosses;
+    }
 
-        return false;
+    public boolean pathCrossesRestrictedArea(double fromLng, double fromLat, double toLng, double toLat) {
+        return pathCrossesRestrictedArea(getAirspace(), fromLng, fromLat, toLng, toLat);
     }
 
-    private boolean lineSegmentIntersectsPolygon(Position p1, Position p2, List<Position> polygon) {
-        if (polygon == null || polygon.size() < 2) {
+    boolean pathCrossesRestrictedArea(RestrictedAirspace airspace, double fromLng, double fromLat,
+                                      double toLng, double toLat) {
+        double dx = toLng - fromLng, dy = toLat - fromLat;
+        if (airspace.clearanceAt(fromLng, fromLat) > Math.sqrt(dx * dx + dy * dy)) {
+            clearanceSkips.increment();
             return false;
         }
 
-        for (int i = 0; i < polygon.size() - 1; i++) {
-            Position v1 = polygon.get(i);
-            Position v2 = polygon.get(i + 1);
-
-            if (lineSegmentsIntersect(p1, p2, v1, v2)) {
-                return true;
-            }
-        }
-
-        int samples = 10;
-        for (int i = 1; i < samples; i++) {
-            double t = (double) i / samples;
-            double lng = p1.getLng() + t * (p2.getLng() - p1.getLng());
-            double lat = p1.getLat() + t * (p2.getLat() - p1.getLat());
-
-            Position testPoint = new Position(lng, lat);
-
-            Region region = new Region("test", polygon);
-            RegionRequest request = new RegionRequest(testPoint, region);
-
-            try {
-                if (regionService.isInRegion(request)) {
-                    return true;
-                }
-            } catch (Exception e) {
-            }
-        }
-
-        return false;
+        exactChecks.increment();
+        return airspace.segmentIntersectsAnyArea(fromLng, fromLat, toLng, toLat);
     }
 
-    private boolean lineSegmentsIntersect(Position p1, Position p2, Position p3, Position p4) {
-        double x1 = p1.getLng(), y1 = p1.getLat();
-        double x2 = p2.getLng(), y2 = p2.getLat();
-        double x3 = p3.getLng(), y3 = p3.getLat();
-        double x4 = p4.getLng(), y4 = p4.getLat();
-
-        double d1x = x2 - x1, d1y = y2 - y1;
-        double d2x = x4 - x3, d2y = y4 - y3;
+    public double getClearance(Position position) {
+        return getAirspace().clearanceAt(position.getLng(), position.getLat());
+    }
 
-        double denominator = d1x * d2y - d1y * d2x;
+    public void recordGridResolvedCheck() {
+        gridSkips.increment();
+    }
 
-        if (Math.abs(denominator) < TOLERANCE) {
-            return false;
+    public void recordEngineSkippedChecks(int count) {
+        if (count > 0) {
+            engineSkips.increment(count);
         }
+    }
 
-        double t = ((x3 - x1) * d2y - (y3 - y1) * d2x) / denominator;
-        double u = ((x3 - x1) * d1y - (y3 - y1) * d1x) / denominator;
-
-        double eps = TOLERANCE;
-        return (t >= -eps && t <= 1 + eps) && (u >= -eps && u <= 1 + eps);
+    public Map<String, Long> getSegmentCheckCounts() {
+        return Map.of(
+                "exact", (long) exactChecks.count(),
+                "clearance", (long) clearanceSkips.count(),
+                "grid", (long) gridSkips.count(),
+                "engine", (long) engineSkips.count());
     }
 
     public boolean flightPathCrossesRestrictedArea(List<Position> flightPath) {
+        return flightPathCrossesRestrictedArea(getAirspace(), flightPath);
+    }
+
+    boolean flightPathCrossesRestrictedArea(RestrictedAirspace airspace, List<Position> flightPath) {
         if (flightPath == null || flightPath.size() < 2) {
             return false;
         }
 
         for (int i = 0; i < flightPath.size() - 1; i++) {
-            if (pathCrossesRestrictedArea(flightPath.get(i), flightPath.get(i + 1))) {
+            Position from = flightPath.get(i), to = flightPath.get(i + 1);
+            if (pathCrossesRestrictedArea(airspace, from.getLng(), from.getLat(), to.getLng(), to.getLat())) {
                 return true;
             }
         }
@@ -158,31 +143,19 @@ public class RestrictedAreaService {
     }
 
     public String getRestrictedAreaNameForPath(Position from, Position to) {
-        List<RestrictedArea> areas = restrictedAreaRepository.fetchRestrictedAreas();
+        return areaNameAlongPath(getAirspace(), from, to);
+    }
 
+    static String areaNameAlongPath(RestrictedAirspace airspace, Position from, Position to) {
         int samples = 20;
         for (int i = 0; i <= samples; i++) {
             double t = (double) i / samples;
             double lng = from.getLng() + t * (to.getLng() - from.getLng());
             double lat = from.getLat() + t * (to.getLat() - from.getLat());
 
-            Position point = new Position(lng, lat);
-
-            for (RestrictedArea area : areas) {
-                if (area.getVertices() == null || area.getVertices().isEmpty()) {
-                    continue;
-                }
-
-                Region region = new Region(area.getName(), area.getVertices());
-                RegionRequest request = new RegionRequest(point, region);
-
-                try {
-                    if (regionService.isInRegion(request)) {
-                        return area.getName();
-                    }
-                } catch (Exception e) {
-                    logger.warn("Error checking area {}: {}", area.getName(), e.getMessage());
-                }
+            int area = airspace.findContainingArea(lng, lat);
+            if (area >= 0) {
+                return airspace.getArea(area).getName();
             }
         }
 
@@ -198,4 +171,4 @@ public class RestrictedAreaService {
     public void clearCache() {
         restrictedAreaRepository.clearCache();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.example.coursework1.service;
+
+// A mission in the air, advanced one step at a time by the SimulationClock.
+public interface SimulatedFlight {
+
+    // Advances one step; returns false once the flight is over and can be dropped from the clock.
+    boolean step();
+
+    // Called instead of further steps if step() throws.
+    default void onError(RuntimeException e) {
+    }
+}
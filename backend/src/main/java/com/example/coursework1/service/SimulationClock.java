@@ -0,0 +1,165 @@
+package com.example.coursework1.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Single simulation clock for every drone in the air. One scheduler thread ticks at a fixed rate and
+// steps each flight whose step interval has elapsed, so all flights share one timeline and the thread
+// count stays constant however many drones are flying. Flights are only touched on the clock thread.
+@Service
+public class SimulationClock {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationClock.class);
+
+    // A flight that has fallen further behind than this (e.g. after a GC pause) skips ahead
+    // rather than bursting through the missed steps.
+    private static final int MAX_STEPS_PER_TICK = 4;
+
+    private final ScheduledExecutorService scheduler;
+    private final long tickMillis;
+    private final Queue<ScheduledFlight> arrivals = new ConcurrentLinkedQueue<>();
+    private final List<ScheduledFlight> flights = new ArrayList<>();
+    private final AtomicInteger activeFlights = new AtomicInteger();
+    private final List<Runnable> tickListeners = new CopyOnWriteArrayList<>();
+    private final Timer tickTimer;
+
+    public SimulationClock(MeterRegistry meterRegistry,
+                           @Value("${simulation.tick-ms:50}") long tickMillis) {
+        this.tickMillis = tickMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simulation-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("simulation.flights", activeFlights, AtomicInteger::get)
+                .description("Flights advanced by the simulation clock")
+                .register(meterRegistry);
+        this.tickTimer = Timer.builder("simulation.tick")
+                .description("Time spent advancing all flights in one tick")
+                .register(meterRegistry);
+    }
+
+    // Ticking starts once the clock is fully constructed, since tick() runs on the scheduler thread.
+    @PostConstruct
+    void start() {
+        scheduler.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        logger.info("Simulation clock started with a {} ms tick", tickMillis);
+    }
+
+    // The first step is taken on the next tick. Step intervals shorter than the tick are rounded up to it.
+    public void schedule(long stepMillis, SimulatedFlight flight) {
+        activeFlights.incrementAndGet();
+        arrivals.add(new ScheduledFlight(flight, TimeUnit.MILLISECONDS.toNanos(Math.max(stepMillis, tickMillis))));
+    }
+
+    // Runs a one-off task on the clock thread after the given delay.
+    public void after(long delayMillis, Runnable task) {
+        scheduler.schedule(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Delayed simulation task failed", e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs on the clock thread at the end of every tick, after all flights due in that tick have stepped.
+    public void addTickListener(Runnable listener) {
+        tickListeners.add(listener);
+    }
+
+    public int getActiveFlights() {
+        return activeFlights.get();
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+
+        ScheduledFlight arrived;
+        while ((arrived = arrivals.poll()) != null) {
+            arrived.nextStepAt = start;
+            flights.add(arrived);
+        }
+
+        Iterator<ScheduledFlight> it = flights.iterator();
+        while (it.hasNext()) {
+            ScheduledFlight scheduled = it.next();
+            if (!advance(scheduled, start)) {
+                it.remove();
+                activeFlights.decrementAndGet();
+            }
+        }
+
+        for (Runnable listener : tickListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.error("Tick listener failed", e);
+            }
+        }
+
+        tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean advance(ScheduledFlight scheduled, long now) {
+        int steps = 0;
+        while (scheduled.nextStepAt <= now) {
+            if (steps++ == MAX_STEPS_PER_TICK) {
+                scheduled.nextStepAt = now + scheduled.stepNanos;
+                break;
+            }
+
+            try {
+                if (!scheduled.flight.step()) {
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Simulated flight failed, dropping it", e);
+                try {
+                    scheduled.flight.onError(e);
+                } catch (RuntimeException handlerError) {
+                    logger.error("Flight error handler failed", handlerError);
+                }
+                return false;
+            }
+            scheduled.nextStepAt += scheduled.stepNanos;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Stopping simulation clock ({} flights in the air)", activeFlights.get());
+        scheduler.shutdownNow();
+    }
+
+    private static final class ScheduledFlight {
+        private final SimulatedFlight flight;
+        private final long stepNanos;
+        private long nextStepAt;
+
+        ScheduledFlight(SimulatedFlight flight, long stepNanos) {
+            this.flight = flight;
+            this.stepNanos = stepNanos;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Viewport;
+import com.example.coursework1.service.FleetTelemetryService.FleetFrame;
+import com.example.coursework1.service.FleetTelemetryService.KeyframeSnapshot;
+import com.example.coursework1.service.FleetTelemetryService.ViewportFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Delivers fleet frames to each subscriber separately instead of through a broker topic. Every session
+// subscribed to /user/queue/fleet-frames has its own TelemetryMailbox; a frame is only sent once the
+// session's earlier frames have been handed to its WebSocket, and anything published meanwhile is
+// conflated. A slow tab or flaky network therefore sees fresher, sparser frames rather than a growing
+// backlog, and never holds up other subscribers. A subscriber can also narrow its feed to a map viewport,
+// either with a "viewport: minLng,minLat,maxLng,maxLat" header on SUBSCRIBE or later via setViewport().
+//
+// The first frame of a subscription carries the keyframes everything after it builds on, so it's only sent
+// once the broker has registered the subscription: SessionSubscribeEvent fires before the SUBSCRIBE has even
+// left the asynchronous clientInboundChannel, and the broker silently drops messages to subscriptions it
+// doesn't know yet. Frames that are lost anyway time out, and the subscriber is sent fresh keyframes. Frames
+// to one session are published in the order they were taken from its mailbox, and the broker is configured
+// to preserve that order on the way to the socket (see WebSocketConfig).
+@Service
+public class TelemetryFanoutService implements ExecutorChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryFanoutService.class);
+
+    public static final String FRAME_QUEUE = "/queue/fleet-frames";
+    public static final String SUBSCRIBE_DESTINATION = "/user" + FRAME_QUEUE;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final FleetTelemetryService fleetTelemetryService;
+    private final AbstractSubscribableChannel clientOutboundChannel;
+    private final AbstractSubscribableChannel brokerChannel;
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final long deliveryTimeoutMs;
+
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    public TelemetryFanoutService(SimpMessagingTemplate messagingTemplate,
+                                  FleetTelemetryService fleetTelemetryService,
+                                  @Qualifier("clientOutboundChannel") AbstractSubscribableChannel clientOutboundChannel,
+                                  @Qualifier("brokerChannel") AbstractSubscribableChannel brokerChannel,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${telemetry.subscriber.max-in-flight:2}") int maxInFlight,
+                                  @Value("${telemetry.subscriber.delivery-timeout-ms:5000}") long deliveryTimeoutMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.fleetTelemetryService = fleetTelemetryService;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.brokerChannel = brokerChannel;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = maxInFlight;
+        this.deliveryTimeoutMs = deliveryTimeoutMs;
+
+        Gauge.builder("telemetry.subscribers", subscribers, Map::size)
+                .description("Sessions subscribed to fleet frames")
+                .register(meterRegistry);
+    }
+
+    // The channels and the frame listener can call back from other threads straight away, so they're only
+    // handed this service once it's fully constructed.
+    @PostConstruct
+    void start() {
+        clientOutboundChannel.addInterceptor(this);
+        brokerChannel.addInterceptor(this);
+        fleetTelemetryService.addFrameListener(this::publish);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Subscriber subscriber = subscribers.get(accessor.getSessionId());
+        if (subscriber != null && subscriber.subscriptionId.equals(accessor.getSubscriptionId())) {
+            unsubscribe(accessor.getSessionId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        unsubscribe(event.getSessionId());
+    }
+
+    // A new subscriber starts from the keyframes of every drone already in the air, or in its viewport.
+    void subscribe(String sessionId, String subscriptionId, Viewport viewport) {
+        Subscriber subscriber = new Subscriber(subscriptionId, new TelemetryMailbox(maxInFlight, deliveryTimeoutMs));
+
+        // The registry hands back a meter that's already registered under the same session tag, so the
+        // previous subscription's meters have to go before this one's are registered.
+        Subscriber previous = subscribers.put(sessionId, subscriber);
+        if (previous != null) {
+            previous.meters.forEach(meterRegistry::remove);
+        }
+        subscriber.meters.add(Gauge.builder("telemetry.subscriber.queue.depth", subscriber.mailbox, TelemetryMailbox::depth)
+                .description("Fleet frames published to a session but not yet written to its socket")
+                .tag("session", sessionId)
+                .register(meterRegistry));
+        subscriber.meters.add(FunctionCounter.builder("telemetry.subscriber.frames.dropped", subscriber.mailbox,
+                        TelemetryMailbox::droppedFrames)
+                .description("Fleet frames conflated away because the session was behind")
+                .tag("session", sessionId)
+                .register(meterRegistry));
+        logger.info("Session {} subscribed to fleet frames ({} subscribers)", sessionId, subscribers.size());
+
+        synchronized (subscriber) {
+            if (viewport != null) {
+                subscriber.filter = new ViewportFilter();
+                subscriber.mailbox.offer(fleetTelemetryService.refocus(subscriber.filter, viewport));
+            } else {
+                subscriber.mailbox.offer(fullSnapshot());
+            }
+        }
+        drain(sessionId, subscriber);
+    }
+
+    // A null viewport goes back to following the whole fleet.
+    public void setViewport(String sessionId, Viewport viewport) {
+        Subscriber subscriber = subscribers.get(sessionId);
+        if (subscriber == null) {
+            logger.debug("Viewport from session {} ignored, it isn't subscribed to fleet frames", sessionId);
+            return;
+        }
+
+        synchronized (subscriber) {
+            if (viewport == null) {
+                subscriber.filter = null;
+                subscriber.mailbox.offer(fullSnapshot());
+            } else {
+                if (subscriber.filter == null) {
+                    subscriber.filter = new ViewportFilter();
+                    subscriber.mailbox.offer(fleetTelemetryService.narrowFromFleet(subscriber.filter, viewport));
+                } else {
+                    subscriber.mailbox.offer(fleetTelemetryService.refocus(subscriber.filter, viewport));
+                }
+            }
+        }
+        drain(sessionId, subscriber);
+    }
+
+    private FleetFrame fullSnapshot() {
+        KeyframeSnapshot snapshot = fleetTelemetryService.snapshot();
+        return new FleetFrame(snapshot.getSeq(), System.currentTimeMillis(),
+                snapshot.getKeyframes(), new int[0], new int[0]);
+    }
+
+    static Viewport parseViewport(String header) {
+        if (header == null || header.isBlank()) return null;
+        try {
+            String[] parts = header.split(",");
+            if (parts.length == 4) {
+                Viewport viewport = new Viewport(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                        Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()));
+                if (viewport.isValid()) return viewport;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        logger.warn("Ignoring malformed viewport header '{}'", header);
+        return null;
+    }
+
+    void unsubscribe(String sessionId) {
+        Subscriber subscriber = subscribers.remove(sessionId);
+        if (subscriber != null) {
+            subscriber.meters.forEach(meterRegistry::remove);
+            logger.info("Session {} left fleet frames after {} dropped frames",
+                    sessionId, subscriber.mailbox.droppedFrames());
+        }
+    }
+
+    void publish(FleetFrame frame) {
+        for (Map.Entry<String, Subscriber> entry : subscribers.entrySet()) {
+            Subscriber subscriber = entry.getValue();
+            synchronized (subscriber) {
+                FleetFrame filtered = subscriber.filter == null ? frame
+                        : fleetTelemetryService.filter(frame, subscriber.filter);
+                if (hasContent(filtered)) {
+                    subscriber.mailbox.offer(filtered);
+                }
+            }
+            drain(entry.getKey(), subscriber);
+        }
+    }
+
+    void delivered(String sessionId) {
+        Subscriber subscriber = subscribers.get(sessionId);
+        if (subscriber != null) {
+            subscriber.mailbox.delivered();
+            drain(sessionId, subscriber);
+        }
+    }
+
+    private static boolean hasContent(FleetFrame frame) {
+        return !frame.getKeyframes().isEmpty() || frame.getUpdates().length > 0 || frame.getRemoved().length > 0;
+    }
+
+    private void drain(String sessionId, Subscriber subscriber) {
+        int reclaimed = subscriber.mailbox.reclaimExpired();
+        if (reclaimed > 0) {
+            // Whatever those frames carried may never have arrived, so start the subscriber over from keyframes.
+            logger.debug("Session {} never acknowledged {} fleet frames, resending keyframes", sessionId, reclaimed);
+            synchronized (subscriber) {
+                ViewportFilter filter = subscriber.filter;
+                if (filter != null) {
+                    subscriber.filter = new ViewportFilter();
+                    subscriber.mailbox.offer(fleetTelemetryService.refocus(subscriber.filter, filter.getViewport()));
+                } else {
+                    subscriber.mailbox.offer(fullSnapshot());
+                }
+            }
+        }
+
+        // Taking a frame and publishing it happen under the subscriber's lock, so the clock thread and the
+        // outbound threads acknowledging earlier frames can't publish this session's frames out of order.
+        synchronized (subscriber) {
+            FleetFrame frame;
+            while ((frame = subscriber.mailbox.take()) != null) {
+                SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+                headers.setSessionId(sessionId);
+                headers.setLeaveMutable(true);
+                messagingTemplate.convertAndSendToUser(sessionId, FRAME_QUEUE, frame, headers.getMessageHeaders());
+            }
+        }
+    }
+
+    // The brokerChannel calls this once the broker has registered a subscription, and the clientOutboundChannel
+    // once a message has been handed to the session's WebSocket.
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getSessionId() == null) return;
+
+        // By now the user destination handler has resolved /user/queue/fleet-frames to the session's own queue.
+        if (accessor.getMessageType() == SimpMessageType.SUBSCRIBE) {
+            String original = accessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+            if (ex == null && handler instanceof AbstractBrokerMessageHandler
+                    && SUBSCRIBE_DESTINATION.equals(original)) {
+                subscribe(accessor.getSessionId(), accessor.getSubscriptionId(),
+                        parseViewport(accessor.getFirstNativeHeader("viewport")));
+            }
+            return;
+        }
+
+        if (channel != clientOutboundChannel || accessor.getMessageType() != SimpMessageType.MESSAGE) return;
+        String destination = accessor.getDestination();
+        Object original = accessor.getHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        if (SUBSCRIBE_DESTINATION.equals(original) || (destination != null && destination.startsWith(FRAME_QUEUE))) {
+            delivered(accessor.getSessionId());
+        }
+    }
+
+    public List<Map<String, Object>> getSubscriberStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        subscribers.forEach((sessionId, subscriber) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("session", sessionId);
+            entry.put("queueDepth", subscriber.mailbox.depth());
+            entry.put("droppedFrames", subscriber.mailbox.droppedFrames());
+            ViewportFilter filter = subscriber.filter;
+            if (filter != null) {
+                entry.put("viewport", filter.getViewport());
+            }
+            stats.add(entry);
+        });
+        return stats;
+    }
+
+    private static final class Subscriber {
+        private final String subscriptionId;
+        private final TelemetryMailbox mailbox;
+        private final List<Meter> meters = new ArrayList<>();
+        private volatile ViewportFilter filter;
+
+        Subscriber(String subscriptionId, TelemetryMailbox mailbox) {
+            this.subscriptionId = subscriptionId;
+            this.mailbox = mailbox;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.service.FleetTelemetryService.FleetFrame;
+import com.example.coursework1.service.FleetTelemetryService.Keyframe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Per-subscriber outbox for fleet frames. While a subscriber still has frames in flight, new frames are
+// merged into a single pending frame: the latest keyframe and step per drone win, removals are kept, and
+// the intermediate positions in between are dropped. A slow client therefore receives fewer, fresher
+// frames instead of an ever-growing backlog. A frame that is never acknowledged (the broker drops messages
+// for a subscription it hasn't registered yet, for instance) gives its slot back after the delivery timeout,
+// so one lost frame can't stall the subscriber for good.
+public class TelemetryMailbox {
+
+    private final int maxInFlight;
+    private final long deliveryTimeoutNanos;
+
+    private final Map<Integer, Keyframe> keyframes = new LinkedHashMap<>();
+    private final Map<Integer, int[]> updates = new LinkedHashMap<>();
+    private final Set<Integer> removed = new LinkedHashSet<>();
+    private long seq;
+    private long timestamp;
+    private int pendingFrames;
+    private final Deque<Long> inFlight = new ArrayDeque<>();
+    private long droppedFrames;
+
+    public TelemetryMailbox(int maxInFlight, long deliveryTimeoutMillis) {
+        this.maxInFlight = maxInFlight;
+        this.deliveryTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(deliveryTimeoutMillis);
+    }
+
+    public synchronized void offer(FleetFrame frame) {
+        if (pendingFrames > 0) {
+            droppedFrames++;
+        }
+        pendingFrames++;
+        seq = frame.getSeq();
+        timestamp = frame.getTimestamp();
+
+        for (int index : frame.getRemoved()) {
+            keyframes.remove(index);
+            updates.remove(index);
+            removed.add(index);
+        }
+        for (Keyframe keyframe : frame.getKeyframes()) {
+            removed.remove(keyframe.getIndex());
+            keyframes.put(keyframe.getIndex(), keyframe);
+        }
+        int[] triples = frame.getUpdates();
+        for (int i = 0; i + 2 < triples.length; i += 3) {
+            updates.put(triples[i], new int[] {triples[i + 1], triples[i + 2]});
+        }
+    }
+
+    // Returns the merged pending frame if the subscriber has room for another one, counting it as in flight.
+    public synchronized FleetFrame take() {
+        if (pendingFrames == 0 || inFlight.size() >= maxInFlight) {
+            return null;
+        }
+
+        int[] triples = new int[updates.size() * 3];
+        int i = 0;
+        for (Map.Entry<Integer, int[]> entry : updates.entrySet()) {
+            triples[i++] = entry.getKey();
+            triples[i++] = entry.getValue()[0];
+            triples[i++] = entry.getValue()[1];
+        }
+        FleetFrame merged = new FleetFrame(seq, timestamp, new ArrayList<>(keyframes.values()), triples,
+                removed.stream().mapToInt(Integer::intValue).toArray());
+
+        keyframes.clear();
+        updates.clear();
+        removed.clear();
+        pendingFrames = 0;
+        inFlight.addLast(System.nanoTime());
+        return merged;
+    }
+
+    // An acknowledgement doesn't say which frame it was for, so it settles the oldest one still in flight. Frames
+    // reach the socket in publish order, but two acknowledgements can race on the outbound threads; at worst
+    // that credits the wrong one of two recent frames, which only moves a delivery timeout by a few ticks.
+    public synchronized void delivered() {
+        inFlight.pollFirst();
+    }
+
+    // Gives back the slots of frames sent longer than the delivery timeout ago; returns how many there were.
+    public synchronized int reclaimExpired() {
+        long now = System.nanoTime();
+        int reclaimed = 0;
+        while (!inFlight.isEmpty() && now - inFlight.peekFirst() >= deliveryTimeoutNanos) {
+            inFlight.pollFirst();
+            reclaimed++;
+        }
+        return reclaimed;
+    }
+
+    // Frames published to this subscriber that haven't been written to its socket yet.
+    public synchronized int depth() {
+        return inFlight.size() + pendingFrames;
+    }
+
+    public synchronized long droppedFrames() {
+        return droppedFrames;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.coursework1.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IlpConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private String endpoint;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        stub("/drones", 200);
+        stub("/service-points", 0);
+        stub("/restricted-areas", 1000);
+        streamSlowly("/drones-for-service-points", 300);
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterEach
+    void stopServer() {
+        callers.shutdownNow();
+        server.stop(0);
+    }
+
+    private void stub(String path, long delayMillis) {
+        server.createContext(path, exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            byte[] bytes = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try {
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (IOException ignored) {
+                // The client gave up on a slow response.
+            }
+        });
+    }
+
+    // Sends the headers straight away, then takes its time over the body.
+    private void streamSlowly(String path, long bodyMillis) {
+        server.createContext(path, exchange -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, 0);
+                out.write('[');
+                out.flush();
+                Thread.sleep(bodyMillis);
+                out.write(']');
+            } catch (IOException ignored) {
+                // The client gave up on a slow response.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        });
+    }
+
+    private RestTemplate client(int maxConcurrentRequests, long acquireTimeoutMillis) {
+        return IlpConfig.ilpRestTemplate(registry, Duration.ofSeconds(2),
+                resource -> resource.equals("restricted-areas") ? Duration.ofMillis(150) : Duration.ofSeconds(5),
+                maxConcurrentRequests, Duration.ofMillis(acquireTimeoutMillis));
+    }
+
+    @Test
+    void testConcurrentRequestsPerResourceAreBounded() throws Exception {
+        RestTemplate restTemplate = client(2, 5000);
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(callers.submit(() -> restTemplate.getForObject(endpoint + "drones", String.class)));
+        }
+        for (Future<String> future : futures) {
+            assertEquals("[]", future.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, maxConcurrent.get());
+        Timer timer = registry.get("ilp.client.requests").tag("resource", "drones").tag("status", "200").timer();
+        assertEquals(6, timer.count());
+        assertEquals(0.0, registry.get("ilp.client.in-flight").tag("resource", "drones").gauge().value());
+    }
+
+    @Test
+    void testLimitHoldsWhileResponseBodiesAreRead() throws Exception {
+        RestTemplate restTemplate = client(2, 5000);
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(callers.submit(
+                    () -> restTemplate.getForObject(endpoint + "drones-for-service-points", String.class)));
+        }
+        for (Future<String> future : futures) {
+            assertEquals("[]", future.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, maxConcurrent.get());
+        Timer timer = registry.get("ilp.client.requests").tag("resource", "drones-for-service-points")
+                .tag("status", "200").timer();
+        assertEquals(6, timer.count());
+        assertTrue(timer.max(TimeUnit.MILLISECONDS) >= 300, "Latency should include the body transfer");
+        assertEquals(0.0, registry.get("ilp.client.in-flight").tag("resource", "drones-for-service-points")
+                .gauge().value());
+    }
+
+    @Test
+    void testCallerFailsFastWhenResourceIsSaturated() throws Exception {
+        RestTemplate restTemplate = client(1, 50);
+
+        Future<String> first = callers.submit(() -> restTemplate.getForObject(endpoint + "drones", String.class));
+        Thread.sleep(50);
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(endpoint + "drones", String.class));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(190));
+        assertEquals("[]", first.get(10, TimeUnit.SECONDS));
+
+        assertEquals(1.0, registry.get("ilp.client.rejected").tag("resource", "drones").counter().count());
+        // Other resources have their own limit.
+        assertEquals("[]", restTemplate.getForObject(endpoint + "service-points", String.class));
+    }
+
+    @Test
+    void testReadTimeoutIsPerResource() throws Exception {
+        RestTemplate restTemplate = client(4, 5000);
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(endpoint + "restricted-areas", String.class));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(800));
+        assertEquals(1, registry.get("ilp.client.requests").tag("resource", "restricted-areas")
+                .tag("status", "IO_ERROR").timer().count());
+
+        // The 200ms drones endpoint is within its own, longer timeout.
+        Future<String> drones = callers.submit(() -> restTemplate.getForObject(endpoint + "drones", String.class));
+        try {
+            assertEquals("[]", drones.get(10, TimeUnit.SECONDS));
+        } catch (ExecutionException e) {
+            fail("Drones request should not time out: " + e.getCause());
+        }
+    }
+
+    @Test
+    void testSequentialRequestsReuseOneConnection() {
+        RestTemplate restTemplate = client(4, 5000);
+        for (int i = 0; i < 5; i++) {
+            restTemplate.getForObject(endpoint + "service-points", String.class);
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    void testResourceIsLastPathSegment() {
+        assertEquals("drones", IlpRequestFactory.resourceOf(URI.create("https://ilp.example/drones")));
+        assertEquals("drones-for-service-points",
+                IlpRequestFactory.resourceOf(URI.create("https://ilp.example/api/drones-for-service-points/")));
+        assertEquals("root", IlpRequestFactory.resourceOf(URI.create("https://ilp.example/")));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.coursework1.geometry;
+
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClearanceMapTest {
+
+    private static final double STEP = 0.00015;
+
+    private RestrictedAirspace airspace() {
+        List<PreparedRestrictedArea> areas = new ArrayList<>();
+        Random random = new Random(5);
+        for (int k = 0; k < 8; k++) {
+            double cx = random.nextDouble() * 0.02, cy = random.nextDouble() * 0.02;
+            List<Position> vertices = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                double angle = 2 * Math.PI * i / 6;
+                vertices.add(new Position(cx + 0.001 * Math.cos(angle), cy + 0.001 * Math.sin(angle)));
+            }
+            vertices.add(vertices.get(0));
+            areas.add(PreparedRestrictedArea.compile(new RestrictedArea("area-" + k, k, null, vertices)));
+        }
+        return RestrictedAirspace.of(areas);
+    }
+
+    private double exactClearance(RestrictedAirspace airspace, double x, double y) {
+        double best = Double.POSITIVE_INFINITY;
+        for (PreparedRestrictedArea area : airspace.getAreas()) {
+            if (area.contains(x, y)) return 0;
+            for (int i = 0; i < area.getEdgeCount(); i++) {
+                best = Math.min(best, area.distanceToEdge(i, x, y));
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void testClearanceNeverExceedsTrueDistance() {
+        RestrictedAirspace airspace = airspace();
+        Random random = new Random(23);
+
+        for (int i = 0; i < 100_000; i++) {
+            double x = random.nextDouble() * 0.04 - 0.01, y = random.nextDouble() * 0.04 - 0.01;
+            double exact = exactClearance(airspace, x, y);
+            double clearance = airspace.clearanceAt(x, y);
+
+            assertTrue(clearance <= exact, "Clearance " + clearance + " exceeds true distance " + exact);
+            if (exact == 0) {
+                assertEquals(0.0, clearance);
+            }
+        }
+    }
+
+    @Test
+    void testSegmentsShorterThanClearanceAreFree() {
+        RestrictedAirspace airspace = airspace();
+        Random random = new Random(29);
+
+        int skippable = 0;
+        for (int i = 0; i < 100_000; i++) {
+            double x = random.nextDouble() * 0.03 - 0.005, y = random.nextDouble() * 0.03 - 0.005;
+            double angle = Math.toRadians(22.5 * random.nextInt(16));
+            double x2 = x + STEP * Math.cos(angle), y2 = y + STEP * Math.sin(angle);
+
+            if (airspace.clearanceAt(x, y) > STEP) {
+                skippable++;
+                assertFalse(airspace.segmentIntersectsAnyArea(x, y, x2, y2));
+            }
+        }
+
+        assertTrue(skippable > 50_000, "Open airspace should mostly be resolved by the clearance map");
+    }
+
+    @Test
+    void testEmptyAirspaceHasUnboundedClearance() {
+        assertEquals(Double.POSITIVE_INFINITY, RestrictedAirspace.empty().clearanceAt(0.5, 0.5));
+    }
+}
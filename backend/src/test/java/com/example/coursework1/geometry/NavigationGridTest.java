@@ -0,0 +1,82 @@
+package com.example.coursework1.geometry;
+
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavigationGridTest {
+
+    private static final double STEP = 0.00015;
+
+    private RestrictedAirspace airspace() {
+        List<PreparedRestrictedArea> areas = new ArrayList<>();
+        Random random = new Random(3);
+        for (int k = 0; k < 12; k++) {
+            double cx = random.nextDouble() * 0.02, cy = random.nextDouble() * 0.02;
+            int n = 3 + random.nextInt(6);
+            List<Position> vertices = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                double angle = 2 * Math.PI * i / n;
+                double radius = 0.0005 + random.nextDouble() * 0.0015;
+                vertices.add(new Position(cx + radius * Math.cos(angle), cy + radius * Math.sin(angle)));
+            }
+            vertices.add(vertices.get(0));
+            areas.add(PreparedRestrictedArea.compile(new RestrictedArea("area-" + k, k, null, vertices)));
+        }
+        return RestrictedAirspace.of(areas);
+    }
+
+    @Test
+    void testClearBitsNeverHideABlockedMove() {
+        RestrictedAirspace airspace = airspace();
+        NavigationGrid grid = NavigationGrid.build(airspace, -0.005, -0.005, 0.025, 0.025, STEP);
+        Random random = new Random(17);
+
+        int clear = 0, queries = 200_000;
+        for (int i = 0; i < queries; i++) {
+            double x = random.nextDouble() * 0.03 - 0.005, y = random.nextDouble() * 0.03 - 0.005;
+            int direction = random.nextInt(NavigationGrid.DIRECTIONS);
+            double angle = Math.toRadians(direction * NavigationGrid.ANGLE_INCREMENT);
+
+            if (grid.isMoveKnownClear(x, y, direction)) {
+                clear++;
+                assertFalse(airspace.segmentIntersectsAnyArea(x, y, x + STEP * Math.cos(angle), y + STEP * Math.sin(angle)),
+                        "Grid reported a blocked move as clear at " + x + "," + y + " direction " + direction);
+            }
+        }
+
+        assertTrue(grid.getBlockedMoveCount() > 0);
+        assertTrue(clear > queries * 0.8, "Most moves in open airspace should be resolved by the bitmap");
+    }
+
+    @Test
+    void testPointsOutsideTheGridAreNeverKnownClear() {
+        NavigationGrid grid = NavigationGrid.build(airspace(), 0, 0, 0.01, 0.01, STEP);
+
+        assertFalse(grid.covers(-0.001, 0.005));
+        assertFalse(grid.isMoveKnownClear(-0.001, 0.005, 0));
+        assertFalse(grid.isMoveKnownClear(0.005, 0.0101, 4));
+    }
+
+    @Test
+    void testDirectionIndexWrapsAngles() {
+        assertEquals(0, NavigationGrid.directionIndex(0));
+        assertEquals(4, NavigationGrid.directionIndex(90));
+        assertEquals(0, NavigationGrid.directionIndex(360));
+        assertEquals(15, NavigationGrid.directionIndex(-22.5));
+    }
+
+    @Test
+    void testEmptyAirspaceLeavesEveryMoveClear() {
+        NavigationGrid grid = NavigationGrid.build(RestrictedAirspace.empty(), 0, 0, 0.01, 0.01, STEP);
+
+        assertEquals(0, grid.getBlockedMoveCount());
+        assertTrue(grid.isMoveKnownClear(0.005, 0.005, 7));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.coursework1.geometry;
+
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestrictedAirspaceBenchmarkTest {
+
+    private static final double STEP = 0.00015;
+    private static final double SPACING = 0.004;
+    private static final int QUERIES = 200_000;
+
+    // Lays out a gridSize x gridSize block of closed octagons, one per SPACING cell.
+    private RestrictedAirspace airspaceWithGrid(int gridSize) {
+        List<PreparedRestrictedArea> areas = new ArrayList<>();
+        for (int gx = 0; gx < gridSize; gx++) {
+            for (int gy = 0; gy < gridSize; gy++) {
+                double cx = gx * SPACING, cy = gy * SPACING;
+                List<Position> vertices = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    double angle = Math.PI * 2 * i / 8;
+                    vertices.add(new Position(cx + 0.001 * Math.cos(angle), cy + 0.001 * Math.sin(angle)));
+                }
+                vertices.add(vertices.get(0));
+                areas.add(PreparedRestrictedArea.compile(
+                        new RestrictedArea("area-" + gx + "-" + gy, gx * gridSize + gy, null, vertices)));
+            }
+        }
+        return RestrictedAirspace.of(areas);
+    }
+
+    private boolean bruteForceCrosses(RestrictedAirspace airspace, double x1, double y1, double x2, double y2) {
+        for (PreparedRestrictedArea area : airspace.getAreas()) {
+            if (area.intersectsSegment(x1, y1, x2, y2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testIndexedCrossingMatchesLinearScan() {
+        RestrictedAirspace airspace = airspaceWithGrid(10);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            double x = random.nextDouble() * 10 * SPACING, y = random.nextDouble() * 10 * SPACING;
+            double angle = Math.toRadians(22.5 * random.nextInt(16));
+            double x2 = x + STEP * Math.cos(angle), y2 = y + STEP * Math.sin(angle);
+
+            assertEquals(bruteForceCrosses(airspace, x, y, x2, y2),
+                    airspace.segmentIntersectsAnyArea(x, y, x2, y2));
+        }
+    }
+
+    @Test
+    void testQueryCostStaysFlatAsPolygonsAreAdded() {
+        int[] gridSizes = {2, 8, 32, 100};
+        double[] candidatesPerQuery = new double[gridSizes.length];
+        long[] nanosPerRun = new long[gridSizes.length];
+
+        for (int g = 0; g < gridSizes.length; g++) {
+            int gridSize = gridSizes[g];
+            RestrictedAirspace airspace = airspaceWithGrid(gridSize);
+            Random random = new Random(42);
+            double extent = gridSize * SPACING;
+
+            double[] xs = new double[QUERIES], ys = new double[QUERIES];
+            double[] dxs = new double[QUERIES], dys = new double[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                xs[i] = random.nextDouble() * extent;
+                ys[i] = random.nextDouble() * extent;
+                double angle = Math.toRadians(22.5 * random.nextInt(16));
+                dxs[i] = STEP * Math.cos(angle);
+                dys[i] = STEP * Math.sin(angle);
+            }
+
+            long candidates = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                candidates += airspace.countCandidateEdges(xs[i], ys[i], xs[i] + dxs[i], ys[i] + dys[i]);
+            }
+            candidatesPerQuery[g] = (double) candidates / QUERIES;
+
+            // Timed queries stay inside the same small window at every size, as a flight's steps do; spreading
+            // them over the whole map would mostly measure cache misses on the larger trees. Best of several
+            // runs after a warm-up, so JIT and GC noise don't decide the comparison.
+            double[] localXs = new double[QUERIES], localYs = new double[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                localXs[i] = random.nextDouble() * 2 * SPACING;
+                localYs[i] = random.nextDouble() * 2 * SPACING;
+            }
+            long best = Long.MAX_VALUE;
+            int hits = 0;
+            for (int run = 0; run < 6; run++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < QUERIES; i++) {
+                    if (airspace.segmentIntersectsAnyArea(localXs[i], localYs[i],
+                            localXs[i] + dxs[i], localYs[i] + dys[i])) hits++;
+                }
+                if (run > 0) best = Math.min(best, System.nanoTime() - start);
+            }
+            assertTrue(hits > 0);
+            nanosPerRun[g] = best;
+        }
+
+        for (int g = 1; g < gridSizes.length; g++) {
+            assertTrue(candidatesPerQuery[g] < candidatesPerQuery[0] * 2 + 1,
+                    "Candidate edges per query should not grow with the number of polygons");
+        }
+        // 2,500 times as many polygons. A linear scan would slow down by that much; the index only adds a few
+        // tree levels. The bound is loose so a busy machine doesn't fail the build.
+        assertTrue(nanosPerRun[gridSizes.length - 1] < nanosPerRun[0] * 25,
+                "Query time should stay roughly flat: " + nanosPerRun[0] + " ns vs "
+                        + nanosPerRun[gridSizes.length - 1] + " ns per " + QUERIES + " queries");
+    }
+}
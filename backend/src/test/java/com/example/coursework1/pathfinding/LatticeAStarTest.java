@@ -0,0 +1,129 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatticeAStarTest {
+
+    private static final double STEP = 0.00015;
+    private static final double CLOSE_THRESHOLD = 0.00015;
+    private static final int BUDGET = 60000;
+
+    private final LatticeAStar search = new LatticeAStar(STEP, CLOSE_THRESHOLD);
+
+    private RestrictedAirspace airspace(List<List<Position>> polygons) {
+        List<PreparedRestrictedArea> areas = new ArrayList<>();
+        for (int i = 0; i < polygons.size(); i++) {
+            areas.add(PreparedRestrictedArea.compile(new RestrictedArea("area-" + i, i, null, polygons.get(i))));
+        }
+        return RestrictedAirspace.of(areas);
+    }
+
+    private MoveValidator validator(RestrictedAirspace airspace) {
+        return new MoveValidator() {
+            @Override
+            public boolean isMoveBlocked(double fromLng, double fromLat, int direction, double toLng, double toLat) {
+                return airspace.segmentIntersectsAnyArea(fromLng, fromLat, toLng, toLat);
+            }
+
+            @Override
+            public double clearance(double lng, double lat) {
+                return airspace.clearanceAt(lng, lat);
+            }
+        };
+    }
+
+    // A U-shaped zone whose cavity opens away from the target: the classic trap for a greedy walker.
+    private List<Position> concaveTrap() {
+        return List.of(
+                new Position(0.002, 0.000),
+                new Position(0.004, 0.000),
+                new Position(0.004, 0.003),
+                new Position(0.002, 0.003),
+                new Position(0.002, 0.0025),
+                new Position(0.0035, 0.0025),
+                new Position(0.0035, 0.0005),
+                new Position(0.002, 0.0005),
+                new Position(0.002, 0.000));
+    }
+
+    private void assertValidPath(List<LngLat> path, RestrictedAirspace airspace, double toLng, double toLat) {
+        for (int i = 0; i < path.size() - 1; i++) {
+            LngLat a = path.get(i), b = path.get(i + 1);
+            double dx = b.getLng() - a.getLng(), dy = b.getLat() - a.getLat();
+
+            assertEquals(STEP, Math.sqrt(dx * dx + dy * dy), 1e-12, "Every move must be exactly one step");
+            double angle = Math.toDegrees(Math.atan2(dy, dx));
+            assertEquals(0, Math.abs(angle / 22.5 - Math.round(angle / 22.5)), 1e-6,
+                    "Every move must follow one of the 16 compass directions");
+            assertFalse(airspace.segmentIntersectsAnyArea(a.getLng(), a.getLat(), b.getLng(), b.getLat()),
+                    "Move " + i + " enters restricted airspace");
+        }
+
+        LngLat last = path.get(path.size() - 1);
+        double dx = last.getLng() - toLng, dy = last.getLat() - toLat;
+        assertTrue(Math.sqrt(dx * dx + dy * dy) < CLOSE_THRESHOLD);
+    }
+
+    @Test
+    void testStraightLineInOpenAirspace() {
+        RestrictedAirspace airspace = RestrictedAirspace.empty();
+
+        LatticeAStar.Result result = search.search(0, 0, 0.003, 0, BUDGET, validator(airspace));
+
+        assertTrue(result.isFound());
+        assertValidPath(result.getPath(), airspace, 0.003, 0);
+        assertEquals(20, result.getPath().size() - 1);
+        assertEquals(0, result.getCollisionChecks());
+    }
+
+    @Test
+    void testEscapesConcaveZoneWithNearOptimalPath() {
+        RestrictedAirspace airspace = airspace(List.of(concaveTrap()));
+        double fromLng = 0.0027, fromLat = 0.0015, toLng = 0.006, toLat = 0.0015;
+
+        LatticeAStar.Result result = search.search(fromLng, fromLat, toLng, toLat, BUDGET, validator(airspace));
+
+        assertTrue(result.isFound());
+        assertValidPath(result.getPath(), airspace, toLng, toLat);
+
+        // Out through the mouth, over the top arm's corners and down to the target: about 0.0062 degrees.
+        int moves = result.getPath().size() - 1;
+        assertTrue(moves < 0.0062 * 1.15 / STEP, "Path of " + moves + " moves is far from optimal");
+        assertTrue(result.getExpansions() < BUDGET);
+        assertTrue(result.getCollisionChecks() > 0);
+    }
+
+    @Test
+    void testAlreadyCloseReturnsSinglePoint() {
+        LatticeAStar.Result result = search.search(0, 0, 0.0001, 0, BUDGET, validator(RestrictedAirspace.empty()));
+
+        assertTrue(result.isFound());
+        assertEquals(1, result.getPath().size());
+    }
+
+    @Test
+    void testUnreachableTargetStopsAtExpansionBudget() {
+        List<Position> box = List.of(
+                new Position(0.001, 0.001),
+                new Position(0.002, 0.001),
+                new Position(0.002, 0.002),
+                new Position(0.001, 0.002),
+                new Position(0.001, 0.001));
+        RestrictedAirspace airspace = airspace(List.of(box));
+        LatticeAStar.Result result = search.search(0, 0, 0.0015, 0.0015, 2000, validator(airspace));
+
+        assertFalse(result.isFound());
+        assertNull(result.getPath());
+        assertTrue(result.getExpansions() > 2000);
+    }
+}
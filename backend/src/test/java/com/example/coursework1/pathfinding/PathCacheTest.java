@@ -0,0 +1,68 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.model.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathCacheTest {
+
+    private static final double QUANTUM = 0.00015 / 16;
+
+    private final List<LngLat> path = List.of(new LngLat(0, 0), new LngLat(0.00015, 0));
+
+    @Test
+    void testNearbyEndpointsShareAnEntry() {
+        PathCache cache = new PathCache(8, QUANTUM);
+        cache.put("astar", 0, 100, new Position(0.0, 0.0), new Position(0.001, 0.0), path);
+
+        PathCache.Entry entry = cache.get("astar", 0, 100, new Position(1e-7, -1e-7), new Position(0.001, 1e-7));
+
+        assertNotNull(entry);
+        assertEquals(new Position(0.0, 0.0), entry.getFrom());
+        assertEquals(2, entry.getPath().size());
+    }
+
+    @Test
+    void testEngineVersionAndBudgetArePartOfTheKey() {
+        PathCache cache = new PathCache(8, QUANTUM);
+        Position from = new Position(0.0, 0.0), to = new Position(0.001, 0.0);
+        cache.put("astar", 0, 100, from, to, path);
+
+        assertNull(cache.get("greedy", 0, 100, from, to));
+        assertNull(cache.get("astar", 1, 100, from, to));
+        assertNull(cache.get("astar", 0, 200, from, to));
+        assertNull(cache.get("astar", 0, 100, from, new Position(0.002, 0.0)));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        PathCache cache = new PathCache(2, QUANTUM);
+        Position a = new Position(0.0, 0.0), b = new Position(0.01, 0.0), c = new Position(0.02, 0.0);
+        Position to = new Position(0.005, 0.005);
+
+        cache.put("astar", 0, 100, a, to, path);
+        cache.put("astar", 0, 100, b, to, path);
+        cache.get("astar", 0, 100, a, to);
+        cache.put("astar", 0, 100, c, to, path);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("astar", 0, 100, a, to));
+        assertNull(cache.get("astar", 0, 100, b, to));
+        assertNotNull(cache.get("astar", 0, 100, c, to));
+    }
+
+    @Test
+    void testFailedSearchesAreCached() {
+        PathCache cache = new PathCache(8, QUANTUM);
+        Position from = new Position(0.0, 0.0), to = new Position(0.001, 0.0);
+        cache.put("astar", 0, 100, from, to, null);
+
+        PathCache.Entry entry = cache.get("astar", 0, 100, from, to);
+        assertNotNull(entry);
+        assertNull(entry.getPath());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.coursework1.pathfinding;
+
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathEngineComparisonTest {
+
+    private static final int BUDGET = 4000;
+
+    private final RestrictedAirspace airspace = RestrictedAirspace.of(List.of(
+            PreparedRestrictedArea.compile(new RestrictedArea("wall", 1, null, List.of(
+                    new Position(0.002, -0.002),
+                    new Position(0.0025, -0.002),
+                    new Position(0.0025, 0.002),
+                    new Position(0.002, 0.002),
+                    new Position(0.002, -0.002))))));
+
+    private final MoveValidator validator = new MoveValidator() {
+        @Override
+        public boolean isMoveBlocked(double fromLng, double fromLat, int direction, double toLng, double toLat) {
+            return airspace.segmentIntersectsAnyArea(fromLng, fromLat, toLng, toLat);
+        }
+
+        @Override
+        public double clearance(double lng, double lat) {
+            return airspace.clearanceAt(lng, lat);
+        }
+    };
+
+    @Test
+    void testEnginesReportStatsForTheSameLeg() {
+        Position from = new Position(0.0, 0.0005);
+        Position to = new Position(0.0045, 0.0);
+
+        PathSearchResult greedy = new GreedyPathEngine(validator).findPath(from, to, BUDGET);
+        PathSearchResult astar = new AStarPathEngine(validator).findPath(from, to, BUDGET);
+
+        assertEquals(GreedyPathEngine.NAME, greedy.getEngine());
+        assertEquals(AStarPathEngine.NAME, astar.getEngine());
+        assertTrue(astar.isFound());
+
+        for (PathSearchResult result : List.of(greedy, astar)) {
+            assertTrue(result.getIterations() > 0);
+            assertTrue(result.getWallTimeNanos() > 0);
+        }
+
+        if (greedy.isFound()) {
+            assertTrue(astar.getPath().size() <= greedy.getPath().size(),
+                    "A* should never return a longer route than the greedy walk");
+        }
+    }
+
+    @Test
+    void testRelaxedWalkIsReportedSeparately() {
+        PathSearchResult relaxed = new GreedyPathEngine(validator)
+                .findRelaxedPath(new Position(0.0, 0.0), new Position(0.001, 0.0), BUDGET);
+
+        assertEquals(GreedyPathEngine.NAME + "-relaxed", relaxed.getEngine());
+        assertTrue(relaxed.isFound());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.coursework1.repository;
+
+import com.example.coursework1.dto.Drone;
+import com.example.coursework1.dto.ServicePointDrones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DroneRepositoryTest {
+
+    private final AtomicInteger droneFetches = new AtomicInteger();
+    private final AtomicInteger servicePointFetches = new AtomicInteger();
+    private volatile boolean ilpDown;
+    private volatile int fleetSize = 3;
+
+    private final RestTemplate restTemplate = new RestTemplate() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+            droneFetches.incrementAndGet();
+            if (ilpDown) throw new ResourceAccessException("ILP unavailable");
+            Drone[] drones = new Drone[fleetSize];
+            for (int i = 0; i < fleetSize; i++) {
+                drones[i] = new Drone();
+                drones[i].setId(String.valueOf(i + 1));
+            }
+            return (T) drones;
+        }
+
+        @Override
+        public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                                              ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+            servicePointFetches.incrementAndGet();
+            @SuppressWarnings("unchecked")
+            T body = (T) new ArrayList<ServicePointDrones>();
+            return ResponseEntity.ok(body);
+        }
+    };
+
+    private DroneRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.shutdown();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out waiting for condition");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testCatalogIsFetchedOnceWithinTtl() {
+        repository = new DroneRepository(restTemplate, "http://localhost", 60_000);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(3, repository.fetchAllDrones().size());
+            assertEquals("2", repository.findDroneById("2").getId());
+            repository.fetchDronesForServicePoints();
+        }
+        assertNull(repository.findDroneById("missing"));
+        assertEquals(1, droneFetches.get());
+        assertEquals(1, servicePointFetches.get());
+        assertThrows(UnsupportedOperationException.class, () -> repository.fetchAllDrones().add(new Drone()));
+    }
+
+    @Test
+    void testStaleCatalogIsServedWhileRefreshing() throws Exception {
+        repository = new DroneRepository(restTemplate, "http://localhost", 20);
+        List<List<Drone>> refreshed = new ArrayList<>();
+        repository.addCatalogListener(drones -> {
+            synchronized (refreshed) {
+                refreshed.add(drones);
+            }
+        });
+
+        assertEquals(3, repository.fetchAllDrones().size());
+        fleetSize = 5;
+        Thread.sleep(40);
+
+        // The expired read still answers from the old snapshot and kicks off one refresh.
+        assertEquals(3, repository.fetchAllDrones().size());
+        waitUntil(() -> repository.fetchAllDrones().size() == 5);
+        assertNotNull(repository.findDroneById("5"));
+        // Listeners hear about the new snapshot just after it is published.
+        waitUntil(() -> {
+            synchronized (refreshed) {
+                return refreshed.size() >= 2;
+            }
+        });
+        synchronized (refreshed) {
+            assertEquals(2, refreshed.size());
+        }
+    }
+
+    @Test
+    void testFailedRefreshKeepsLastGoodCatalog() throws Exception {
+        repository = new DroneRepository(restTemplate, "http://localhost", 20);
+        assertEquals(3, repository.fetchAllDrones().size());
+
+        ilpDown = true;
+        Thread.sleep(40);
+        repository.fetchAllDrones();
+        waitUntil(() -> droneFetches.get() >= 2);
+        assertEquals(3, repository.fetchAllDrones().size());
+    }
+
+    @Test
+    void testInvalidateForcesFreshFetch() {
+        repository = new DroneRepository(restTemplate, "http://localhost", 60_000);
+        repository.fetchAllDrones();
+        repository.fetchDronesForServicePoints();
+
+        fleetSize = 4;
+        repository.invalidate();
+
+        assertEquals(4, repository.fetchAllDrones().size());
+        repository.fetchDronesForServicePoints();
+        assertEquals(2, droneFetches.get());
+        assertEquals(2, servicePointFetches.get());
+    }
+
+    @Test
+    void testColdFetchFailureIsNotCached() {
+        ilpDown = true;
+        repository = new DroneRepository(restTemplate, "http://localhost", 60_000);
+        assertTrue(repository.fetchAllDrones().isEmpty());
+
+        ilpDown = false;
+        assertEquals(3, repository.fetchAllDrones().size());
+    }
+}
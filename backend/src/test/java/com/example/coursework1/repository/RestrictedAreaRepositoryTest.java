@@ -0,0 +1,74 @@
+package com.example.coursework1.repository;
+
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestrictedAreaRepositoryTest {
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private final RestTemplate restTemplate = new RestTemplate() {
+        @Override
+        public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+                                              ParameterizedTypeReference<T> responseType, Object... uriVariables) {
+            fetches.incrementAndGet();
+            @SuppressWarnings("unchecked")
+            T body = (T) List.of(new RestrictedArea("block", 1, null, List.of(
+                    new Position(0.001, -0.001),
+                    new Position(0.0015, -0.001),
+                    new Position(0.0015, 0.001),
+                    new Position(0.001, 0.001),
+                    new Position(0.001, -0.001))));
+            return ResponseEntity.ok(body);
+        }
+    };
+
+    private final RestrictedAreaRepository repository = new RestrictedAreaRepository(restTemplate, "http://localhost/");
+
+    @Test
+    void testClearingRefetchesAreasAndAirspaceTogether() {
+        RestrictedAirspace first = repository.fetchAirspace();
+        assertEquals(1, repository.fetchRestrictedAreas().size());
+        assertEquals(1, first.getAreaCount());
+        assertEquals(1, fetches.get());
+
+        repository.clearCache();
+        RestrictedAirspace second = repository.fetchAirspace();
+        assertNotSame(first, second);
+        assertEquals(1, second.getAreaCount());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testConcurrentClearsNeverExposeAnEmptyAirspace() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread clearer = new Thread(() -> {
+            while (running.get()) {
+                repository.clearCache();
+            }
+        });
+        clearer.start();
+
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                assertEquals(1, repository.fetchAirspace().getAreaCount(), "Fetch " + i + " lost the no-fly zones");
+            }
+        } finally {
+            running.set(false);
+            clearer.join();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.coursework1.repository;
+
+import com.example.coursework1.dto.Drone;
+import com.example.coursework1.dto.ServicePoint;
+import com.example.coursework1.model.RestrictedArea;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the repositories against a local stub of the ILP service that answers slowly, so every concurrent
+// caller is in flight at the same time.
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private static final String DRONES = """
+            [{"id": "1", "name": "Drone 1", "capability": {"cooling": true, "heating": false, "capacity": 4.0,
+              "maxMoves": 2000, "costPerMove": 0.01, "costInitial": 4.3, "costFinal": 6.5}},
+             {"id": "2", "name": "Drone 2", "capability": {"cooling": false, "heating": true, "capacity": 8.0,
+              "maxMoves": 1000, "costPerMove": 0.03, "costInitial": 2.6, "costFinal": 5.4}}]
+            """;
+    private static final String SERVICE_POINTS = """
+            [{"id": 1, "name": "Appleton Tower", "location": {"lng": -3.1863580788, "lat": 55.9446806282, "alt": 50}}]
+            """;
+    private static final String RESTRICTED_AREAS = """
+            [{"name": "George Square Area", "id": 1, "limits": {"lower": 0, "upper": -1},
+              "vertices": [{"lng": -3.190578818321228, "lat": 55.94402412577528},
+                           {"lng": -3.1899887323379517, "lat": 55.94284650540911},
+                           {"lng": -3.187097311019897, "lat": 55.94328811724263},
+                           {"lng": -3.190578818321228, "lat": 55.94402412577528}]}]
+            """;
+
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final Map<String, Integer> statusCodes = new ConcurrentHashMap<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private HttpServer server;
+    private String endpoint;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        stub("/drones", DRONES);
+        stub("/drones-for-service-points", "[]");
+        stub("/service-points", SERVICE_POINTS);
+        stub("/restricted-areas", RESTRICTED_AREAS);
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterEach
+    void stopServer() {
+        callers.shutdownNow();
+        server.stop(0);
+    }
+
+    private void stub(String path, String body) {
+        hits.put(path, new AtomicInteger());
+        server.createContext(path, exchange -> {
+            hits.get(path).incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(statusCodes.getOrDefault(path, 200), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    // Starts every caller at once and returns their results.
+    private <T> List<T> concurrently(Supplier<T> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                return call.get();
+            }));
+        }
+        start.countDown();
+
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    @Test
+    void testConcurrentColdCatalogReadsShareOneFetch() throws Exception {
+        DroneRepository repository = new DroneRepository(new RestTemplate(), endpoint, 60_000);
+        try {
+            List<List<Drone>> results = concurrently(repository::fetchAllDrones);
+            for (List<Drone> drones : results) {
+                assertEquals(2, drones.size());
+            }
+            concurrently(repository::fetchDronesForServicePoints);
+
+            assertEquals(1, hits.get("/drones").get());
+            assertEquals(1, hits.get("/drones-for-service-points").get());
+        } finally {
+            repository.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentServicePointReadsShareOneFetch() throws Exception {
+        ServicePointRepository repository = new ServicePointRepository(new RestTemplate(), endpoint);
+
+        List<List<ServicePoint>> results = concurrently(repository::fetchAllServicePoints);
+        for (List<ServicePoint> points : results) {
+            assertEquals("Appleton Tower", points.get(0).getName());
+        }
+        assertEquals(1, hits.get("/service-points").get());
+
+        // Service points aren't cached, so a later burst is a new fetch.
+        concurrently(repository::fetchAllServicePoints);
+        assertEquals(2, hits.get("/service-points").get());
+    }
+
+    @Test
+    void testConcurrentColdRestrictedAreaReadsShareOneFetch() throws Exception {
+        RestrictedAreaRepository repository = new RestrictedAreaRepository(new RestTemplate(), endpoint);
+
+        List<List<RestrictedArea>> results = concurrently(repository::fetchRestrictedAreas);
+        for (List<RestrictedArea> areas : results) {
+            assertEquals(1, areas.size());
+        }
+        concurrently(repository::fetchAirspace);
+        assertEquals(1, hits.get("/restricted-areas").get());
+        assertEquals(1, repository.fetchAirspace().getAreaCount());
+    }
+
+    @Test
+    void testFailedFetchIsSharedAndNotCached() throws Exception {
+        statusCodes.put("/drones", 503);
+        DroneRepository repository = new DroneRepository(new RestTemplate(), endpoint, 60_000);
+        try {
+            for (List<Drone> drones : concurrently(repository::fetchAllDrones)) {
+                assertTrue(drones.isEmpty());
+            }
+            assertEquals(1, hits.get("/drones").get());
+
+            statusCodes.remove("/drones");
+            assertEquals(2, repository.fetchAllDrones().size());
+            assertEquals(2, hits.get("/drones").get());
+        } finally {
+            repository.shutdown();
+        }
+    }
+}
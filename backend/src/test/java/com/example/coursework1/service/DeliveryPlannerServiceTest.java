@@ -0,0 +1,230 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.*;
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import com.example.coursework1.pathfinding.AStarPathEngine;
+import com.example.coursework1.pathfinding.GreedyPathEngine;
+import com.example.coursework1.pathfinding.MoveValidator;
+import com.example.coursework1.repository.RestrictedAreaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryPlannerServiceTest {
+
+    private static final double STEP = 0.00015;
+
+    private final List<Drone> drones = new ArrayList<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private SimpleMeterRegistry registry;
+    private DeliveryPlannerService planner;
+    private DeliveryPlannerService greedyPlanner;
+    private NavigationGridService navigationGridService;
+    private RestrictedAirspace airspace = RestrictedAirspace.empty();
+
+    private static Drone drone(String id, double capacity, int maxMoves, double costPerMove) {
+        Capability cap = new Capability();
+        cap.setCapacity(capacity);
+        cap.setMaxMoves(maxMoves);
+        cap.setCostPerMove(costPerMove);
+        cap.setCostInitial(1.0);
+        cap.setCostFinal(1.0);
+
+        Drone drone = new Drone();
+        drone.setId(id);
+        drone.setName(id);
+        drone.setCapability(cap);
+        return drone;
+    }
+
+    private static MedDispatchRec dispatch(int id, double lng, double lat) {
+        return new MedDispatchRec(id, "2025-01-06", "10:00",
+                new Requirements(1.0, false, false, null), new Position(lng, lat));
+    }
+
+    @BeforeEach
+    void setUp() {
+        RestrictedAreaRepository repository = new RestrictedAreaRepository(null, "http://localhost/") {
+            @Override
+            public List<RestrictedArea> fetchRestrictedAreas() { return List.of(); }
+
+            @Override
+            public RestrictedAirspace fetchAirspace() { return airspace; }
+        };
+        registry = new SimpleMeterRegistry();
+        RestrictedAreaService restrictedAreaService = new RestrictedAreaService(repository, registry);
+
+        MoveValidator validator = new MoveValidator() {
+            @Override
+            public boolean isMoveBlocked(double fromLng, double fromLat, int direction, double toLng, double toLat) {
+                return restrictedAreaService.pathCrossesRestrictedArea(fromLng, fromLat, toLng, toLat);
+            }
+        };
+        GreedyPathEngine greedy = new GreedyPathEngine(validator);
+        PathEngineService pathEngineService = new PathEngineService(
+                List.of(new AStarPathEngine(validator), greedy), greedy, restrictedAreaService, registry, "astar", 64);
+
+        DroneService droneService = new DroneService(null) {
+            @Override
+            public List<Drone> fetchAllDrones() {
+                fetches.incrementAndGet();
+                return List.copyOf(drones);
+            }
+
+            @Override
+            public List<ServicePointDrones> fetchDronesForServicePoints() {
+                fetches.incrementAndGet();
+                return List.of();
+            }
+        };
+        ServicePointService servicePointService = new ServicePointService(null) {
+            @Override
+            public List<ServicePoint> fetchAllServicePoints() {
+                fetches.incrementAndGet();
+                return List.of();
+            }
+        };
+        DroneAvailabilityService availabilityService = new DroneAvailabilityService(droneService);
+
+        LegMatrixBuilder legMatrixBuilder = new LegMatrixBuilder(4);
+        navigationGridService = new NavigationGridService(restrictedAreaService, servicePointService);
+        planner = new DeliveryPlannerService(droneService, servicePointService, restrictedAreaService,
+                availabilityService, pathEngineService, new FleetRouteOptimizer(true, 10_000, 2000, 7),
+                legMatrixBuilder, navigationGridService);
+        greedyPlanner = new DeliveryPlannerService(droneService, servicePointService, restrictedAreaService,
+                availabilityService, pathEngineService, new FleetRouteOptimizer(false, 0, 0, 0), legMatrixBuilder,
+                navigationGridService);
+    }
+
+    private double pathLookups() {
+        return registry.get("planner.path.cache").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    @Test
+    void testSingleJourneyPicksCheapestFeasibleDrone() {
+        drones.add(drone("large-expensive", 10.0, 2000, 1.0));
+        drones.add(drone("small-cheap", 2.0, 2000, 0.5));
+        drones.add(drone("cheapest-short-range", 2.0, 5, 0.1));
+
+        CalcDeliveryResult result = planner.calcDeliveryPath(List.of(dispatch(1, 0.003, 0.0)));
+
+        assertEquals(1, result.getDronePaths().size());
+        assertEquals("small-cheap", result.getDronePaths().get(0).getDroneId());
+        assertEquals(2.0 + result.getTotalMoves() * 0.5, result.getTotalCost(), 1e-9);
+    }
+
+    @Test
+    void testSingleJourneyRouteIsPlannedOnceForWholeFleet() {
+        for (int i = 0; i < 20; i++) {
+            drones.add(drone("drone-" + i, 5.0, 2000, 1.0 + i));
+        }
+
+        CalcDeliveryResult result = planner.calcDeliveryPath(List.of(
+                dispatch(1, 0.003, 0.0), dispatch(2, 0.003, 0.002)));
+
+        assertEquals("drone-0", result.getDronePaths().get(0).getDroneId());
+        // Two deliveries plus the return leg, regardless of fleet size.
+        assertEquals(3.0, pathLookups(), 0.0);
+    }
+
+    @Test
+    void testMultiDronePlanFetchesOnce() {
+        for (int i = 0; i < 4; i++) {
+            drones.add(drone("drone-" + i, 1.0, 2000, 1.0));
+        }
+
+        List<MedDispatchRec> dispatches = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            dispatches.add(dispatch(i + 1, 0.001 * (i + 1), 0.0));
+        }
+        // The navigation grid is built once per airspace, not once per plan.
+        navigationGridService.getGrid();
+        fetches.set(0);
+        CalcDeliveryResult result = planner.calcDeliveryPath(dispatches);
+
+        assertEquals(6, result.getDronePaths().stream().mapToInt(p -> p.getDeliveries().size()).sum());
+        // Drones, drones-for-service-points and service points, once each for the whole plan.
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    void testOptimizedMultiDronePlanUsesCheaperDrones() {
+        // The greedy planner always starts with the largest drone, so it flies everything on the expensive
+        // one; the optimizer splits the work into two flights of the cheap drone.
+        drones.add(drone("large-expensive", 10.0, 2000, 5.0));
+        drones.add(drone("small-cheap", 6.0, 2000, 0.5));
+
+        List<MedDispatchRec> dispatches = List.of(
+                dispatch(1, 0.003, 0.0002), dispatch(2, -0.003, 0.0002), dispatch(3, 0.0033, 0.0),
+                dispatch(4, -0.0033, 0.0), dispatch(5, 0.003, -0.0002), dispatch(6, -0.003, -0.0002));
+        // 12 units in total, more than any one drone carries, so no single journey is possible.
+        dispatches.forEach(d -> d.getRequirements().setCapacity(2.0));
+
+        CalcDeliveryResult greedy = greedyPlanner.calcDeliveryPath(dispatches);
+        CalcDeliveryResult optimized = planner.calcDeliveryPath(dispatches);
+
+        assertEquals(List.of("large-expensive"),
+                greedy.getDronePaths().stream().map(DronePathResult::getDroneId).toList());
+        assertEquals(1, optimized.getDronePaths().size());
+        DronePathResult path = optimized.getDronePaths().get(0);
+        assertEquals("small-cheap", path.getDroneId());
+        assertEquals(6, path.getDeliveries().size());
+        assertTrue(optimized.getTotalCost() < greedy.getTotalCost() / 2);
+
+        // Reported moves match the laid-out paths: every point after the first of a flight is one move.
+        int points = path.getDeliveries().stream().mapToInt(d -> d.getFlightPath().size()).sum();
+        int flights = (int) Math.round((optimized.getTotalCost() - optimized.getTotalMoves() * 0.5) / 2.0);
+        assertEquals(2, flights);
+        assertEquals(optimized.getTotalMoves(), points - flights);
+    }
+
+    @Test
+    void testOptimizedFlightsAreUnbrokenLatticeMoves() {
+        // A wall between the base and the eastern dispatches, so most legs have to bend around it.
+        airspace = RestrictedAirspace.of(List.of(PreparedRestrictedArea.compile(new RestrictedArea("wall", 1, null,
+                List.of(new Position(0.0015, -0.001), new Position(0.002, -0.001), new Position(0.002, 0.001),
+                        new Position(0.0015, 0.001), new Position(0.0015, -0.001))))));
+        drones.add(drone("drone", 3.0, 2000, 1.0));
+
+        List<MedDispatchRec> dispatches = List.of(
+                dispatch(1, 0.003, 0.0004), dispatch(2, 0.0035, 0.0), dispatch(3, 0.003, -0.0004),
+                dispatch(4, -0.002, 0.0003), dispatch(5, -0.0025, 0.0), dispatch(6, -0.002, -0.0003));
+        CalcDeliveryResult result = planner.calcDeliveryPath(dispatches);
+
+        int deliveries = 0, chained = 0;
+        for (DronePathResult dronePath : result.getDronePaths()) {
+            List<LngLat> points = new ArrayList<>();
+            for (DeliveryResult delivery : dronePath.getDeliveries()) {
+                LngLat first = delivery.getFlightPath().get(0);
+                if (first.getLng() != 0.0 || first.getLat() != 0.0) chained++;
+                points.addAll(delivery.getFlightPath());
+                deliveries++;
+            }
+
+            for (int i = 1; i < points.size(); i++) {
+                LngLat a = points.get(i - 1), b = points.get(i);
+                double gap = Math.hypot(b.getLng() - a.getLng(), b.getLat() - a.getLat());
+                if (Math.abs(gap) > 1e-12 && Math.abs(gap - STEP) > 1e-12) {
+                    // Only allowed where one flight ends near the base and the next leaves from it.
+                    assertEquals(0.0, b.getLng());
+                    assertEquals(0.0, b.getLat());
+                    assertTrue(Math.hypot(a.getLng(), a.getLat()) < STEP, "Gap of " + gap + " at point " + i);
+                }
+                assertFalse(airspace.segmentIntersectsAnyArea(a.getLng(), a.getLat(), b.getLng(), b.getLat()),
+                        "Move " + i + " crosses the wall");
+            }
+        }
+        assertEquals(6, deliveries);
+        assertTrue(chained > 0, "Some flights should carry more than one delivery");
+    }
+}
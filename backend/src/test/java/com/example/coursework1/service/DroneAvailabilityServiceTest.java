@@ -0,0 +1,203 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DroneAvailabilityServiceTest {
+
+    private static final String[] DAYS = {"MONDAY", "Tuesday", "wednesday", "THURSDAY", "FRIDAY", "Saturday", "SUNDAY"};
+
+    private List<Drone> drones = new ArrayList<>();
+    private List<ServicePointDrones> servicePoints = new ArrayList<>();
+
+    private final DroneAvailabilityService service = new DroneAvailabilityService(new DroneService(null) {
+        @Override
+        public List<Drone> fetchAllDrones() { return drones; }
+
+        @Override
+        public List<ServicePointDrones> fetchDronesForServicePoints() { return servicePoints; }
+    });
+
+    private static Drone drone(String id) {
+        Capability cap = new Capability();
+        cap.setCapacity(10.0);
+        Drone drone = new Drone();
+        drone.setId(id);
+        drone.setName(id);
+        drone.setCapability(cap);
+        return drone;
+    }
+
+    private static TimeWindow window(String day, String from, String until) {
+        TimeWindow window = new TimeWindow();
+        window.setDayOfWeek(day);
+        window.setFrom(from);
+        window.setUntil(until);
+        return window;
+    }
+
+    private static ServicePointDrones servicePoint(int id, String droneId, List<TimeWindow> windows) {
+        DroneWithAvailability drone = new DroneWithAvailability();
+        drone.setId(droneId);
+        drone.setAvailability(windows);
+        ServicePointDrones sp = new ServicePointDrones();
+        sp.setServicePointId(id);
+        sp.setDrones(List.of(drone));
+        return sp;
+    }
+
+    private static MedDispatchRec dispatch(String date, String time) {
+        return new MedDispatchRec(1, date, time, new Requirements(1.0, false, false, null), null);
+    }
+
+    private List<String> query(String date, String time) {
+        return service.queryAvailableDrones(List.of(dispatch(date, time)));
+    }
+
+    @Test
+    void testWindowBoundsAreInclusiveAndDaysCaseInsensitive() {
+        drones = List.of(drone("1"), drone("2"));
+        servicePoints = List.of(servicePoint(1, "1", List.of(
+                window("monday", "09:00", "12:00"),
+                window("Monday", "14:00:00", "17:30"))));
+
+        // 2025-01-06 is a Monday. Drone 2 has no windows, so it is always available.
+        assertEquals(List.of("1", "2"), query("2025-01-06", "09:00"));
+        assertEquals(List.of("1", "2"), query("2025-01-06", "12:00:00"));
+        assertEquals(List.of("2"), query("2025-01-06", "12:00:30"));
+        assertEquals(List.of("1", "2"), query("2025-01-06", "17:30"));
+        assertEquals(List.of("2"), query("2025-01-06", "13:59"));
+        assertEquals(List.of("2"), query("2025-01-07", "10:00"));
+
+        // Missing or unparseable dates and times don't restrict anything.
+        assertEquals(List.of("1", "2"), query(null, "23:00"));
+        assertEquals(List.of("1", "2"), query("06/01/2025", "23:00"));
+        assertEquals(List.of("1", "2"), query("2025-01-07", "ten o'clock"));
+    }
+
+    @Test
+    void testOverlappingWindowsAreMerged() {
+        drones = List.of(drone("1"));
+        servicePoints = List.of(servicePoint(1, "1", List.of(
+                window("FRIDAY", "13:00", "15:00"),
+                window("FRIDAY", "08:00", "10:00"),
+                window("FRIDAY", "9:30", "11:00"),
+                window("FRIDAY", "20:00", "19:00"),
+                window("FRIDAY", "bad", "11:00"))));
+
+        // 2025-01-10 is a Friday.
+        assertEquals(List.of("1"), query("2025-01-10", "10:30"));
+        assertEquals(List.of(), query("2025-01-10", "12:00"));
+        assertEquals(List.of("1"), query("2025-01-10", "15:00"));
+        assertEquals(List.of(), query("2025-01-10", "19:30"));
+    }
+
+    @Test
+    void testIndexIsCompiledOncePerSnapshot() {
+        drones = List.of(drone("1"));
+        servicePoints = List.of(servicePoint(1, "1", List.of(window("MONDAY", "09:00", "12:00"))));
+
+        AvailabilityIndex first = service.availabilityIndex();
+        assertSame(first, service.availabilityIndex());
+
+        servicePoints = List.of(servicePoint(1, "1", List.of(window("TUESDAY", "09:00", "12:00"))));
+        assertNotSame(first, service.availabilityIndex());
+        assertEquals(List.of("1"), query("2025-01-07", "10:00"));
+        assertEquals(List.of(), query("2025-01-06", "10:00"));
+    }
+
+    // The pre-index check: parse every window on every query and compare LocalTimes.
+    private static boolean legacyIsAvailable(List<TimeWindow> windows, String date, String time) {
+        if (date == null || time == null || windows == null || windows.isEmpty()) return true;
+        try {
+            String dayName = LocalDate.parse(date).getDayOfWeek().toString();
+            LocalTime dispatchTime = legacyParseTime(time);
+            if (dispatchTime == null) return true;
+            for (TimeWindow window : windows) {
+                if (!window.getDayOfWeek().equalsIgnoreCase(dayName)) continue;
+                LocalTime from = legacyParseTime(window.getFrom());
+                LocalTime until = legacyParseTime(window.getUntil());
+                if (from == null || until == null) continue;
+                if (!dispatchTime.isBefore(from) && !dispatchTime.isAfter(until)) return true;
+            }
+            return false;
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    private static LocalTime legacyParseTime(String text) {
+        if (text == null || text.isEmpty()) return null;
+        for (String pattern : new String[] {"HH:mm:ss", "H:mm:ss", "HH:mm", "H:mm"}) {
+            try {
+                return LocalTime.parse(text, DateTimeFormatter.ofPattern(pattern));
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return null;
+    }
+
+    private static String randomTime(Random random) {
+        int hour = random.nextInt(24), minute = random.nextInt(60), second = random.nextInt(60);
+        switch (random.nextInt(3)) {
+            case 0: return String.format("%02d:%02d", hour, minute);
+            case 1: return String.format("%d:%02d", hour, minute);
+            default: return String.format("%02d:%02d:%02d", hour, minute, second);
+        }
+    }
+
+    @Test
+    void testMatchesLegacyWindowCheck() {
+        Random random = new Random(21);
+        List<List<TimeWindow>> windowsByDrone = new ArrayList<>();
+        drones = new ArrayList<>();
+        servicePoints = new ArrayList<>();
+        for (int d = 0; d < 40; d++) {
+            List<TimeWindow> windows = new ArrayList<>();
+            int count = random.nextInt(8);
+            for (int w = 0; w < count; w++) {
+                windows.add(window(DAYS[random.nextInt(7)], randomTime(random), randomTime(random)));
+            }
+            windowsByDrone.add(windows);
+            drones.add(drone("d" + d));
+            servicePoints.add(servicePoint(d, "d" + d, windows));
+        }
+
+        LocalDate monday = LocalDate.of(2025, 1, 6);
+        for (int q = 0; q < 500; q++) {
+            String date = monday.plusDays(random.nextInt(7)).toString();
+            String time = randomTime(random);
+
+            List<String> expected = new ArrayList<>();
+            for (int d = 0; d < drones.size(); d++) {
+                if (legacyIsAvailable(windowsByDrone.get(d), date, time)) expected.add("d" + d);
+            }
+            assertEquals(expected, query(date, time), "Mismatch for " + date + " " + time);
+        }
+    }
+
+    @Test
+    void testIndexLookupAgreesWithDayOrdinal() {
+        AvailabilityIndex index = AvailabilityIndex.compile(List.of(servicePoint(1, "1",
+                List.of(window("sunday", "0:00", "23:59:59")))));
+        assertTrue(index.hasWindows("1"));
+        assertFalse(index.hasWindows("2"));
+        assertTrue(index.isAvailable("1", DayOfWeek.SUNDAY, 0));
+        assertTrue(index.isAvailable("1", DayOfWeek.SUNDAY, 86_399));
+        assertFalse(index.isAvailable("1", DayOfWeek.SATURDAY, 43_200));
+        assertTrue(index.isAvailable("2", DayOfWeek.SATURDAY, 43_200));
+        assertEquals(45_296, AvailabilityIndex.parseSecondOfDay("12:34:56"));
+        assertEquals(-1, AvailabilityIndex.parseSecondOfDay("25:00"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Capability;
+import com.example.coursework1.dto.Drone;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DroneEligibilityIndexTest {
+
+    private static Drone drone(String id, double capacity, boolean cooling, boolean heating, int maxMoves) {
+        Capability cap = new Capability();
+        cap.setCapacity(capacity);
+        cap.setCooling(cooling);
+        cap.setHeating(heating);
+        cap.setMaxMoves(maxMoves);
+        Drone drone = new Drone();
+        drone.setId(id);
+        drone.setName(id);
+        drone.setCapability(cap);
+        return drone;
+    }
+
+    private static List<String> ids(List<Drone> drones) {
+        return drones.stream().map(Drone::getId).toList();
+    }
+
+    // The stream filters the services used before the index.
+    private static List<String> scan(List<Drone> drones, double minCapacity, boolean cooling, boolean heating,
+                                     int minMoves) {
+        return drones.stream()
+                .filter(d -> d.getCapability() != null)
+                .filter(d -> d.getCapability().getCapacity() >= minCapacity)
+                .filter(d -> !cooling || d.getCapability().isCooling())
+                .filter(d -> !heating || d.getCapability().isHeating())
+                .filter(d -> d.getCapability().getMaxMoves() >= minMoves)
+                .map(Drone::getId)
+                .toList();
+    }
+
+    @Test
+    void testRequirementsSelectCoveringMasksInCatalogOrder() {
+        Drone bare = new Drone();
+        bare.setId("no-capability");
+        List<Drone> drones = List.of(
+                drone("both", 4.0, true, true, 1000),
+                bare,
+                drone("cold", 8.0, true, false, 2000),
+                drone("hot", 2.0, false, true, 1500),
+                drone("plain", 12.0, false, false, 500));
+        DroneEligibilityIndex index = DroneEligibilityIndex.of(drones);
+
+        assertEquals(List.of("both", "cold", "hot", "plain"), ids(index.eligible(0, false, false, 0)));
+        assertEquals(List.of("both", "cold"), ids(index.eligible(0, true, false, 0)));
+        assertEquals(List.of("both", "hot"), ids(index.eligible(2.0, false, true, 0)));
+        assertEquals(List.of("both"), ids(index.eligible(0, true, true, 0)));
+        assertEquals(List.of("cold", "plain"), ids(index.eligible(4.5, false, false, 0)));
+        assertEquals(List.of("cold"), ids(index.eligible(4.5, false, false, 1000)));
+        assertEquals(List.of(), ids(index.eligible(20.0, false, false, 0)));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        Random random = new Random(22);
+        List<Drone> drones = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            drones.add(drone("d" + i, random.nextInt(40) / 2.0, random.nextBoolean(), random.nextBoolean(),
+                    500 * (1 + random.nextInt(8))));
+        }
+        DroneEligibilityIndex index = DroneEligibilityIndex.of(drones);
+
+        for (int q = 0; q < 1000; q++) {
+            double capacity = random.nextInt(44) / 2.0 - 1.0;
+            boolean cooling = random.nextBoolean(), heating = random.nextBoolean();
+            int moves = random.nextInt(4) == 0 ? Integer.MIN_VALUE : 250 * random.nextInt(18);
+            assertEquals(scan(drones, capacity, cooling, heating, moves),
+                    ids(index.eligible(capacity, cooling, heating, moves)));
+        }
+    }
+
+    @Test
+    void testServiceRebuildsIndexOnlyForANewDroneList() {
+        List<List<Drone>> catalog = new ArrayList<>(List.of(List.of(drone("1", 4.0, false, false, 100))));
+        DroneService droneService = new DroneService(null) {
+            @Override
+            public List<Drone> fetchAllDrones() { return catalog.get(0); }
+        };
+
+        DroneEligibilityIndex first = droneService.eligibility();
+        assertSame(first, droneService.eligibility());
+
+        catalog.set(0, List.of(drone("1", 4.0, false, false, 100), drone("2", 6.0, true, false, 100)));
+        DroneEligibilityIndex second = droneService.eligibility();
+        assertNotSame(first, second);
+        assertEquals(List.of("2"), ids(second.eligible(5.0, true, false, 0)));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Viewport;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DroneSpatialIndexTest {
+
+    @Test
+    void testQueriesMatchBruteForceAsDronesMove() {
+        DroneSpatialIndex index = new DroneSpatialIndex(0.002);
+        Random random = new Random(7);
+        double[][] positions = new double[500][];
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < positions.length; i++) {
+                if (round > 0 && i % 50 == round) {
+                    index.remove(i);
+                    positions[i] = null;
+                    continue;
+                }
+                double lng = -3.25 + random.nextDouble() * 0.1;
+                double lat = 55.90 + random.nextDouble() * 0.08;
+                index.update(i, lng, lat);
+                positions[i] = new double[] {lng, lat};
+            }
+
+            double minLng = -3.25 + random.nextDouble() * 0.08;
+            double minLat = 55.90 + random.nextDouble() * 0.06;
+            double size = round % 2 == 0 ? 0.005 : 0.2;
+            Viewport viewport = new Viewport(minLng, minLat, minLng + size, minLat + size);
+
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < positions.length; i++) {
+                if (positions[i] != null && viewport.contains(positions[i][0], positions[i][1])) {
+                    expected.add(i);
+                }
+            }
+            assertEquals(expected, index.within(viewport), "round " + round);
+        }
+    }
+
+    @Test
+    void testRemovedDroneIsNotReturned() {
+        DroneSpatialIndex index = new DroneSpatialIndex(0.002);
+        index.update(1, -3.19, 55.944);
+        index.update(2, -3.19, 55.944);
+        index.remove(1);
+
+        assertEquals(Set.of(2), index.within(new Viewport(-3.2, 55.94, -3.18, 55.95)));
+        assertEquals(1, index.size());
+    }
+}
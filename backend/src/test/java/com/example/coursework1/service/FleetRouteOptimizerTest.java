@@ -0,0 +1,207 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Capability;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetRouteOptimizerTest {
+
+    private final FleetRouteOptimizer optimizer = new FleetRouteOptimizer(true, 10_000, 3000, 7);
+
+    private static FleetRouteOptimizer.Vehicle vehicle(String id, double capacity, int maxMoves,
+                                                       double fixedCost, double costPerMove) {
+        Capability cap = new Capability();
+        cap.setCapacity(capacity);
+        cap.setMaxMoves(maxMoves);
+        cap.setCostInitial(fixedCost / 2);
+        cap.setCostFinal(fixedCost / 2);
+        cap.setCostPerMove(costPerMove);
+        return new FleetRouteOptimizer.Vehicle(id, cap);
+    }
+
+    // Stops on a plane one move apart per unit; a leg to a stop costs an extra move for the hover.
+    private static FleetRouteOptimizer.LegCosts planar(double[][] points) {
+        return (from, to) -> {
+            double dx = points[from][0] - points[to][0], dy = points[from][1] - points[to][1];
+            int moves = (int) Math.ceil(Math.sqrt(dx * dx + dy * dy));
+            return to == 0 ? moves : moves + 1;
+        };
+    }
+
+    private static boolean[][] all(int vehicles, int jobs) {
+        boolean[][] canServe = new boolean[vehicles][jobs];
+        for (boolean[] row : canServe) Arrays.fill(row, true);
+        return canServe;
+    }
+
+    private static int flightMoves(List<Integer> jobs, FleetRouteOptimizer.LegCosts legs) {
+        int moves = 0, prev = 0;
+        for (int job : jobs) {
+            moves += legs.moves(prev, job + 1);
+            prev = job + 1;
+        }
+        return moves + legs.moves(prev, 0);
+    }
+
+    private static void assertFeasible(FleetRouteOptimizer.RoutePlan plan, double[] demands,
+                                       List<FleetRouteOptimizer.Vehicle> vehicles, boolean[][] canServe,
+                                       FleetRouteOptimizer.LegCosts legs) {
+        Set<Integer> seen = new HashSet<>(plan.unassigned);
+        double cost = 0;
+        int moves = 0;
+        for (FleetRouteOptimizer.Flight flight : plan.flights) {
+            FleetRouteOptimizer.Vehicle vehicle = vehicles.get(flight.vehicle);
+            double load = 0;
+            for (int job : flight.jobs) {
+                assertTrue(seen.add(job), "job " + job + " planned twice");
+                assertTrue(canServe[flight.vehicle][job]);
+                load += demands[job];
+            }
+            assertTrue(load <= vehicle.capacity + 1e-9);
+            assertEquals(flightMoves(flight.jobs, legs), flight.moves);
+            assertTrue(flight.moves <= vehicle.maxMoves);
+            assertEquals(vehicle.fixedCost + flight.moves * vehicle.costPerMove, flight.cost, 1e-9);
+            cost += flight.cost;
+            moves += flight.moves;
+        }
+        assertEquals(demands.length, seen.size());
+        assertEquals(cost, plan.cost, 1e-9);
+        assertEquals(moves, plan.moves);
+    }
+
+    // The old planner: drones by descending capacity, each flying nearest-neighbour flights until nothing fits.
+    private static double nearestNeighbourCost(double[] demands, List<FleetRouteOptimizer.Vehicle> vehicles,
+                                               double[][] points, FleetRouteOptimizer.LegCosts legs) {
+        List<Integer> pending = new ArrayList<>();
+        for (int j = 0; j < demands.length; j++) pending.add(j);
+        List<FleetRouteOptimizer.Vehicle> byCapacity = new ArrayList<>(vehicles);
+        byCapacity.sort((a, b) -> Double.compare(b.capacity, a.capacity));
+
+        double cost = 0;
+        for (FleetRouteOptimizer.Vehicle vehicle : byCapacity) {
+            while (!pending.isEmpty()) {
+                List<Integer> flight = new ArrayList<>();
+                List<Integer> candidates = new ArrayList<>(pending);
+                int at = 0, used = 0;
+                double load = 0;
+                while (!candidates.isEmpty()) {
+                    int here = at;
+                    int next = candidates.stream().min((a, b) -> Double.compare(
+                            Math.hypot(points[a + 1][0] - points[here][0], points[a + 1][1] - points[here][1]),
+                            Math.hypot(points[b + 1][0] - points[here][0], points[b + 1][1] - points[here][1])))
+                            .orElseThrow();
+                    candidates.remove(Integer.valueOf(next));
+                    int leg = legs.moves(at, next + 1);
+                    if (load + demands[next] > vehicle.capacity + 1e-12
+                            || used + leg + legs.moves(next + 1, 0) > vehicle.maxMoves) continue;
+                    flight.add(next);
+                    pending.remove(Integer.valueOf(next));
+                    load += demands[next];
+                    used += leg;
+                    at = next + 1;
+                }
+                if (flight.isEmpty()) break;
+                cost += vehicle.fixedCost + (used + legs.moves(at, 0)) * vehicle.costPerMove;
+            }
+        }
+        assertTrue(pending.isEmpty());
+        return cost;
+    }
+
+    @Test
+    void testFlightsRespectCapacityAndRange() {
+        Random random = new Random(5);
+        int jobs = 24;
+        double[][] points = new double[jobs + 1][];
+        points[0] = new double[] {0, 0};
+        double[] demands = new double[jobs];
+        for (int j = 0; j < jobs; j++) {
+            points[j + 1] = new double[] {random.nextInt(61) - 30, random.nextInt(61) - 30};
+            demands[j] = 0.5 + random.nextInt(4) * 0.5;
+        }
+        List<FleetRouteOptimizer.Vehicle> vehicles = List.of(
+                vehicle("large", 8.0, 400, 10.0, 0.05),
+                vehicle("small", 3.0, 200, 4.0, 0.02),
+                vehicle("short", 4.0, 90, 2.0, 0.01));
+        FleetRouteOptimizer.LegCosts legs = planar(points);
+        boolean[][] canServe = all(vehicles.size(), jobs);
+
+        FleetRouteOptimizer.RoutePlan plan = optimizer.optimize(demands, vehicles, canServe, legs);
+
+        assertTrue(plan.unassigned.isEmpty());
+        assertFeasible(plan, demands, vehicles, canServe, legs);
+        assertTrue(plan.cost < nearestNeighbourCost(demands, vehicles, points, legs));
+    }
+
+    @Test
+    void testBeatsNearestNeighbourOnTwoClusters() {
+        // Nearest-neighbour zig-zags between the two clusters once capacity runs out; grouping each cluster
+        // into its own flight is much shorter.
+        double[][] points = {{0, 0}, {10, 1}, {-10, 1}, {11, 0}, {-11, 0}, {10, -1}, {-10, -1}};
+        double[] demands = {1, 1, 1, 1, 1, 1};
+        List<FleetRouteOptimizer.Vehicle> vehicles = List.of(vehicle("d", 3.0, 200, 2.0, 1.0));
+        FleetRouteOptimizer.LegCosts legs = planar(points);
+
+        FleetRouteOptimizer.RoutePlan plan = optimizer.optimize(demands, vehicles, all(1, 6), legs);
+
+        assertFeasible(plan, demands, vehicles, all(1, 6), legs);
+        assertEquals(2, plan.flights.size());
+        for (FleetRouteOptimizer.Flight flight : plan.flights) {
+            long west = flight.jobs.stream().filter(j -> points[j + 1][0] < 0).count();
+            assertTrue(west == 0 || west == flight.jobs.size());
+        }
+        assertTrue(plan.cost <= nearestNeighbourCost(demands, vehicles, points, legs));
+    }
+
+    @Test
+    void testRestrictedAndUnreachableJobs() {
+        double[][] points = {{0, 0}, {5, 0}, {0, 5}, {50, 50}};
+        double[] demands = {1, 1, 1};
+        List<FleetRouteOptimizer.Vehicle> vehicles = List.of(
+                vehicle("cheap", 4.0, 100, 1.0, 0.01),
+                vehicle("cooled", 4.0, 100, 5.0, 0.1));
+        // Job 1 needs the cooled drone; job 2 is cut off by a restricted area.
+        boolean[][] canServe = {{true, false, true}, {true, true, true}};
+        FleetRouteOptimizer.LegCosts planar = planar(points);
+        FleetRouteOptimizer.LegCosts legs = (from, to) -> from == 3 || to == 3 ? -1 : planar.moves(from, to);
+
+        FleetRouteOptimizer.RoutePlan plan = optimizer.optimize(demands, vehicles, canServe, legs);
+
+        assertEquals(List.of(2), plan.unassigned);
+        assertFeasible(plan, demands, vehicles, canServe, legs);
+        for (FleetRouteOptimizer.Flight flight : plan.flights) {
+            if (flight.jobs.contains(1)) assertEquals(1, flight.vehicle);
+        }
+    }
+
+    @Test
+    void testSameSeedGivesSamePlan() {
+        Random random = new Random(9);
+        double[][] points = new double[13][];
+        points[0] = new double[] {0, 0};
+        double[] demands = new double[12];
+        for (int j = 0; j < 12; j++) {
+            points[j + 1] = new double[] {random.nextInt(41) - 20, random.nextInt(41) - 20};
+            demands[j] = 1;
+        }
+        List<FleetRouteOptimizer.Vehicle> vehicles = List.of(vehicle("a", 3.0, 150, 3.0, 0.1),
+                vehicle("b", 5.0, 150, 6.0, 0.1));
+
+        FleetRouteOptimizer.RoutePlan first = optimizer.optimize(demands, vehicles, all(2, 12), planar(points));
+        FleetRouteOptimizer.RoutePlan second = optimizer.optimize(demands, vehicles, all(2, 12), planar(points));
+
+        assertEquals(first.cost, second.cost);
+        assertEquals(first.flights.size(), second.flights.size());
+        for (int i = 0; i < first.flights.size(); i++) {
+            assertEquals(first.flights.get(i).jobs, second.flights.get(i).jobs);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Capability;
+import com.example.coursework1.dto.Drone;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetStatusServiceTest {
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private Consumer<List<Drone>> catalogListener;
+    private final List<Drone> drones = new ArrayList<>(List.of(drone("1", true), drone("2", true),
+            drone("3", true), drone("4", false)));
+
+    private final FleetStatusService fleetStatus = new FleetStatusService(new DroneService(null) {
+        @Override
+        public List<Drone> fetchAllDrones() {
+            fetches.incrementAndGet();
+            return List.copyOf(drones);
+        }
+
+        @Override
+        public void addCatalogListener(Consumer<List<Drone>> listener) {
+            catalogListener = listener;
+        }
+    }, new SimpleMeterRegistry());
+
+    {
+        fleetStatus.start();
+    }
+
+    private static Drone drone(String id, boolean capable) {
+        Drone drone = new Drone();
+        drone.setId(id);
+        drone.setName("Drone " + id);
+        if (capable) {
+            Capability cap = new Capability();
+            cap.setCapacity(4.0);
+            drone.setCapability(cap);
+        }
+        return drone;
+    }
+
+    private List<String> availableIds() {
+        return fleetStatus.getAvailableDroneList().stream().map(Drone::getId).toList();
+    }
+
+    @Test
+    void testCountersFollowActivationsWithoutRefetching() {
+        assertEquals(4, fleetStatus.getTotalDrones());
+        assertEquals(3, fleetStatus.getAvailableDrones());
+
+        fleetStatus.droneActivated("1");
+        fleetStatus.droneActivated("3");
+        assertEquals(2, fleetStatus.getActiveDrones());
+        assertEquals(1, fleetStatus.getAvailableDrones());
+        assertEquals(List.of("2"), availableIds());
+
+        fleetStatus.droneReleased("1");
+        assertEquals(1, fleetStatus.getActiveDrones());
+        assertEquals(List.of("1", "2"), availableIds());
+
+        // Drone 4 has no capability, so it never counts as available.
+        fleetStatus.droneActivated("4");
+        fleetStatus.droneReleased("4");
+        assertEquals(2, fleetStatus.getAvailableDrones());
+
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testEmptyCatalogFromFailedFetchIsRetried() {
+        List<Drone> fleet = List.copyOf(drones);
+        drones.clear();
+        assertEquals(0, fleetStatus.getTotalDrones());
+        assertEquals(0, fleetStatus.getAvailableDrones());
+
+        drones.addAll(fleet);
+        assertEquals(4, fleetStatus.getTotalDrones());
+        assertEquals(3, fleetStatus.getAvailableDrones());
+        assertEquals(3, fetches.get());
+    }
+
+    @Test
+    void testCatalogChangeRebuildsAvailabilityAroundActiveDrones() {
+        fleetStatus.droneActivated("2");
+        assertEquals(2, fleetStatus.getAvailableDrones());
+
+        drones.add(drone("5", true));
+        drones.remove(0);
+        catalogListener.accept(List.copyOf(drones));
+
+        assertEquals(4, fleetStatus.getTotalDrones());
+        assertEquals(List.of("3", "5"), availableIds());
+
+        // A released drone that has left the catalog isn't made available again.
+        fleetStatus.droneActivated("1");
+        fleetStatus.droneReleased("1");
+        assertEquals(List.of("3", "5"), availableIds());
+    }
+
+    @Test
+    void testUnchangedCatalogKeepsAvailabilityButTakesNewDetails() {
+        fleetStatus.droneActivated("1");
+        assertEquals(2, fleetStatus.getAvailableDrones());
+
+        Drone renamed = drone("2", true);
+        renamed.setName("Renamed");
+        fleetStatus.updateCatalog(List.of(drone("1", true), renamed, drone("3", true), drone("4", false)));
+
+        assertEquals(2, fleetStatus.getAvailableDrones());
+        assertEquals("Renamed", fleetStatus.getAvailableDroneList().get(0).getName());
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.dto.Viewport;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.service.DroneDispatchService.ActiveDroneState;
+import com.example.coursework1.service.DroneDispatchService.DroneUpdate;
+import com.example.coursework1.service.FleetTelemetryService.FleetFrame;
+import com.example.coursework1.service.FleetTelemetryService.KeyframeSnapshot;
+import com.example.coursework1.service.FleetTelemetryService.ViewportFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetTelemetryServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<FleetFrame> sent = new ArrayList<>();
+
+    // Ticks are driven by the test; the clock itself never fires.
+    private final SimulationClock clock = new SimulationClock(new SimpleMeterRegistry(), 3_600_000);
+    private final FleetTelemetryService telemetry = new FleetTelemetryService(clock, new SimpleMeterRegistry(), 0.002);
+
+    {
+        telemetry.addFrameListener(sent::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clock.shutdown();
+    }
+
+    private ActiveDroneState batchDrone(String id, int steps) {
+        List<LngLat> path = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            path.add(new LngLat(-3.1892 + i * 0.00015, 55.9445 + i * 0.0000321));
+        }
+        return new ActiveDroneState(id, -1, path, 4.0, 0, "batch-1", 3,
+                List.of(new Position(-3.18, 55.945), new Position(-3.185, 55.946), new Position(-3.187, 55.944)));
+    }
+
+    private void step(ActiveDroneState state, int index, String status) {
+        state.setStepIndex(index);
+        state.setCurrentPosition(state.getFlightPath().get(index));
+        state.setStatus(status);
+        telemetry.record(state);
+    }
+
+    private JsonNode lastFrame() {
+        return mapper.valueToTree(sent.get(sent.size() - 1));
+    }
+
+    @Test
+    void testKeyframeOnceThenCompactUpdates() {
+        List<ActiveDroneState> fleet = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ActiveDroneState state = batchDrone("drone-" + i, 10);
+            fleet.add(state);
+            step(state, 0, "DEPLOYING");
+        }
+        telemetry.flush();
+
+        assertEquals(1, sent.size());
+        JsonNode first = lastFrame();
+        assertEquals(50, first.get("keyframes").size());
+        assertEquals(150, first.get("updates").size());
+        assertEquals(20, first.get("keyframes").get(0).get("route").size());
+
+        for (ActiveDroneState state : fleet) {
+            step(state, 1, "FLYING");
+        }
+        telemetry.flush();
+
+        JsonNode second = lastFrame();
+        assertFalse(second.has("keyframes"));
+        assertFalse(second.has("removed"));
+        JsonNode updates = second.get("updates");
+        assertEquals(150, updates.size());
+        assertEquals(1, updates.get(1).asInt());
+        assertEquals(FleetTelemetryService.STATUS_CODES.indexOf("FLYING"), updates.get(2).asInt());
+    }
+
+    @Test
+    void testDroneSteppedTwiceInOneTickSendsLatestStepOnly() {
+        ActiveDroneState state = batchDrone("drone-1", 10);
+        step(state, 0, "DEPLOYING");
+        step(state, 1, "DEPLOYING");
+        telemetry.flush();
+
+        JsonNode frame = lastFrame();
+        assertEquals(1, frame.get("keyframes").size());
+        assertEquals(3, frame.get("updates").size());
+        assertEquals(1, frame.get("updates").get(1).asInt());
+    }
+
+    @Test
+    void testNewRouteGetsNewKeyframeUnderSameIndex() {
+        ActiveDroneState first = batchDrone("drone-1", 10);
+        step(first, 0, "DEPLOYING");
+        telemetry.flush();
+        JsonNode firstKeyframe = lastFrame().get("keyframes").get(0);
+
+        ActiveDroneState second = batchDrone("drone-1", 12);
+        step(second, 0, "DEPLOYING");
+        telemetry.flush();
+        JsonNode secondKeyframe = lastFrame().get("keyframes").get(0);
+
+        assertEquals(firstKeyframe.get("index").asInt(), secondKeyframe.get("index").asInt());
+        assertTrue(secondKeyframe.get("routeVersion").asInt() > firstKeyframe.get("routeVersion").asInt());
+        assertEquals(24, secondKeyframe.get("route").size());
+    }
+
+    @Test
+    void testSnapshotReplaysKeyframesUntilDroneEnds() {
+        ActiveDroneState a = batchDrone("drone-a", 10);
+        ActiveDroneState b = batchDrone("drone-b", 10);
+        step(a, 0, "DEPLOYING");
+        step(b, 0, "DEPLOYING");
+        telemetry.flush();
+
+        KeyframeSnapshot snapshot = telemetry.snapshot();
+        assertEquals(2, snapshot.getKeyframes().size());
+        assertEquals(1, snapshot.getSeq());
+
+        telemetry.ended("drone-a");
+        telemetry.flush();
+
+        assertEquals(1, lastFrame().get("removed").size());
+        assertEquals(1, telemetry.snapshot().getKeyframes().size());
+        assertEquals("drone-b", telemetry.snapshot().getKeyframes().get(0).getDroneId());
+    }
+
+    @Test
+    void testFilterMatchesBruteForceOverALargeFleet() {
+        // 400 drones spread over the city, each flying east; only a handful are ever inside the viewport.
+        Random random = new Random(11);
+        List<ActiveDroneState> fleet = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            double lng = -3.25 + random.nextDouble() * 0.1;
+            double lat = 55.90 + random.nextDouble() * 0.08;
+            List<LngLat> path = new ArrayList<>();
+            for (int s = 0; s < 30; s++) {
+                path.add(new LngLat(lng + s * 0.00015, lat));
+            }
+            fleet.add(new ActiveDroneState("drone-" + i, 1, path, 4.0, 0, null, 1, null));
+        }
+        Viewport viewport = new Viewport(-3.21, 55.93, -3.20, 55.94);
+        ViewportFilter viewer = new ViewportFilter();
+        telemetry.refocus(viewer, viewport);
+
+        Set<Integer> held = new HashSet<>();
+        Map<Integer, ActiveDroneState> byIndex = new HashMap<>();
+        for (int s = 0; s < 30; s++) {
+            for (int i = 0; i < fleet.size(); i++) {
+                // Every other drone moves each tick, so some in-view drones have no update in a frame.
+                if ((i + s) % 2 == 0) step(fleet.get(i), s, "FLYING");
+            }
+            telemetry.flush();
+            FleetFrame frame = sent.get(sent.size() - 1);
+            FleetFrame narrowed = telemetry.filter(frame, viewer);
+
+            frame.getKeyframes().forEach(k ->
+                    byIndex.put(k.getIndex(), fleet.get(Integer.parseInt(k.getDroneId().substring(6)))));
+            Set<Integer> expectedUpdates = new HashSet<>();
+            int[] all = frame.getUpdates();
+            for (int u = 0; u < all.length; u += 3) {
+                LngLat at = byIndex.get(all[u]).getFlightPath().get(all[u + 1]);
+                if (viewport.contains(at.getLng(), at.getLat())) expectedUpdates.add(all[u]);
+            }
+            Set<Integer> actualUpdates = new HashSet<>();
+            for (int u = 0; u < narrowed.getUpdates().length; u += 3) {
+                actualUpdates.add(narrowed.getUpdates()[u]);
+            }
+            assertEquals(expectedUpdates, actualUpdates, "tick " + s);
+
+            for (int index : narrowed.getRemoved()) {
+                assertTrue(held.remove(index), "Removal of a route the viewer never had");
+            }
+            narrowed.getKeyframes().forEach(k -> held.add(k.getIndex()));
+            assertTrue(held.containsAll(actualUpdates), "Every update needs a route the viewer holds");
+        }
+        assertFalse(held.isEmpty(), "The viewport should have held some drones");
+    }
+
+    @Test
+    void testDeltaFramesAreMuchSmallerThanPerDroneUpdates() throws Exception {
+        int drones = 20, steps = 200;
+        List<ActiveDroneState> fleet = new ArrayList<>();
+        for (int i = 0; i < drones; i++) {
+            fleet.add(batchDrone("drone-" + i, steps));
+        }
+
+        long legacyBytes = 0, deltaUpdateBytes = 0, keyframeBytes = 0;
+        for (int s = 0; s < steps; s++) {
+            for (ActiveDroneState state : fleet) {
+                step(state, s, "DELIVERING");
+                legacyBytes += mapper.writeValueAsBytes(legacyUpdate(state)).length;
+            }
+            telemetry.flush();
+
+            FleetFrame frame = sent.get(sent.size() - 1);
+            keyframeBytes += frame.getKeyframes().isEmpty() ? 0 : mapper.writeValueAsBytes(frame.getKeyframes()).length;
+            deltaUpdateBytes += mapper.writeValueAsBytes(frame).length;
+        }
+        deltaUpdateBytes -= keyframeBytes;
+
+        long legacyRouteBytes = drones * (long) mapper.writeValueAsBytes(legacyRoute(fleet.get(0))).length;
+        long legacyUpdateBytes = legacyBytes - legacyRouteBytes;
+
+        assertTrue(deltaUpdateBytes * 10 < legacyUpdateBytes, "Step updates should shrink by an order of magnitude");
+        assertTrue((deltaUpdateBytes + keyframeBytes) * 3 < legacyBytes);
+    }
+
+    // What broadcastBatchUpdate puts on the per-drone topic.
+    private DroneUpdate legacyUpdate(ActiveDroneState state) {
+        DroneUpdate update = new DroneUpdate();
+        update.setDroneId(state.getDroneId());
+        update.setDeliveryId(state.getDeliveryId());
+        update.setLatitude(state.getCurrentPosition().getLat());
+        update.setLongitude(state.getCurrentPosition().getLng());
+        update.setStatus(state.getStatus());
+        update.setProgress((double) state.getStepIndex() / state.getFlightPath().size());
+        update.setTotalCapacity(state.getTotalCapacity());
+        update.setBatchId(state.getBatchId());
+        update.setCurrentDeliveryInBatch(state.getCurrentDeliveryIndex());
+        update.setTotalDeliveriesInBatch(state.getTotalDeliveriesInBatch());
+        if (state.getStepIndex() == 0) {
+            update.setRoute(legacyRoute(state));
+        }
+        return update;
+    }
+
+    private List<List<Double>> legacyRoute(ActiveDroneState state) {
+        return state.getFlightPath().stream().map(p -> List.of(p.getLat(), p.getLng())).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.model.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegMatrixBuilderTest {
+
+    private static final double STEP = 0.00015;
+
+    private static Position[] stops(int count, long seed) {
+        Random random = new Random(seed);
+        Position[] stops = new Position[count];
+        for (int i = 0; i < count; i++) {
+            stops[i] = new Position(-3.19 + random.nextInt(40) * STEP, 55.94 + random.nextInt(40) * STEP);
+        }
+        return stops;
+    }
+
+    // A staircase walk in whole moves that stops within one move of the target, like a lattice search.
+    private static List<LngLat> walk(Position from, Position to) {
+        List<LngLat> path = new ArrayList<>();
+        double lng = from.getLng(), lat = from.getLat();
+        path.add(new LngLat(lng, lat));
+        while (Math.abs(to.getLng() - lng) >= STEP || Math.abs(to.getLat() - lat) >= STEP) {
+            if (Math.abs(to.getLng() - lng) >= STEP) lng += Math.signum(to.getLng() - lng) * STEP;
+            else lat += Math.signum(to.getLat() - lat) * STEP;
+            path.add(new LngLat(lng, lat));
+        }
+        return path;
+    }
+
+    private static List<List<Double>> coordinates(List<LngLat> path) {
+        return path == null ? null : path.stream().map(p -> List.of(p.getLng(), p.getLat())).toList();
+    }
+
+    @Test
+    void testEachPairIsSearchedOnceAndReversed() {
+        Position[] stops = stops(12, 3);
+        Set<List<Integer>> searched = ConcurrentHashMap.newKeySet();
+        LegMatrixBuilder builder = new LegMatrixBuilder(4);
+
+        LegMatrixBuilder.LegMatrix matrix = builder.build(stops, (from, to) -> {
+            assertTrue(searched.add(List.of(from, to)));
+            return walk(stops[from], stops[to]);
+        });
+        builder.shutdown();
+
+        assertEquals(12 * 11 / 2, searched.size());
+        assertEquals(12 * 12, matrix.getMoves().length);
+        for (int i = 0; i < stops.length; i++) {
+            assertEquals(0, matrix.moves(i, i));
+            for (int j = i + 1; j < stops.length; j++) {
+                assertTrue(searched.contains(List.of(i, j)));
+                List<LngLat> forward = matrix.path(i, j);
+                List<LngLat> backward = matrix.path(j, i);
+                assertEquals(matrix.moves(i, j), forward.size() - 1);
+                assertEquals(matrix.moves(j, i), backward.size() - 1);
+
+                List<LngLat> reversed = new ArrayList<>(forward);
+                Collections.reverse(reversed);
+                assertEquals(coordinates(reversed), coordinates(backward));
+                assertEquals(stops[i].getLng(), backward.get(backward.size() - 1).getLng(), 0.0);
+                assertSame(forward, matrix.path(i, j));
+            }
+        }
+    }
+
+    @Test
+    void testReverseLegStartsWhereTheForwardLegHovers() {
+        Position[] stops = { new Position(0.0, 0.0), new Position(0.0012, 0.0009) };
+        LegMatrixBuilder builder = new LegMatrixBuilder(1);
+
+        // The search carries on past the stop, as a relaxed search can; the leg is cut where it came closest.
+        LegMatrixBuilder.LegMatrix matrix = builder.build(stops, (from, to) -> {
+            List<LngLat> path = walk(stops[from], stops[to]);
+            LngLat last = path.get(path.size() - 1);
+            path.add(new LngLat(last.getLng() + STEP, last.getLat()));
+            path.add(new LngLat(last.getLng() + 2 * STEP, last.getLat()));
+            return path;
+        });
+        builder.shutdown();
+
+        List<LngLat> forward = matrix.path(0, 1);
+        List<LngLat> backward = matrix.path(1, 0);
+        assertEquals(coordinates(forward.subList(forward.size() - 1, forward.size())),
+                coordinates(backward.subList(0, 1)));
+        assertEquals(forward.size(), backward.size());
+        assertEquals(List.of(0.0, 0.0), coordinates(backward).get(backward.size() - 1));
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        Position[] stops = stops(30, 8);
+        LegMatrixBuilder.PathSearch search = (from, to) ->
+                (from * 31 + to) % 7 == 0 ? null : walk(stops[from], stops[to]);
+        LegMatrixBuilder sequential = new LegMatrixBuilder(1);
+        LegMatrixBuilder parallel = new LegMatrixBuilder(8);
+
+        LegMatrixBuilder.LegMatrix expected = sequential.build(stops, search);
+        LegMatrixBuilder.LegMatrix actual = parallel.build(stops, search);
+        sequential.shutdown();
+        parallel.shutdown();
+
+        assertArrayEquals(expected.getMoves(), actual.getMoves());
+        for (int i = 0; i < stops.length; i++) {
+            for (int j = 0; j < stops.length; j++) {
+                assertEquals(coordinates(expected.path(i, j)), coordinates(actual.path(i, j)));
+                if (i != j && (Math.min(i, j) * 31 + Math.max(i, j)) % 7 == 0) {
+                    assertEquals(-1, actual.moves(i, j));
+                    assertNull(actual.path(i, j));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.coursework1.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MissionExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MissionExecutor executor = new MissionExecutor(registry, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testMissionRunsUntilItsFlightCompletes() throws Exception {
+        CompletableFuture<Void> flight = new CompletableFuture<>();
+
+        String missionId = executor.submit("test", () -> flight);
+
+        waitUntil(() -> MissionExecutor.RUNNING.equals(executor.getMissionState(missionId)));
+        assertEquals(1.0, registry.get("missions.running").gauge().value(), 0.0);
+
+        flight.complete(null);
+        waitUntil(() -> executor.getMissionState(missionId) == null);
+        assertEquals(0.0, registry.get("missions.running").gauge().value(), 0.0);
+        assertEquals(1.0, registry.get("missions.completed").tag("outcome", "completed").counter().count(), 0.0);
+    }
+
+    @Test
+    void testFullQueueRejectsMissions() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<CompletableFuture<?>> blocking = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return CompletableFuture.completedFuture(null);
+        };
+
+        executor.submit("preparing", blocking);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        String queued = executor.submit("queued", blocking);
+
+        assertEquals(MissionExecutor.QUEUED, executor.getMissionState(queued));
+        assertEquals(1.0, registry.get("missions.queued").gauge().value(), 0.0);
+        assertThrows(RejectedExecutionException.class, () -> executor.submit("rejected", blocking));
+        assertEquals(1.0, registry.get("missions.rejected").counter().count(), 0.0);
+
+        release.countDown();
+    }
+
+    @Test
+    void testFailingMissionIsCountedAndReleased() throws Exception {
+        String missionId = executor.submit("failing", () -> {
+            throw new IllegalStateException("boom");
+        });
+        String failedFlight = executor.submit("failed flight",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("crashed")));
+
+        waitUntil(() -> executor.getMissionState(missionId) == null && executor.getMissionState(failedFlight) == null);
+        assertEquals(2.0, registry.get("missions.completed").tag("outcome", "failed").counter().count(), 0.0);
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for mission");
+            Thread.sleep(5);
+        }
+    }
+}
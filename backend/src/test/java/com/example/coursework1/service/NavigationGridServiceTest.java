@@ -0,0 +1,73 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.ServicePoint;
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import com.example.coursework1.repository.RestrictedAreaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavigationGridServiceTest {
+
+    private final RestrictedArea block = new RestrictedArea("block", 1, null, List.of(
+            new Position(0.001, -0.001),
+            new Position(0.0015, -0.001),
+            new Position(0.0015, 0.001),
+            new Position(0.001, 0.001),
+            new Position(0.001, -0.001)));
+
+    private final AtomicInteger servicePointFetches = new AtomicInteger();
+
+    private final RestrictedAreaService restrictedAreaService = new RestrictedAreaService(
+            new RestrictedAreaRepository(null, "http://localhost/") {
+                @Override
+                public List<RestrictedArea> fetchRestrictedAreas() { return List.of(block); }
+
+                @Override
+                public RestrictedAirspace fetchAirspace() { return compile(); }
+            }, new SimpleMeterRegistry());
+
+    private final NavigationGridService grids = new NavigationGridService(restrictedAreaService,
+            new ServicePointService(null) {
+                @Override
+                public List<ServicePoint> fetchAllServicePoints() {
+                    servicePointFetches.incrementAndGet();
+                    return List.of();
+                }
+            });
+
+    private RestrictedAirspace compile() {
+        return RestrictedAirspace.of(List.of(PreparedRestrictedArea.compile(block)));
+    }
+
+    @Test
+    void testAlternatingAirspacesReuseTheirGrids() {
+        // One plan started before a refresh and one after keep asking for their own snapshot's grid.
+        RestrictedAirspace before = compile();
+        RestrictedAirspace after = compile();
+
+        for (int i = 0; i < 5; i++) {
+            assertSame(before, grids.validatorFor(before).getAirspace());
+            assertSame(after, grids.validatorFor(after).getAirspace());
+        }
+
+        assertEquals(2, servicePointFetches.get(), "Each airspace's grid should only be built once");
+    }
+
+    @Test
+    void testCapturedServicePointsSkipTheFetch() {
+        RestrictedAirspace airspace = compile();
+        AirspaceMoveValidator validator = grids.validatorFor(airspace, List.of());
+
+        assertSame(airspace, validator.getAirspace());
+        assertEquals(0, servicePointFetches.get());
+        assertTrue(validator.isMoveBlocked(0.0009, 0.0, 0, 0.00105, 0.0));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.dto.ServicePoint;
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import com.example.coursework1.pathfinding.AStarPathEngine;
+import com.example.coursework1.pathfinding.GreedyPathEngine;
+import com.example.coursework1.pathfinding.MoveValidator;
+import com.example.coursework1.repository.RestrictedAreaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathEngineServiceTest {
+
+    private static final int BUDGET = 30000;
+
+    private final List<RestrictedArea> areas = List.of(new RestrictedArea("block", 1, null, List.of(
+            new Position(0.001, -0.001),
+            new Position(0.0015, -0.001),
+            new Position(0.0015, 0.001),
+            new Position(0.001, 0.001),
+            new Position(0.001, -0.001))));
+
+    private SimpleMeterRegistry registry;
+    private RestrictedAreaService restrictedAreaService;
+    private PathEngineService pathEngineService;
+    private int searches;
+    private RestrictedAirspace airspace;
+
+    private RestrictedAirspace compile() {
+        return RestrictedAirspace.of(List.of(PreparedRestrictedArea.compile(areas.get(0))));
+    }
+
+    @BeforeEach
+    void setUp() {
+        airspace = compile();
+        // Like the real repository, the next fetch after a clear compiles a new airspace.
+        RestrictedAreaRepository repository = new RestrictedAreaRepository(null, "http://localhost/") {
+            @Override
+            public List<RestrictedArea> fetchRestrictedAreas() { return areas; }
+
+            @Override
+            public RestrictedAirspace fetchAirspace() { return airspace; }
+
+            @Override
+            public void clearCache() { airspace = compile(); }
+        };
+
+        registry = new SimpleMeterRegistry();
+        restrictedAreaService = new RestrictedAreaService(repository, registry);
+
+        MoveValidator validator = new MoveValidator() {
+            @Override
+            public boolean isMoveBlocked(double fromLng, double fromLat, int direction, double toLng, double toLat) {
+                searches++;
+                return restrictedAreaService.pathCrossesRestrictedArea(fromLng, fromLat, toLng, toLat);
+            }
+        };
+        AStarPathEngine astar = new AStarPathEngine(validator);
+        GreedyPathEngine greedy = new GreedyPathEngine(validator);
+
+        pathEngineService = new PathEngineService(List.of(astar, greedy), greedy, restrictedAreaService,
+                registry, "astar", 64);
+    }
+
+    private double cacheCount(String result) {
+        return registry.get("planner.path.cache").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testRepeatedLegIsServedFromCache() {
+        Position from = new Position(0.0, 0.0), to = new Position(0.003, 0.0);
+
+        List<LngLat> first = pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET);
+        int checksAfterFirst = searches;
+        List<LngLat> second = pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET);
+
+        assertNotNull(first);
+        assertEquals(first.size(), second.size());
+        assertEquals(checksAfterFirst, searches, "A cache hit must not run the engine");
+        assertEquals(1.0, cacheCount("hit"), 0.0);
+        assertEquals(1.0, cacheCount("miss"), 0.0);
+    }
+
+    @Test
+    void testNearbyStartReusesShiftedPath() {
+        Position to = new Position(0.003, 0.0);
+        List<LngLat> original = pathEngineService.findPath(
+                pathEngineService.getDefaultEngine(), new Position(0.0, 0.0), to, BUDGET);
+
+        Position nearby = new Position(2e-7, 1e-7);
+        List<LngLat> reused = pathEngineService.findPath(pathEngineService.getDefaultEngine(), nearby, to, BUDGET);
+
+        assertEquals(1.0, cacheCount("hit"), 0.0);
+        assertEquals(original.size(), reused.size());
+        assertEquals(nearby.getLng(), reused.get(0).getLng(), 1e-15);
+        assertEquals(nearby.getLat(), reused.get(0).getLat(), 1e-15);
+    }
+
+    @Test
+    void testClearingRestrictedAreasInvalidatesCachedPaths() {
+        Position from = new Position(0.0, 0.0), to = new Position(0.003, 0.0);
+        pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET);
+
+        restrictedAreaService.clearCache();
+        pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET);
+
+        assertEquals(0.0, cacheCount("hit"), 0.0);
+        assertEquals(2.0, cacheCount("miss"), 0.0);
+    }
+
+    @Test
+    void testLegsPlannedWhileAreasWereUnavailableAreDropped() {
+        // A failed fetch leaves the repository serving an empty airspace until a later fetch succeeds.
+        RestrictedAirspace loaded = airspace;
+        airspace = RestrictedAirspace.empty();
+        Position from = new Position(0.0, 0.0), to = new Position(0.003, 0.0);
+        List<LngLat> unrestricted = pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET);
+
+        airspace = loaded;
+        List<LngLat> restricted = pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET);
+
+        assertEquals(2.0, cacheCount("miss"), 0.0);
+        assertTrue(restricted.size() > unrestricted.size(), "The second leg has to go around the block");
+    }
+
+    @Test
+    void testSnapshotSearchIgnoresTheLiveAirspace() {
+        NavigationGridService grids = new NavigationGridService(restrictedAreaService, new ServicePointService(null) {
+            @Override
+            public List<ServicePoint> fetchAllServicePoints() { return List.of(); }
+        });
+        AirspaceMoveValidator before = grids.validatorFor(RestrictedAirspace.empty());
+        Position from = new Position(0.0, 0.0), to = new Position(0.003, 0.0);
+
+        // The live airspace has the block; the plan's snapshot was taken before it was loaded.
+        List<LngLat> snapshot = pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET,
+                before);
+        assertEquals(0, searches, "Snapshot searches must not consult the live validator");
+        List<LngLat> live = pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET);
+
+        assertEquals(20, snapshot.size() - 1);
+        assertTrue(live.size() > snapshot.size());
+    }
+
+    @Test
+    void testPlansOnDifferentSnapshotsKeepEachOthersLegs() {
+        // One plan started before a refresh and one after keep alternating between the two airspaces.
+        NavigationGridService grids = new NavigationGridService(restrictedAreaService, new ServicePointService(null) {
+            @Override
+            public List<ServicePoint> fetchAllServicePoints() { return List.of(); }
+        });
+        AirspaceMoveValidator before = grids.validatorFor(compile());
+        AirspaceMoveValidator after = grids.validatorFor(compile());
+        Position from = new Position(0.0, 0.0), to = new Position(0.003, 0.0);
+
+        for (int i = 0; i < 3; i++) {
+            pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET, before);
+            pathEngineService.findPath(pathEngineService.getDefaultEngine(), from, to, BUDGET, after);
+        }
+
+        assertEquals(2.0, cacheCount("miss"), 0.0);
+        assertEquals(4.0, cacheCount("hit"), 0.0);
+    }
+
+    @Test
+    void testUnknownEngineIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> pathEngineService.resolve("dijkstra"));
+        assertEquals(GreedyPathEngine.NAME, pathEngineService.resolve("GREEDY").getName());
+        assertEquals(AStarPathEngine.NAME, pathEngineService.resolve(null).getName());
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.Region;
+import com.example.coursework1.dto.RegionRequest;
+import com.example.coursework1.geometry.PreparedRestrictedArea;
+import com.example.coursework1.geometry.RestrictedAirspace;
+import com.example.coursework1.model.Position;
+import com.example.coursework1.model.RestrictedArea;
+import com.example.coursework1.repository.RestrictedAreaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestrictedAreaServiceDifferentialTest {
+
+    private static final double STEP = 0.00015;
+    private static final double LEGACY_TOLERANCE = 1e-10;
+
+    private final RegionService regionService = new RegionService();
+
+    private List<RestrictedArea> areas() {
+        List<RestrictedArea> areas = new ArrayList<>();
+        Random random = new Random(11);
+
+        for (int k = 0; k < 6; k++) {
+            double cx = random.nextDouble() * 0.01, cy = random.nextDouble() * 0.01;
+            int n = 3 + random.nextInt(6);
+            List<Position> vertices = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                double angle = 2 * Math.PI * i / n + random.nextDouble() * 0.3;
+                double radius = 0.001 + random.nextDouble() * 0.002;
+                vertices.add(new Position(cx + radius * Math.cos(angle), cy + radius * Math.sin(angle)));
+            }
+            vertices.add(vertices.get(0));
+            areas.add(new RestrictedArea("polygon-" + k, k, null, vertices));
+        }
+
+        areas.add(new RestrictedArea("square", 10, null, List.of(
+                new Position(0.005, 0.005),
+                new Position(0.005, 0.006),
+                new Position(0.006, 0.006),
+                new Position(0.006, 0.005),
+                new Position(0.005, 0.005))));
+
+        areas.add(new RestrictedArea("open-polyline", 11, null, List.of(
+                new Position(0.002, 0.008),
+                new Position(0.003, 0.009),
+                new Position(0.004, 0.008))));
+
+        return areas;
+    }
+
+    private RestrictedAreaService serviceFor(List<RestrictedArea> areas) {
+        List<PreparedRestrictedArea> prepared = new ArrayList<>();
+        for (RestrictedArea area : areas) {
+            prepared.add(PreparedRestrictedArea.compile(area));
+        }
+        RestrictedAirspace airspace = RestrictedAirspace.of(prepared);
+
+        RestrictedAreaRepository repository = new RestrictedAreaRepository(null, "http://localhost/") {
+            @Override
+            public List<RestrictedArea> fetchRestrictedAreas() { return areas; }
+
+            @Override
+            public RestrictedAirspace fetchAirspace() { return airspace; }
+        };
+        return new RestrictedAreaService(repository, new SimpleMeterRegistry());
+    }
+
+    // The pre-index implementation: edge test plus nine interior samples through RegionService.
+    private boolean legacyPathCrosses(List<RestrictedArea> areas, Position from, Position to) {
+        if (legacyIsInRestrictedArea(areas, from) || legacyIsInRestrictedArea(areas, to)) {
+            return true;
+        }
+
+        for (RestrictedArea area : areas) {
+            List<Position> polygon = area.getVertices();
+
+            for (int i = 0; i < polygon.size() - 1; i++) {
+                if (legacySegmentsIntersect(from, to, polygon.get(i), polygon.get(i + 1))) {
+                    return true;
+                }
+            }
+
+            for (int i = 1; i < 10; i++) {
+                double t = (double) i / 10;
+                Position sample = new Position(
+                        from.getLng() + t * (to.getLng() - from.getLng()),
+                        from.getLat() + t * (to.getLat() - from.getLat()));
+                if (legacyIsInRegion(sample, area)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean legacyIsInRestrictedArea(List<RestrictedArea> areas, Position position) {
+        for (RestrictedArea area : areas) {
+            if (legacyIsInRegion(position, area)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean legacyIsInRegion(Position position, RestrictedArea area) {
+        try {
+            return regionService.isInRegion(new RegionRequest(position, new Region(area.getName(), area.getVertices())));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean legacySegmentsIntersect(Position p1, Position p2, Position p3, Position p4) {
+        double x1 = p1.getLng(), y1 = p1.getLat();
+        double x2 = p2.getLng(), y2 = p2.getLat();
+        double x3 = p3.getLng(), y3 = p3.getLat();
+        double x4 = p4.getLng(), y4 = p4.getLat();
+
+        double d1x = x2 - x1, d1y = y2 - y1;
+        double d2x = x4 - x3, d2y = y4 - y3;
+        double denominator = d1x * d2y - d1y * d2x;
+
+        if (Math.abs(denominator) < LEGACY_TOLERANCE) {
+            return false;
+        }
+
+        double t = ((x3 - x1) * d2y - (y3 - y1) * d2x) / denominator;
+        double u = ((x3 - x1) * d1y - (y3 - y1) * d1x) / denominator;
+
+        return (t >= -LEGACY_TOLERANCE && t <= 1 + LEGACY_TOLERANCE)
+                && (u >= -LEGACY_TOLERANCE && u <= 1 + LEGACY_TOLERANCE);
+    }
+
+    private double distanceToBoundaries(List<RestrictedArea> areas, Position from, Position to) {
+        double best = Double.POSITIVE_INFINITY;
+        for (RestrictedArea area : areas) {
+            List<Position> polygon = area.getVertices();
+            for (int i = 0; i < polygon.size() - 1; i++) {
+                best = Math.min(best, segmentDistance(from, to, polygon.get(i), polygon.get(i + 1)));
+            }
+        }
+        return best;
+    }
+
+    private double segmentDistance(Position a, Position b, Position c, Position d) {
+        return Math.min(
+                Math.min(pointSegmentDistance(a, c, d), pointSegmentDistance(b, c, d)),
+                Math.min(pointSegmentDistance(c, a, b), pointSegmentDistance(d, a, b)));
+    }
+
+    private double pointSegmentDistance(Position p, Position a, Position b) {
+        double dx = b.getLng() - a.getLng(), dy = b.getLat() - a.getLat();
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 :
+                ((p.getLng() - a.getLng()) * dx + (p.getLat() - a.getLat()) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double px = a.getLng() + t * dx - p.getLng(), py = a.getLat() + t * dy - p.getLat();
+        return Math.sqrt(px * px + py * py);
+    }
+
+    private Position randomSegmentEnd(Random random, Position start) {
+        double angle = Math.toRadians(22.5 * random.nextInt(16));
+        double length = random.nextInt(8) == 0 ? STEP * (1 + random.nextInt(40)) : STEP;
+        return new Position(start.getLng() + length * Math.cos(angle), start.getLat() + length * Math.sin(angle));
+    }
+
+    @Test
+    void testRandomizedSegmentsAgreeWithLegacyImplementation() {
+        List<RestrictedArea> areas = areas();
+        RestrictedAreaService service = serviceFor(areas);
+        Random random = new Random(2024);
+
+        int exactOnly = 0;
+        for (int i = 0; i < 100_000; i++) {
+            Position from = new Position(random.nextDouble() * 0.014 - 0.002, random.nextDouble() * 0.014 - 0.002);
+            Position to = randomSegmentEnd(random, from);
+
+            boolean legacy = legacyPathCrosses(areas, from, to);
+            boolean exact = service.pathCrossesRestrictedArea(from, to);
+
+            if (legacy) {
+                assertTrue(exact, "Exact predicate must block everything the legacy check blocked: " + from + " -> " + to);
+            }
+
+            if (exact != legacy) {
+                exactOnly++;
+                assertTrue(distanceToBoundaries(areas, from, to) < 1e-8,
+                        "Extra blocks must be real boundary contacts missed by sampling: " + from + " -> " + to);
+            }
+        }
+
+        assertTrue(exactOnly < 1_000);
+    }
+
+    @Test
+    void testSegmentsStartingOnVerticesAreAlwaysBlocked() {
+        List<RestrictedArea> areas = areas();
+        RestrictedAreaService service = serviceFor(areas);
+        Random random = new Random(99);
+
+        for (RestrictedArea area : areas) {
+            for (Position vertex : area.getVertices()) {
+                for (int i = 0; i < 16; i++) {
+                    Position to = randomSegmentEnd(random, vertex);
+                    // Legacy missed departures parallel to the adjacent edge; the exact test always sees the contact.
+                    assertTrue(service.pathCrossesRestrictedArea(vertex, to),
+                            "Segment leaving vertex " + vertex + " of " + area.getName() + " should be blocked");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCollinearSegmentAlongEdgeIsBlocked() {
+        List<RestrictedArea> areas = areas();
+        RestrictedAreaService service = serviceFor(areas);
+
+        Position from = new Position(0.005, 0.0052);
+        Position to = new Position(0.005, 0.0052 + STEP);
+
+        assertTrue(legacyPathCrosses(areas, from, to));
+        assertTrue(service.pathCrossesRestrictedArea(from, to));
+    }
+
+    @Test
+    void testSegmentTouchingCornerIsBlocked() {
+        List<RestrictedArea> areas = areas();
+        RestrictedAreaService service = serviceFor(areas);
+
+        Position from = new Position(0.005 - STEP, 0.005 - STEP);
+        Position to = new Position(0.005, 0.005);
+
+        assertTrue(legacyPathCrosses(areas, from, to));
+        assertTrue(service.pathCrossesRestrictedArea(from, to));
+    }
+
+    @Test
+    void testSegmentParallelToEdgeOutsideIsNotBlocked() {
+        List<RestrictedArea> areas = areas();
+        RestrictedAreaService service = serviceFor(areas);
+
+        Position from = new Position(0.005 - 1e-6, 0.0052);
+        Position to = new Position(0.005 - 1e-6, 0.0052 + STEP);
+
+        assertFalse(legacyPathCrosses(areas, from, to));
+        assertFalse(service.pathCrossesRestrictedArea(from, to));
+    }
+
+    @Test
+    void testOpenPolylineOnlyBlocksOnItsEdges() {
+        List<RestrictedArea> areas = areas();
+        RestrictedAreaService service = serviceFor(areas);
+
+        Position crossing = new Position(0.0025, 0.0084);
+        Position crossingEnd = new Position(0.0025 + STEP, 0.0084 + STEP * 2);
+        Position below = new Position(0.003, 0.0084);
+        Position belowEnd = new Position(0.003, 0.0084 + STEP);
+
+        assertEquals(legacyPathCrosses(areas, crossing, crossingEnd), service.pathCrossesRestrictedArea(crossing, crossingEnd));
+        assertFalse(service.pathCrossesRestrictedArea(below, belowEnd));
+    }
+}
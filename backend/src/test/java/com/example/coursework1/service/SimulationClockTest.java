@@ -0,0 +1,122 @@
+package com.example.coursework1.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationClockTest {
+
+    private final SimulationClock clock = new SimulationClock(new SimpleMeterRegistry(), 10);
+
+    {
+        clock.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clock.shutdown();
+    }
+
+    private SimulatedFlight countingFlight(int steps, AtomicInteger counter, Set<String> threads, CountDownLatch done) {
+        return () -> {
+            threads.add(Thread.currentThread().getName());
+            if (counter.incrementAndGet() < steps) {
+                return true;
+            }
+            done.countDown();
+            return false;
+        };
+    }
+
+    @Test
+    void testManyFlightsShareOneClockThread() throws Exception {
+        int flights = 200;
+        CountDownLatch done = new CountDownLatch(flights);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<AtomicInteger> counters = new ArrayList<>();
+
+        for (int i = 0; i < flights; i++) {
+            AtomicInteger counter = new AtomicInteger();
+            counters.add(counter);
+            clock.schedule(10, countingFlight(5, counter, threads, done));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Set.of("simulation-clock"), threads);
+        for (AtomicInteger counter : counters) {
+            assertEquals(5, counter.get(), "A finished flight must not be stepped again");
+        }
+        waitUntil(() -> clock.getActiveFlights() == 0);
+    }
+
+    @Test
+    void testSlowerStepRateTakesProportionallyFewerSteps() throws Exception {
+        AtomicInteger fast = new AtomicInteger();
+        AtomicInteger slow = new AtomicInteger();
+        CountDownLatch fastDone = new CountDownLatch(1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        clock.schedule(10, countingFlight(20, fast, threads, fastDone));
+        clock.schedule(40, countingFlight(Integer.MAX_VALUE, slow, threads, new CountDownLatch(1)));
+
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.get() >= 2 && slow.get() <= 10, "Slow flight took " + slow.get() + " steps");
+    }
+
+    @Test
+    void testFailingFlightIsDroppedAndNotified() throws Exception {
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+
+        clock.schedule(10, new SimulatedFlight() {
+            @Override
+            public boolean step() {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public void onError(RuntimeException e) {
+                error.set(e);
+                failed.countDown();
+            }
+        });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals("boom", error.get().getMessage());
+        waitUntil(() -> clock.getActiveFlights() == 0);
+    }
+
+    @Test
+    void testDelayedTaskRunsOnClockThread() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        CountDownLatch ran = new CountDownLatch(1);
+
+        clock.after(20, () -> {
+            thread.set(Thread.currentThread().getName());
+            ran.countDown();
+        });
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals("simulation-clock", thread.get());
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the clock");
+            Thread.sleep(5);
+        }
+    }
+}
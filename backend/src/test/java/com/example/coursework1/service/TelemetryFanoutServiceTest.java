@@ -0,0 +1,475 @@
+package com.example.coursework1.service;
+
+import com.example.coursework1.dto.LngLat;
+import com.example.coursework1.dto.Viewport;
+import com.example.coursework1.service.DroneDispatchService.ActiveDroneState;
+import com.example.coursework1.service.FleetTelemetryService.FleetFrame;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.user.DefaultUserDestinationResolver;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryFanoutServiceTest {
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Ticks are driven by the test; the clock itself never fires.
+    private final SimulationClock clock = new SimulationClock(new SimpleMeterRegistry(), 3_600_000);
+    private final FleetTelemetryService telemetry = new FleetTelemetryService(clock, new SimpleMeterRegistry(), 0.002);
+    private final TelemetryFanoutService fanout = new TelemetryFanoutService(
+            new SimpMessagingTemplate((message, timeout) -> sent.add(message)), telemetry,
+            new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(), registry, 2, 60_000);
+
+    {
+        fanout.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clock.shutdown();
+    }
+
+    private ActiveDroneState drone(String id, int steps) {
+        return drone(id, steps, -3.1892);
+    }
+
+    private ActiveDroneState drone(String id, int steps, double startLng) {
+        List<LngLat> path = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            path.add(new LngLat(startLng + i * 0.00015, 55.9445));
+        }
+        return new ActiveDroneState(id, 1, path, 4.0, 0, null, 1, null);
+    }
+
+    private void tick(List<ActiveDroneState> fleet, int step) {
+        for (ActiveDroneState state : fleet) {
+            state.setStepIndex(step);
+            state.setStatus("FLYING");
+            telemetry.record(state);
+        }
+        telemetry.flush();
+    }
+
+    private List<Message<?>> sentTo(String sessionId) {
+        return sent.stream()
+                .filter(m -> sessionId.equals(SimpMessageHeaderAccessor.getSessionId(m.getHeaders())))
+                .toList();
+    }
+
+    private int stepOf(FleetFrame frame, int droneIndex) {
+        int[] updates = frame.getUpdates();
+        for (int i = 0; i < updates.length; i += 3) {
+            if (updates[i] == droneIndex) return updates[i + 1];
+        }
+        return -1;
+    }
+
+    @Test
+    void testSlowSubscriberGetsLatestStateOnly() {
+        List<ActiveDroneState> fleet = List.of(drone("drone-1", 20), drone("drone-2", 20));
+        fanout.subscribe("slow", "sub-0", null);
+        fanout.subscribe("fast", "sub-0", null);
+
+        for (int step = 0; step < 10; step++) {
+            tick(fleet, step);
+            fanout.delivered("fast");
+        }
+
+        // The empty snapshot plus one frame fill the slow session's window; everything after that is conflated.
+        List<Message<?>> slow = sentTo("slow");
+        assertEquals(2, slow.size());
+        assertEquals(11, sentTo("fast").size());
+        assertEquals("/user/slow/queue/fleet-frames", SimpMessageHeaderAccessor.getDestination(slow.get(1).getHeaders()));
+
+        fanout.delivered("slow");
+        slow = sentTo("slow");
+        assertEquals(3, slow.size());
+
+        FleetFrame merged = (FleetFrame) slow.get(2).getPayload();
+        assertEquals(6, merged.getUpdates().length);
+        assertEquals(9, stepOf(merged, 0));
+        assertEquals(9, stepOf(merged, 1));
+        assertTrue(merged.getKeyframes().isEmpty(), "Keyframes were already in the first frame");
+
+        var stats = fanout.getSubscriberStats();
+        assertEquals(2, stats.size());
+        assertEquals(8.0, registry.get("telemetry.subscriber.frames.dropped").tag("session", "slow")
+                .functionCounter().count());
+        assertEquals(0.0, registry.get("telemetry.subscriber.frames.dropped").tag("session", "fast")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testConflatedFrameKeepsKeyframesAndRemovals() {
+        fanout.subscribe("slow", "sub-0", null);
+        fanout.subscribe("slow-2", "sub-0", null);
+        tick(List.of(drone("drone-1", 10)), 0);
+
+        // Window is full for both sessions now: drone-2 appears and drone-1 leaves while they're behind.
+        ActiveDroneState second = drone("drone-2", 10);
+        tick(List.of(second), 0);
+        telemetry.ended("drone-1");
+        tick(List.of(second), 1);
+
+        fanout.delivered("slow");
+        List<Message<?>> slow = sentTo("slow");
+        FleetFrame merged = (FleetFrame) slow.get(slow.size() - 1).getPayload();
+        assertEquals(1, merged.getKeyframes().size());
+        assertEquals("drone-2", merged.getKeyframes().get(0).getDroneId());
+        assertArrayEquals(new int[] {0}, merged.getRemoved());
+        assertArrayEquals(new int[] {1, 1, 2}, merged.getUpdates());
+        assertEquals(2, registry.get("telemetry.subscriber.queue.depth").tag("session", "slow").gauge().value());
+        assertEquals(4, registry.get("telemetry.subscriber.queue.depth").tag("session", "slow-2").gauge().value());
+    }
+
+    @Test
+    void testUnsubscribeStopsFramesAndRemovesMeters() {
+        fanout.subscribe("session-1", "sub-0", null);
+        fanout.unsubscribe("session-1");
+        tick(List.of(drone("drone-1", 10)), 0);
+
+        assertEquals(1, sent.size());
+        assertTrue(fanout.getSubscriberStats().isEmpty());
+        assertNull(registry.find("telemetry.subscriber.queue.depth").tag("session", "session-1").gauge());
+    }
+
+    @Test
+    void testResubscribingKeepsTheSessionsMeters() {
+        fanout.subscribe("session-1", "sub-0", null);
+        fanout.subscribe("session-1", "sub-1", null);
+        tick(List.of(drone("drone-1", 10)), 0);
+
+        assertEquals(1, fanout.getSubscriberStats().size());
+        assertEquals(2.0, registry.get("telemetry.subscriber.queue.depth").tag("session", "session-1")
+                .gauge().value(), "The gauge should follow the new subscription's mailbox");
+        assertNotNull(registry.find("telemetry.subscriber.frames.dropped").tag("session", "session-1")
+                .functionCounter());
+    }
+
+    private FleetFrame lastFrameTo(String sessionId) {
+        List<Message<?>> frames = sentTo(sessionId);
+        return (FleetFrame) frames.get(frames.size() - 1).getPayload();
+    }
+
+    @Test
+    void testViewportSubscriberOnlyGetsDronesInsideIt() {
+        // drone-1 starts inside the viewport and flies east out of it; drone-2 is several kilometres away.
+        ActiveDroneState leaving = drone("drone-1", 20, -3.2000);
+        ActiveDroneState elsewhere = drone("drone-2", 20, -3.1500);
+        Viewport viewport = new Viewport(-3.2010, 55.9400, -3.1980, 55.9500);
+        fanout.subscribe("console", "sub-0", viewport);
+        fanout.subscribe("overview", "sub-0", null);
+
+        tick(List.of(leaving, elsewhere), 0);
+        fanout.delivered("console");
+        FleetFrame first = lastFrameTo("console");
+        assertEquals(1, first.getKeyframes().size());
+        assertEquals("drone-1", first.getKeyframes().get(0).getDroneId());
+        assertArrayEquals(new int[] {0, 0, 2}, first.getUpdates());
+
+        tick(List.of(leaving, elsewhere), 5);
+        fanout.delivered("console");
+        FleetFrame inside = lastFrameTo("console");
+        assertTrue(inside.getKeyframes().isEmpty());
+        assertArrayEquals(new int[] {0, 5, 2}, inside.getUpdates());
+
+        // Step 14 is east of the viewport's edge.
+        tick(List.of(leaving, elsewhere), 14);
+        fanout.delivered("console");
+        FleetFrame left = lastFrameTo("console");
+        assertEquals(0, left.getUpdates().length);
+        assertArrayEquals(new int[] {0}, left.getRemoved());
+
+        // Nothing in view, so nothing is sent; the whole-fleet subscriber still sees both drones.
+        int consoleFrames = sentTo("console").size();
+        tick(List.of(leaving, elsewhere), 15);
+        assertEquals(consoleFrames, sentTo("console").size());
+        fanout.delivered("overview");
+        fanout.delivered("overview");
+        assertEquals(6, lastFrameTo("overview").getUpdates().length);
+    }
+
+    @Test
+    void testViewportSubscriberJoiningMidFlightGetsKeyframes() {
+        ActiveDroneState inside = drone("drone-1", 20, -3.2000);
+        ActiveDroneState outside = drone("drone-2", 20, -3.1500);
+        tick(List.of(inside, outside), 2);
+
+        fanout.subscribe("console", "sub-0", new Viewport(-3.2010, 55.9400, -3.1980, 55.9500));
+        FleetFrame first = lastFrameTo("console");
+        assertEquals(1, first.getKeyframes().size());
+        assertEquals("drone-1", first.getKeyframes().get(0).getDroneId());
+        assertArrayEquals(new int[] {0, 2, 2}, first.getUpdates());
+        assertEquals(0, first.getRemoved().length);
+    }
+
+    @Test
+    void testReclaimedViewportSubscriberGetsKeyframesAgain() throws InterruptedException {
+        TelemetryFanoutService lossy = new TelemetryFanoutService(
+                new SimpMessagingTemplate((message, timeout) -> sent.add(message)), telemetry,
+                new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(), new SimpleMeterRegistry(), 2, 50);
+        lossy.start();
+        List<ActiveDroneState> fleet = List.of(drone("drone-1", 20, -3.2000));
+        lossy.subscribe("lost", "sub-0", new Viewport(-3.2010, 55.9400, -3.1980, 55.9500));
+        tick(fleet, 0);
+        assertEquals(2, sentTo("lost").size(), "Neither frame is acknowledged, so the window stays full");
+
+        Thread.sleep(100);
+        tick(fleet, 1);
+        FleetFrame resent = lastFrameTo("lost");
+        assertEquals(1, resent.getKeyframes().size());
+        assertEquals("drone-1", resent.getKeyframes().get(0).getDroneId());
+        assertEquals(1, stepOf(resent, 0));
+    }
+
+    @Test
+    void testPanningSendsKeyframesInAndRemovalsOut() {
+        ActiveDroneState west = drone("drone-1", 20, -3.2000);
+        ActiveDroneState east = drone("drone-2", 20, -3.1500);
+        fanout.subscribe("console", "sub-0", null);
+        tick(List.of(west, east), 3);
+        fanout.delivered("console");
+        fanout.delivered("console");
+
+        // The whole-fleet subscriber already holds both routes, so narrowing only removes the one out of view.
+        fanout.setViewport("console", new Viewport(-3.2010, 55.9400, -3.1980, 55.9500));
+        FleetFrame narrowed = lastFrameTo("console");
+        assertTrue(narrowed.getKeyframes().isEmpty());
+        assertArrayEquals(new int[] {1}, narrowed.getRemoved());
+        assertArrayEquals(new int[] {0, 3, 2}, narrowed.getUpdates());
+        fanout.delivered("console");
+
+        fanout.setViewport("console", new Viewport(-3.1510, 55.9400, -3.1480, 55.9500));
+        FleetFrame panned = lastFrameTo("console");
+        assertEquals(1, panned.getKeyframes().size());
+        assertEquals("drone-2", panned.getKeyframes().get(0).getDroneId());
+        assertArrayEquals(new int[] {0}, panned.getRemoved());
+        assertArrayEquals(new int[] {1, 3, 2}, panned.getUpdates());
+    }
+
+    @Test
+    void testUnacknowledgedFramesAreReclaimedWithFreshKeyframes() throws InterruptedException {
+        TelemetryFanoutService lossy = new TelemetryFanoutService(
+                new SimpMessagingTemplate((message, timeout) -> sent.add(message)), telemetry,
+                new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel(), new SimpleMeterRegistry(), 2, 50);
+        lossy.start();
+        List<ActiveDroneState> fleet = List.of(drone("drone-1", 20));
+        lossy.subscribe("lost", "sub-0", null);
+        tick(fleet, 0);
+        tick(fleet, 1);
+        assertEquals(2, sentTo("lost").size(), "Neither frame is acknowledged, so the window stays full");
+
+        Thread.sleep(100);
+        tick(fleet, 2);
+        List<Message<?>> frames = sentTo("lost");
+        assertEquals(3, frames.size());
+        FleetFrame resent = (FleetFrame) frames.get(2).getPayload();
+        assertEquals(1, resent.getKeyframes().size());
+        assertEquals("drone-1", resent.getKeyframes().get(0).getDroneId());
+        assertEquals(2, stepOf(resent, 0));
+    }
+
+    @Test
+    void testFirstFrameWaitsForTheBrokerToRegisterTheSubscription() throws InterruptedException {
+        // The same channels and handlers the STOMP endpoint wires up, with a client inbound executor the test
+        // holds back so the subscription reaches the broker well after the SUBSCRIBE was accepted.
+        CountDownLatch inboundReleased = new CountDownLatch(1);
+        ExecutorService inboundExecutor = Executors.newSingleThreadExecutor();
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel(
+                task -> inboundExecutor.execute(() -> {
+                    try {
+                        inboundReleased.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    task.run();
+                }));
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        BlockingQueue<Message<?>> socket = new LinkedBlockingQueue<>();
+        clientOutbound.subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                socket.add(message);
+            }
+        });
+
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound,
+                brokerChannel, List.of("/topic", "/queue"));
+        UserDestinationMessageHandler userDestinations = new UserDestinationMessageHandler(clientInbound,
+                brokerChannel, new DefaultUserDestinationResolver(new DefaultSimpUserRegistry()));
+        broker.start();
+        userDestinations.start();
+        SimpleMeterRegistry brokeredRegistry = new SimpleMeterRegistry();
+        TelemetryFanoutService brokered = new TelemetryFanoutService(new SimpMessagingTemplate(brokerChannel),
+                telemetry, clientOutbound, brokerChannel, brokeredRegistry, 2, 60_000);
+        brokered.start();
+
+        try {
+            List<ActiveDroneState> fleet = List.of(drone("drone-1", 20));
+            tick(fleet, 0);
+
+            // The broker only delivers to sessions it has seen connect.
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId("session-1");
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("session-1");
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(TelemetryFanoutService.SUBSCRIBE_DESTINATION);
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+            tick(fleet, 1);
+            assertTrue(socket.isEmpty());
+            assertTrue(brokered.getSubscriberStats().isEmpty(), "Not a subscriber until the broker knows it");
+
+            inboundReleased.countDown();
+            Message<?> first = socket.poll(5, TimeUnit.SECONDS);
+            assertNotNull(first, "The first frame must reach the socket");
+            FleetFrame snapshot = (FleetFrame) first.getPayload();
+            assertEquals(1, snapshot.getKeyframes().size());
+            assertEquals("drone-1", snapshot.getKeyframes().get(0).getDroneId());
+            assertEquals("sub-0", SimpMessageHeaderAccessor.getSubscriptionId(first.getHeaders()));
+
+            // Every frame is acknowledged, so later ticks keep flowing instead of filling the window.
+            for (int step = 2; step < 8; step++) {
+                tick(fleet, step);
+                Message<?> next = socket.poll(5, TimeUnit.SECONDS);
+                assertNotNull(next, "Frame for step " + step);
+                assertEquals(step, stepOf((FleetFrame) next.getPayload(), 0));
+            }
+            assertEquals(0, brokeredRegistry.get("telemetry.subscriber.queue.depth").tag("session", "session-1")
+                    .gauge().value());
+        } finally {
+            broker.stop();
+            userDestinations.stop();
+            inboundExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFramesReachTheSocketInPublishOrderAcrossOutboundThreads() throws InterruptedException {
+        // A clientOutboundChannel backed by a thread pool, as in the running app, with a socket that takes a
+        // varying time over each write so that frames handed to different threads would overtake each other.
+        ExecutorService outboundExecutor = Executors.newFixedThreadPool(4);
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel(outboundExecutor);
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        BlockingQueue<Message<?>> socket = new LinkedBlockingQueue<>();
+        clientOutbound.subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(200_000));
+                socket.add(message);
+            }
+        });
+
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound,
+                brokerChannel, List.of("/topic", "/queue"));
+        broker.setPreservePublishOrder(true);
+        UserDestinationMessageHandler userDestinations = new UserDestinationMessageHandler(clientInbound,
+                brokerChannel, new DefaultUserDestinationResolver(new DefaultSimpUserRegistry()));
+        broker.start();
+        userDestinations.start();
+        SimpleMeterRegistry orderedRegistry = new SimpleMeterRegistry();
+        TelemetryFanoutService ordered = new TelemetryFanoutService(new SimpMessagingTemplate(brokerChannel),
+                telemetry, clientOutbound, brokerChannel, orderedRegistry, 2, 60_000);
+        ordered.start();
+
+        try {
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId("session-1");
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("session-1");
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(TelemetryFanoutService.SUBSCRIBE_DESTINATION);
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+
+            // Drones keep landing and being dispatched again on a new route, so every few ticks a removal is
+            // followed by a fresh keyframe for the same index.
+            List<ActiveDroneState> fleet = new ArrayList<>();
+            for (int d = 0; d < 6; d++) {
+                fleet.add(drone("drone-" + d, 20, -3.2000 + d * 0.001));
+            }
+            for (int tick = 0; tick < 300; tick++) {
+                for (int d = 0; d < fleet.size(); d++) {
+                    ActiveDroneState state = fleet.get(d);
+                    int phase = (tick + d * 3) % 20;
+                    if (phase == 19) {
+                        telemetry.ended(state.getDroneId());
+                        fleet.set(d, drone(state.getDroneId(), 20, -3.2000 + d * 0.001));
+                    } else {
+                        state.setStepIndex(phase);
+                        state.setStatus("FLYING");
+                        telemetry.record(state);
+                    }
+                }
+                telemetry.flush();
+            }
+
+            // Replay the frames the way the client does and check every update lands on a route it holds.
+            Map<Integer, Integer> routes = new HashMap<>();
+            int frames = 0;
+            Message<?> message;
+            while ((message = socket.poll(1, TimeUnit.SECONDS)) != null) {
+                FleetFrame frame = (FleetFrame) message.getPayload();
+                for (int index : frame.getRemoved()) {
+                    routes.remove(index);
+                }
+                for (var keyframe : frame.getKeyframes()) {
+                    routes.put(keyframe.getIndex(), keyframe.getRouteVersion());
+                }
+                int[] updates = frame.getUpdates();
+                for (int i = 0; i < updates.length; i += 3) {
+                    assertTrue(routes.containsKey(updates[i]),
+                            "Frame " + frame.getSeq() + " updates drone " + updates[i] + " before its keyframe");
+                }
+                frames++;
+            }
+            assertTrue(frames > 1, "Frames should keep flowing while they're acknowledged");
+            Map<Integer, Integer> expected = new HashMap<>();
+            telemetry.snapshot().getKeyframes().forEach(k -> expected.put(k.getIndex(), k.getRouteVersion()));
+            assertEquals(expected, routes, "The client should end up holding the fleet's current routes");
+            assertEquals(0, orderedRegistry.get("telemetry.subscriber.queue.depth").tag("session", "session-1")
+                    .gauge().value());
+        } finally {
+            broker.stop();
+            userDestinations.stop();
+            outboundExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testViewportHeaderParsing() {
+        Viewport viewport = TelemetryFanoutService.parseViewport("-3.20, 55.94,-3.18,55.95");
+        assertNotNull(viewport);
+        assertEquals(-3.20, viewport.getMinLng());
+        assertEquals(55.95, viewport.getMaxLat());
+        assertNull(TelemetryFanoutService.parseViewport("-3.18,55.94,-3.20,55.95"));
+        assertNull(TelemetryFanoutService.parseViewport("everywhere"));
+        assertNull(TelemetryFanoutService.parseViewport(null));
+    }
+}